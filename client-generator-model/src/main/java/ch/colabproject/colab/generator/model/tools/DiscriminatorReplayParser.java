@@ -0,0 +1,188 @@
+/*
+ * The coLAB project
+ * Copyright (C) 2023 AlbaSim, MEI, HEIG-VD, HES-SO
+ *
+ * Licensed under the MIT License
+ */
+package ch.colabproject.colab.generator.model.tools;
+
+import java.math.BigDecimal;
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonObject;
+import javax.json.JsonValue;
+import javax.json.stream.JsonLocation;
+import javax.json.stream.JsonParser;
+
+/**
+ * Parser which replays the beginning of an object (<code>{"@class": "..."</code>) which has
+ * already been consumed to read the discriminator, then delegates everything else to the original
+ * parser.
+ * <p>
+ * This allows the {@link PolymorphicDeserializer} to peek the discriminator and to hand the very
+ * same parser to the concrete class deserializer.
+ * <p>
+ * Closing this parser does not close the delegate.
+ *
+ * @author maxence
+ */
+class DiscriminatorReplayParser implements JsonParser {
+
+    /**
+     * Events to replay
+     */
+    private static final Event[] PREFIX = {
+        Event.START_OBJECT,
+        Event.KEY_NAME,
+        Event.VALUE_STRING
+    };
+
+    /**
+     * The original parser
+     */
+    private final JsonParser delegate;
+
+    /**
+     * Discriminator value
+     */
+    private final String atClass;
+
+    /**
+     * Number of replayed events
+     */
+    private int replayed = 0;
+
+    /**
+     * Create a replaying parser
+     *
+     * @param delegate original parser, positioned on the value of the discriminator
+     * @param atClass  the discriminator value
+     */
+    DiscriminatorReplayParser(JsonParser delegate, String atClass) {
+        this.delegate = delegate;
+        this.atClass = atClass;
+    }
+
+    /**
+     * Is the parser still replaying consumed events?
+     *
+     * @return true if the current event is a replayed one
+     */
+    private boolean isReplaying() {
+        return replayed <= PREFIX.length;
+    }
+
+    /**
+     * Has any event been read from the delegate?
+     *
+     * @return true if the delegate has been advanced through this parser
+     */
+    boolean isDelegateUsed() {
+        return replayed > PREFIX.length;
+    }
+
+    /**
+     * Make sure the current event comes from the delegate
+     *
+     * @param method name of the invoked method
+     */
+    private void assertNotReplaying(String method) {
+        if (isReplaying()) {
+            Object current = replayed > 0 ? PREFIX[replayed - 1] : "parser start";
+            throw new IllegalStateException(method + " not available on " + current);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return replayed < PREFIX.length || delegate.hasNext();
+    }
+
+    @Override
+    public Event next() {
+        if (replayed < PREFIX.length) {
+            return PREFIX[replayed++];
+        }
+        replayed = PREFIX.length + 1;
+        return delegate.next();
+    }
+
+    @Override
+    public String getString() {
+        if (replayed == 2) {
+            return "@class";
+        } else if (replayed == PREFIX.length) {
+            return atClass;
+        } else {
+            assertNotReplaying("getString");
+            return delegate.getString();
+        }
+    }
+
+    @Override
+    public boolean isIntegralNumber() {
+        assertNotReplaying("isIntegralNumber");
+        return delegate.isIntegralNumber();
+    }
+
+    @Override
+    public int getInt() {
+        assertNotReplaying("getInt");
+        return delegate.getInt();
+    }
+
+    @Override
+    public long getLong() {
+        assertNotReplaying("getLong");
+        return delegate.getLong();
+    }
+
+    @Override
+    public BigDecimal getBigDecimal() {
+        assertNotReplaying("getBigDecimal");
+        return delegate.getBigDecimal();
+    }
+
+    @Override
+    public JsonLocation getLocation() {
+        return delegate.getLocation();
+    }
+
+    @Override
+    public JsonObject getObject() {
+        assertNotReplaying("getObject");
+        return delegate.getObject();
+    }
+
+    @Override
+    public JsonValue getValue() {
+        if (replayed == PREFIX.length) {
+            return Json.createValue(atClass);
+        }
+        assertNotReplaying("getValue");
+        return delegate.getValue();
+    }
+
+    @Override
+    public JsonArray getArray() {
+        assertNotReplaying("getArray");
+        return delegate.getArray();
+    }
+
+    @Override
+    public void skipObject() {
+        assertNotReplaying("skipObject");
+        delegate.skipObject();
+    }
+
+    @Override
+    public void skipArray() {
+        assertNotReplaying("skipArray");
+        delegate.skipArray();
+    }
+
+    @Override
+    public void close() {
+        /* no-op: the delegate is owned by someone else */
+    }
+}
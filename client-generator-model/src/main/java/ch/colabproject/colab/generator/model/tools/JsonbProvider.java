@@ -6,20 +6,32 @@
  */
 package ch.colabproject.colab.generator.model.tools;
 
+import java.lang.reflect.Modifier;
+import java.util.Collection;
 import javax.json.bind.Jsonb;
 import javax.json.bind.JsonbBuilder;
 import javax.json.bind.JsonbConfig;
+import javax.json.bind.JsonbException;
 import javax.ws.rs.ext.ContextResolver;
 import javax.ws.rs.ext.Provider;
 
 /**
  * convenient way to customize the JSON-B mapper
+ * <p>
+ * Building a Jsonb instance is expensive: each instance holds its own cache of class models. As
+ * Jsonb instances are thread-safe, one single instance is shared by everyone. Please never close
+ * the instance returned by {@link #getJsonb()}; use {@link #release()} instead.
  *
  * @author Maxence
  */
 @Provider
 public class JsonbProvider implements ContextResolver<Jsonb> {
 
+    /**
+     * The shared mapper. Lazily created by {@link #getJsonb()}
+     */
+    private static volatile Jsonb jsonb;
+
     /**
      * {@inheritDoc}
      */
@@ -29,11 +41,31 @@ public class JsonbProvider implements ContextResolver<Jsonb> {
     }
 
     /**
-     * Get a customized mapper
+     * Get the shared customized mapper
      *
      * @return an Jsonb object
      */
     public static Jsonb getJsonb() {
+        Jsonb mapper = jsonb;
+        if (mapper == null) {
+            synchronized (JsonbProvider.class) {
+                mapper = jsonb;
+                if (mapper == null) {
+                    mapper = createJsonb();
+                    jsonb = mapper;
+                }
+            }
+        }
+        return mapper;
+    }
+
+    /**
+     * Build a brand new customized mapper. Most of the time, one should use the shared one
+     * ({@link #getJsonb()}).
+     *
+     * @return a new Jsonb object
+     */
+    public static Jsonb createJsonb() {
         //DateSerDe dateSerDe = new DateSerDe();
         JsonbConfig config = new JsonbConfig()
             .withFormatting(false);
@@ -45,4 +77,44 @@ public class JsonbProvider implements ContextResolver<Jsonb> {
 
         return JsonbBuilder.create(config);
     }
+
+    /**
+     * Make sure the shared mapper knows the given classes. Building class models on startup avoid
+     * paying the introspection cost on first messages.
+     *
+     * @param classes classes to analyse. Abstract classes and interfaces are ignored
+     *
+     * @return number of analysed classes
+     */
+    public static int warmUp(Collection<? extends Class<?>> classes) {
+        Jsonb mapper = getJsonb();
+        int count = 0;
+        for (Class<?> klass : classes) {
+            if (!klass.isInterface() && !Modifier.isAbstract(klass.getModifiers())) {
+                try {
+                    mapper.fromJson("{}", klass);
+                } catch (JsonbException ex) {
+                    // class can not be created from an empty object, its model is built anyway
+                }
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Close the shared mapper. Next call to {@link #getJsonb()} will create a new one.
+     */
+    public static void release() {
+        synchronized (JsonbProvider.class) {
+            if (jsonb != null) {
+                try {
+                    jsonb.close();
+                } catch (Exception ex) {
+                    // ignore: mapper is dropped anyway
+                }
+                jsonb = null;
+            }
+        }
+    }
 }
@@ -7,14 +7,22 @@
 package ch.colabproject.colab.generator.model.tools;
 
 import ch.colabproject.colab.generator.model.interfaces.WithJsonDiscriminator;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.Type;
-import java.util.HashMap;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.json.Json;
+import javax.json.JsonArrayBuilder;
 import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonValue;
+import javax.json.bind.Jsonb;
+import javax.json.bind.JsonbException;
 import javax.json.bind.serializer.DeserializationContext;
 import javax.json.bind.serializer.JsonbDeserializer;
 import javax.json.stream.JsonParser;
+import org.eclipse.yasson.YassonJsonb;
 import org.reflections.Reflections;
 
 /**
@@ -23,7 +31,15 @@ import org.reflections.Reflections;
  * <code>ch.colabproject.colab.generator.model</code> package.
  * <p>
  * The {@link #includePackage(java.lang.String) } method can be used to register implementations
- * from other packages.
+ * from other packages. The discriminator-to-class registry is fully built by this method, so no
+ * classpath scanning occurs during deserialization.
+ * </p>
+ * <p>
+ * The payload is parsed only once: if the <code>@class</code> discriminator is the first property
+ * (which is always the case for JSON-B-serialized objects), the remainder of the object is read
+ * from the very same parser by the concrete class deserializer. Otherwise, the object is collected
+ * as a JSON structure and deserialized from it. The latter is also used if the JSON-B
+ * implementation does not accept the parser handed to it.
  * </p>
  * All WithJsonDiscriminator abstract implementation MUST register this deserializer with the
  * {@link javax.json.bind.annotation.JsonbTypeDeserializer  JsonbTypeDeserializer} annotation.
@@ -46,10 +62,21 @@ import org.reflections.Reflections;
 public class PolymorphicDeserializer implements JsonbDeserializer<WithJsonDiscriminator> {
 
     /**
-     * Store class references
+     * Name of the discriminator property
+     */
+    private static final String DISCRIMINATOR = "@class";
+
+    /**
+     * Store class references, mapped by their discriminator
      */
     private static final Map<String, Class<? extends WithJsonDiscriminator>> CLASSES_MAP
-        = new HashMap<>();
+        = new ConcurrentHashMap<>();
+
+    /**
+     * Is the single-parse path enabled? It is disabled as soon as the JSON-B implementation
+     * refuses to read from a foreign parser.
+     */
+    private static volatile boolean fastPathEnabled = true;
 
     /**
      * Reflections allow to find, for instance, all implementations of an interface
@@ -61,6 +88,7 @@ public class PolymorphicDeserializer implements JsonbDeserializer<WithJsonDiscri
         REFLECTIONS = new Reflections(
             "ch.colabproject.colab.generator.model"
         );
+        registerKnownTypes();
     }
 
     /**
@@ -72,35 +100,162 @@ public class PolymorphicDeserializer implements JsonbDeserializer<WithJsonDiscri
     public static int includePackage(String packageName) {
         int size = REFLECTIONS.getSubTypesOf(WithJsonDiscriminator.class).size();
         REFLECTIONS.merge(new Reflections(packageName));
+        registerKnownTypes();
         return REFLECTIONS.getSubTypesOf(WithJsonDiscriminator.class).size() -  size;
     }
 
+    /**
+     * Get all known {@link WithJsonDiscriminator} implementations.
+     *
+     * @return set of known implementations
+     */
+    public static Set<Class<? extends WithJsonDiscriminator>> getKnownTypes() {
+        return REFLECTIONS.getSubTypesOf(WithJsonDiscriminator.class);
+    }
+
+    /**
+     * Register all known concrete implementations in the discriminator-to-class registry.
+     */
+    private static void registerKnownTypes() {
+        REFLECTIONS.getSubTypesOf(WithJsonDiscriminator.class).stream()
+            .filter(cl -> !cl.isInterface() && !Modifier.isAbstract(cl.getModifiers()))
+            .forEach(cl -> {
+                CLASSES_MAP.putIfAbsent(WithJsonDiscriminator.getJsonDiscriminator(cl), cl);
+            });
+    }
+
+    /**
+     * Resolve the concrete class
+     *
+     * @param atClass the discriminator
+     *
+     * @return the class
+     *
+     * @throws JsonbException if the discriminator is unknown
+     */
+    private static Class<? extends WithJsonDiscriminator> resolveClass(String atClass) {
+        Class<? extends WithJsonDiscriminator> theClass = atClass != null
+            ? CLASSES_MAP.get(atClass) : null;
+        if (theClass == null) {
+            throw new JsonbException("Unable to resolve @class " + atClass);
+        }
+        return theClass;
+    }
+
+    /**
+     * Deserialize the object from the given structure
+     *
+     * @param jsonb     the mapper
+     * @param value     the whole object
+     * @param theClass  the concrete class
+     *
+     * @return the object
+     */
+    private static WithJsonDiscriminator fromStructure(Jsonb jsonb, JsonObject value,
+        Class<? extends WithJsonDiscriminator> theClass) {
+        if (jsonb instanceof YassonJsonb) {
+            return ((YassonJsonb) jsonb).fromJsonStructure(value, theClass);
+        } else {
+            return jsonb.fromJson(value.toString(), theClass);
+        }
+    }
+
     /**
      * {@inheritDoc }
      */
     @Override
     public WithJsonDiscriminator deserialize(JsonParser parser, DeserializationContext ctx,
         Type rtType) {
-        // find @class discriminant from object to deserialize
-        JsonObject value = parser.getObject();
-        String atClass = value.getString("@class", null);
+        Jsonb jsonb = JsonbProvider.getJsonb();
 
-        // is this @class already known?
-        Class<? extends WithJsonDiscriminator> theClass = CLASSES_MAP.get(atClass);
+        // parser is on the START_OBJECT event, move to the first property
+        JsonParser.Event event = parser.next();
+        if (fastPathEnabled && event == JsonParser.Event.KEY_NAME
+            && DISCRIMINATOR.equals(parser.getString()) && jsonb instanceof YassonJsonb) {
+            // fast path: @class is the first property
+            if (parser.next() != JsonParser.Event.VALUE_STRING) {
+                // null or not a string: same error as the slow path
+                resolveClass(null);
+            }
+            String atClass = parser.getString();
+            Class<? extends WithJsonDiscriminator> theClass = resolveClass(atClass);
 
-        if (theClass == null) {
-            // nope -> let's resolve it with the help of reflections
-            Optional<Class<? extends WithJsonDiscriminator>> concreteClass
-                = REFLECTIONS.getSubTypesOf(WithJsonDiscriminator.class)
-                    .stream()
-                    .filter(cl -> cl.getSimpleName().equals(atClass))
-                    .findFirst();
-            if (concreteClass.isPresent()) {
-                theClass = concreteClass.get();
-                CLASSES_MAP.put(atClass, theClass);
+            // hand the same parser to the concrete class deserializer
+            DiscriminatorReplayParser replayParser = new DiscriminatorReplayParser(parser, atClass);
+            try {
+                return ((YassonJsonb) jsonb).fromJson(replayParser, theClass);
+            } catch (ClassCastException | IllegalStateException ex) {
+                if (replayParser.isDelegateUsed()) {
+                    throw ex;
+                }
+                // JSON-B implementation does not accept foreign parsers: as nothing but the
+                // discriminator has been read, fall back to the slow path, now and forever
+                fastPathEnabled = false;
+                JsonObjectBuilder builder = Json.createObjectBuilder().add(DISCRIMINATOR, atClass);
+                return fromStructure(jsonb, readObject(builder, parser, parser.next()), theClass);
             }
         }
 
-        return JsonbProvider.getJsonb().fromJson(value.toString(), theClass);
+        // slow path: collect the whole object to find the @class discriminator
+        JsonObject value = readObject(Json.createObjectBuilder(), parser, event);
+        Class<? extends WithJsonDiscriminator> theClass = resolveClass(
+            value.getString(DISCRIMINATOR, null));
+
+        return fromStructure(jsonb, value, theClass);
+    }
+
+    /**
+     * Read the remainder of an object.
+     *
+     * @param builder builder to add properties to
+     * @param parser  the parser
+     * @param event   first event after the START_OBJECT one
+     *
+     * @return the object
+     */
+    private static JsonObject readObject(JsonObjectBuilder builder, JsonParser parser,
+        JsonParser.Event event) {
+        JsonParser.Event current = event;
+        while (current == JsonParser.Event.KEY_NAME) {
+            String key = parser.getString();
+            builder.add(key, readValue(parser, parser.next()));
+            current = parser.next();
+        }
+        return builder.build();
+    }
+
+    /**
+     * Read one value. Only rely on {@link JsonParser#next()} to make sure the JSON-B parser keeps
+     * track of the depth.
+     *
+     * @param parser the parser
+     * @param event  event which starts the value
+     *
+     * @return the value
+     */
+    private static JsonValue readValue(JsonParser parser, JsonParser.Event event) {
+        switch (event) {
+            case START_OBJECT:
+                return readObject(Json.createObjectBuilder(), parser, parser.next());
+            case START_ARRAY:
+                JsonArrayBuilder array = Json.createArrayBuilder();
+                JsonParser.Event current = parser.next();
+                while (current != JsonParser.Event.END_ARRAY) {
+                    array.add(readValue(parser, current));
+                    current = parser.next();
+                }
+                return array.build();
+            case VALUE_STRING:
+                return Json.createValue(parser.getString());
+            case VALUE_NUMBER:
+                return Json.createValue(parser.getBigDecimal());
+            case VALUE_TRUE:
+                return JsonValue.TRUE;
+            case VALUE_FALSE:
+                return JsonValue.FALSE;
+            case VALUE_NULL:
+            default:
+                return JsonValue.NULL;
+        }
     }
 }
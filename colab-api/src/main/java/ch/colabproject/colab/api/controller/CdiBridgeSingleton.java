@@ -6,7 +6,7 @@
  */
 package ch.colabproject.colab.api.controller;
 
-import ch.colabproject.colab.api.microchanges.live.LiveManager;
+import ch.colabproject.colab.api.ws.monitoring.WebsocketMonitoring;
 import java.util.Map;
 import javax.ejb.Singleton;
 import javax.ejb.Startup;
@@ -34,12 +34,6 @@ public class CdiBridgeSingleton {
     @Inject
     private WebsocketManager websocketManager;
 
-    /**
-     * LiveManager
-     */
-    @Inject
-    private LiveManager liveManager;
-
     /**
      * Initialize the non-CDI bean
      */
@@ -58,27 +52,12 @@ public class CdiBridgeSingleton {
     }
 
     /**
-     * Bridge to {@link LiveManager#cancelDebounce(java.lang.Long) }
-     * <p>
-     * Cancel any debounce call related to the given blockId
-     *
-     * @param id id of the block
-     *
-     * @return true if there was something to cancel
-     */
-    public Boolean cancelDebounce(Long id) {
-        return liveManager.cancelDebounce(id);
-    }
-
-    /**
-     * Bridge to {@link LiveManager#process(java.lang.Long) }.
-     * <p>
-     * Process all pending changes and save new value to database.
+     * Bridge to {@link WebsocketManager#getLocalMonitoringData() }
      *
-     * @param id id of the block to process
+     * @return websocket delivery counters of this instance
      */
-    public void processMicroChanges(Long id) {
-        liveManager.process(id);
+    public WebsocketMonitoring getWebsocketMonitoring() {
+        return websocketManager.getLocalMonitoringData();
     }
 
 }
@@ -12,8 +12,10 @@ import ch.colabproject.colab.api.persistence.jpa.project.ProjectDao;
 import ch.colabproject.colab.api.persistence.jpa.team.TeamMemberDao;
 import ch.colabproject.colab.api.persistence.jpa.user.UserDao;
 import ch.colabproject.colab.api.ws.WebsocketMessagePreparer;
+import ch.colabproject.colab.api.ws.channel.tool.ChannelsMemo;
 import ch.colabproject.colab.api.ws.message.IndexEntry;
 import ch.colabproject.colab.api.ws.message.PrecomputedWsMessages;
+import ch.colabproject.colab.api.ws.utils.PropagationIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -22,9 +24,7 @@ import javax.inject.Inject;
 import javax.transaction.Status;
 import java.io.Serializable;
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * Transaction sidekick used to collect updated and deleted entities. Once the transaction is
@@ -90,14 +90,10 @@ public class EntityGatheringBagForPropagation implements Serializable {
     private WebsocketTxManager txManager;
 
     /**
-     * set of updated entities to be propagated
+     * updated entities to be propagated and entities which have been deleted during the
+     * transaction, indexed by type and id
      */
-    private Set<WithWebsocketChannels> updated = new HashSet<>();
-
-    /**
-     * set of entities which have been deleted during the transaction
-     */
-    private Set<IndexEntry> deleted = new HashSet<>();
+    private PropagationIndex index = new PropagationIndex();
 
     /**
      * store the prepared messages
@@ -155,8 +151,8 @@ public class EntityGatheringBagForPropagation implements Serializable {
     public void registerUpdate(WithWebsocketChannels o) {
         // make sure txManager exists by just touching it
         txManager.touch();
-        updated.add(o);
-        logger.trace("UpdatedSet: {}", updated);
+        index.registerUpdate(o);
+        logger.trace("Index: {}", index);
     }
 
     /**
@@ -167,8 +163,8 @@ public class EntityGatheringBagForPropagation implements Serializable {
     public void registerUpdates(Collection<WithWebsocketChannels> c) {
         // make sure txManager exists by just touching it
         txManager.touch();
-        updated.addAll(c);
-        logger.trace("UpdatedSet: {}", updated);
+        c.forEach(index::registerUpdate);
+        logger.trace("Index: {}", index);
     }
 
     /**
@@ -179,10 +175,8 @@ public class EntityGatheringBagForPropagation implements Serializable {
     public void registerDeletion(Collection<? extends WithWebsocketChannels> c) {
         // make sure txManager exists by just touching it
         txManager.touch();
-        c.stream()
-            .map(IndexEntry::build)
-            .forEach(deleted::add);
-        logger.trace("Deleted set: {}", deleted);
+        c.forEach(index::registerDeletion);
+        logger.trace("Index: {}", index);
     }
 
     /**
@@ -193,8 +187,8 @@ public class EntityGatheringBagForPropagation implements Serializable {
     public void registerDeletion(WithWebsocketChannels o) {
         // make sure txManager exists by just touching it
         txManager.touch();
-        deleted.add(IndexEntry.build(o));
-        logger.trace("Deleted set: {}", deleted);
+        index.registerDeletion(o);
+        logger.trace("Index: {}", index);
     }
 
     /**
@@ -202,19 +196,18 @@ public class EntityGatheringBagForPropagation implements Serializable {
      */
     private void precomputeMessage() {
         try {
-            logger.debug("Precompute messages; Update:{}, Deletes:{}", updated, deleted);
-            // filter updates to keep only those who haven't been deleted
-            Set<WithWebsocketChannels> filtered = updated.stream()
-                .filter(
-                    (u) -> !deleted.stream()
-                        .anyMatch((d) -> d.equals(u))
-                ).collect(Collectors.toSet());
+            logger.debug("Precompute messages; {}", index);
+            // the index never returns updates of deleted objects
+            Set<WithWebsocketChannels> filtered = index.getUpdated();
+            Set<IndexEntry> deleted = index.getDeleted();
 
             this.precomputed = true;
+            ChannelsMemo memo = new ChannelsMemo();
             requestManager.sudo(() -> {
-                return this.message = WebsocketMessagePreparer.prepareWsMessage(userDao, teamDao,
-                    cardTypeDao, projectDao, filtered, deleted);
+                return this.message = WebsocketMessagePreparer.prepareWsMessage(memo, userDao,
+                    teamDao, cardTypeDao, projectDao, filtered, deleted);
             });
+            websocketManager.registerChannelsMemo(memo);
             logger.debug("Precomputed: {}", message);
         } catch (Exception ex) {
             logger.error("Failed to precompute websocket messages", ex);
@@ -0,0 +1,66 @@
+/*
+ * The coLAB project
+ * Copyright (C) 2023 AlbaSim, MEI, HEIG-VD, HES-SO
+ *
+ * Licensed under the MIT License
+ */
+package ch.colabproject.colab.api.controller;
+
+import ch.colabproject.colab.api.microchanges.live.LiveManager;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.ejb.Lock;
+import javax.ejb.LockType;
+import javax.ejb.Schedule;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Save blocks edited by micro changes. Runs each second, apart from {@link CronTab} so long
+ * periodic tasks never delay it, and vice versa.
+ *
+ * @author maxence
+ */
+@Singleton
+@Startup
+@Lock(LockType.READ)
+public class MicroChangesCron {
+
+    /** logger */
+    private static final Logger logger = LoggerFactory.getLogger(MicroChangesCron.class);
+
+    /** Micro changes manager */
+    @Inject
+    private LiveManager liveManager;
+
+    /**
+     * Is a run in progress? Runs which overlap the previous one are skipped
+     */
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    /**
+     * Each second, save blocks edited by micro changes once they are idle. Each instance processes
+     * the blocks it owns.
+     */
+    @Schedule(hour = "*", minute = "*", second = "*", persistent = false)
+    public void processMicroChanges() {
+        if (!running.compareAndSet(false, true)) {
+            logger.trace("CRON: previous micro changes processing still running");
+            return;
+        }
+        try {
+            for (Long blockId : liveManager.getBlocksToProcess()) {
+                logger.trace("CRON: process micro changes of block #{}", blockId);
+                try {
+                    liveManager.process(blockId);
+                } catch (RuntimeException ex) {
+                    logger.error("Fails to process micro changes of block #{}", blockId, ex);
+                }
+            }
+        } finally {
+            running.set(false);
+        }
+    }
+}
@@ -21,6 +21,7 @@ import java.util.concurrent.Callable;
 import javax.enterprise.context.RequestScoped;
 import javax.inject.Inject;
 import javax.persistence.EntityManager;
+import javax.persistence.FlushModeType;
 import javax.persistence.PersistenceContext;
 import javax.ws.rs.container.ContainerRequestContext;
 import org.slf4j.Logger;
@@ -299,6 +300,36 @@ public class RequestManager {
         this.sudoAsAdmin--;
     }
 
+    /**
+     * Execute some read-only piece of code with admin privileges.
+     * <p>
+     * Unlike {@link #sudo(java.lang.Runnable) sudo}, the persistence context is never flushed:
+     * pending changes are neither checked nor written with admin rights. Queries run by the action
+     * do not trigger any automatic flush either. Used to evaluate read conditions in their own
+     * transaction, which has nothing to flush.
+     *
+     * @param action read-only code to execute with admin privileges
+     */
+    public void sudoReadOnly(Runnable action) {
+        FlushModeType flushMode = null;
+        if (txExists()) {
+            flushMode = em.getFlushMode();
+            em.setFlushMode(FlushModeType.COMMIT);
+        }
+
+        this.sudoAsAdmin++;
+        logger.trace("SudoReadOnly #{}", this.sudoAsAdmin);
+        try {
+            action.run();
+        } finally {
+            logger.trace("EndOfSudoReadOnly #{}", this.sudoAsAdmin);
+            this.sudoAsAdmin--;
+            if (flushMode != null) {
+                em.setFlushMode(flushMode);
+            }
+        }
+    }
+
     /**
      * Execute some piece of code with admin privileges and return something.
      *
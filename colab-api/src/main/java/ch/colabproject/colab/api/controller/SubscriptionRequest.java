@@ -6,15 +6,21 @@
  */
 package ch.colabproject.colab.api.controller;
 
-import java.io.Serializable;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 
 /**
  * Subscription request to be propagated through the cluster to reach the instance which is
- * responsible for the given wsSessionId
+ * responsible for the given wsSessionId.
+ * <p>
+ * Requests are sent through cluster CDI events, which rely on java serialization: the request is
+ * {@link Externalizable} to avoid the cost of the default serialization.
  *
  * @author maxence
  */
-public class SubscriptionRequest implements Serializable {
+public class SubscriptionRequest implements Externalizable {
 
     private static final long serialVersionUID = 1L;
 
@@ -169,6 +175,82 @@ public class SubscriptionRequest implements Serializable {
         this.channelId = channelId;
     }
 
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        writeNullableString(out, type != null ? type.name() : null);
+        writeNullableString(out, channelType != null ? channelType.name() : null);
+        writeNullableLong(out, channelId);
+        writeNullableLong(out, colabSessionId);
+        writeNullableString(out, wsSessionId);
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException {
+        String typeName = readNullableString(in);
+        type = typeName != null ? SubscriptionType.valueOf(typeName) : null;
+        String channelTypeName = readNullableString(in);
+        channelType = channelTypeName != null ? ChannelType.valueOf(channelTypeName) : null;
+        channelId = readNullableLong(in);
+        colabSessionId = readNullableLong(in);
+        wsSessionId = readNullableString(in);
+    }
+
+    /**
+     * Write a string which may be null
+     *
+     * @param out   output
+     * @param value the string
+     *
+     * @throws IOException if writing failed
+     */
+    private static void writeNullableString(ObjectOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    /**
+     * Read a string which may be null
+     *
+     * @param in input
+     *
+     * @return the string or null
+     *
+     * @throws IOException if reading failed
+     */
+    private static String readNullableString(ObjectInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    /**
+     * Write a long which may be null
+     *
+     * @param out   output
+     * @param value the value
+     *
+     * @throws IOException if writing failed
+     */
+    private static void writeNullableLong(ObjectOutput out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    /**
+     * Read a long which may be null
+     *
+     * @param in input
+     *
+     * @return the value or null
+     *
+     * @throws IOException if reading failed
+     */
+    private static Long readNullableLong(ObjectInput in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+
     @Override
     public String toString() {
         return "SubscriptionRequest{"
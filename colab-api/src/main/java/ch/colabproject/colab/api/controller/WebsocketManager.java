@@ -9,6 +9,7 @@ package ch.colabproject.colab.api.controller;
 import ch.colabproject.colab.api.controller.document.BlockManager;
 import ch.colabproject.colab.api.controller.project.ProjectManager;
 import ch.colabproject.colab.api.controller.security.SecurityManager;
+import ch.colabproject.colab.api.microchanges.live.LiveManager;
 import ch.colabproject.colab.api.model.document.TextDataBlock;
 import ch.colabproject.colab.api.model.project.Project;
 import ch.colabproject.colab.api.model.user.HttpSession;
@@ -19,7 +20,10 @@ import ch.colabproject.colab.api.persistence.jpa.team.TeamMemberDao;
 import ch.colabproject.colab.api.persistence.jpa.user.UserDao;
 import ch.colabproject.colab.api.presence.PresenceManager;
 import ch.colabproject.colab.api.presence.model.TouchUserPresence;
+import ch.colabproject.colab.api.presence.model.UserPresence;
+import ch.colabproject.colab.api.security.TermsOfUseManager;
 import ch.colabproject.colab.api.security.permissions.Conditions;
+import ch.colabproject.colab.api.setup.ColabConfiguration;
 import ch.colabproject.colab.api.ws.WebsocketEndpoint;
 import ch.colabproject.colab.api.ws.WebsocketMessagePreparer;
 import ch.colabproject.colab.api.ws.channel.model.BlockChannel;
@@ -27,43 +31,71 @@ import ch.colabproject.colab.api.ws.channel.model.BroadcastChannel;
 import ch.colabproject.colab.api.ws.channel.model.ProjectContentChannel;
 import ch.colabproject.colab.api.ws.channel.model.UserChannel;
 import ch.colabproject.colab.api.ws.channel.model.WebsocketChannel;
+import ch.colabproject.colab.api.ws.channel.tool.ChannelsMemo;
+import ch.colabproject.colab.api.ws.message.IndexEntry;
 import ch.colabproject.colab.api.ws.message.PrecomputedWsMessages;
+import ch.colabproject.colab.api.ws.message.PrecomputedWsUpdateMessage;
+import ch.colabproject.colab.api.ws.message.WsChangeMessage;
 import ch.colabproject.colab.api.ws.message.WsChannelUpdate;
+import ch.colabproject.colab.api.ws.message.WsMessage;
 import ch.colabproject.colab.api.ws.message.WsSessionIdentifier;
 import ch.colabproject.colab.api.ws.message.WsSignOutMessage;
+import ch.colabproject.colab.api.ws.monitoring.WebsocketMonitoring;
 import ch.colabproject.colab.api.ws.utils.CallableGetChannel;
+import ch.colabproject.colab.api.ws.utils.CallableGetWsMonitoring;
+import ch.colabproject.colab.api.ws.utils.OutboundFrame;
+import ch.colabproject.colab.api.ws.utils.SessionOutbox;
+import ch.colabproject.colab.api.ws.utils.UpdateChannelDirectory;
+import ch.colabproject.colab.api.ws.utils.WebsocketCounters;
 import ch.colabproject.colab.generator.model.exceptions.HttpErrorMessage;
 import fish.payara.micro.cdi.Inbound;
 import fish.payara.micro.cdi.Outbound;
-import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
 import javax.ejb.Lock;
 import javax.ejb.LockType;
 import javax.ejb.Singleton;
 import javax.ejb.Startup;
+import javax.enterprise.concurrent.ManagedScheduledExecutorService;
+import javax.enterprise.context.control.ActivateRequestContext;
 import javax.enterprise.event.Event;
 import javax.enterprise.event.Observes;
 import javax.inject.Inject;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
 import javax.websocket.EncodeException;
 import javax.websocket.Session;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.hazelcast.cluster.Member;
+import com.hazelcast.cluster.MembershipEvent;
+import com.hazelcast.cluster.MembershipListener;
 import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.core.IExecutorService;
+import com.hazelcast.map.IMap;
+import com.hazelcast.replicatedmap.ReplicatedMap;
+import com.hazelcast.topic.ITopic;
 
 /**
  * Some methods to handle websocket connections. In the future, we may consider using external
@@ -76,7 +108,7 @@ import com.hazelcast.core.IExecutorService;
 // make sure the singleton is available as soon as possible with @Startup annotation
 @Startup
 // Since few methods actually need mutual exclusion, make sure to set default locktype to READ
-// mutual exclusion is managed by hand in methods with synchronized blocks
+// subscription registries are concurrent maps of concurrent sets: no mutual exclusion is needed
 @Lock(LockType.READ)
 public class WebsocketManager {
 
@@ -104,17 +136,25 @@ public class WebsocketManager {
     private Event<SubscriptionRequest> subscriptionEvents;
 
     /**
-     * Cluster-wide propagation event channel
+     * Prefix of the delivery topic of each instance. The full name is suffixed with the instance
+     * member uuid.
      */
-    private static final String WS_PROPAGATION_CHANNEL = "WS_PROPAGATION_CHANNEL";
+    private static final String WS_DELIVERY_TOPIC = "WS_DELIVERY_";
 
     /**
-     * In order to propagate changes to everyone. Each cluster instance must propagate changes to
-     * sessions the instance is in change. This is the hz event to request such a propagation.
+     * Id of the listener registered on this instance delivery topic
      */
-    @Inject
-    @Outbound(eventName = WS_PROPAGATION_CHANNEL, loopBack = true)
-    private Event<PrecomputedWsMessages> messagePropagation;
+    private UUID deliveryListenerId;
+
+    /**
+     * Id of the listener of presences which expire on this instance
+     */
+    private UUID presenceExpiryListenerId;
+
+    /**
+     * Id of the listener of cluster membership changes
+     */
+    private UUID membershipListenerId;
 
     /**
      * Access control
@@ -170,12 +210,27 @@ public class WebsocketManager {
     @Inject
     private PresenceManager presenceManager;
 
+    /**
+     * Live changes manager
+     */
+    @Inject
+    private LiveManager liveManager;
+
+    /**
+     * To check users agreed to the current terms of use
+     */
+    @Inject
+    private TermsOfUseManager termsOfUseManager;
+
     /** to propagate changes */
     @Inject
     private EntityGatheringBagForPropagation bag;
 
     /**
      * channel subscriptions.
+     * <p>
+     * Sets are concurrent ones: they're read by the fan-out while being updated. Empty sets are
+     * removed atomically, through compute methods only.
      */
     private ConcurrentMap<WebsocketChannel, Set<Session>> subscriptions = new ConcurrentHashMap<>();
 
@@ -200,6 +255,174 @@ public class WebsocketManager {
      */
     private ConcurrentMap<Session, Set<WebsocketChannel>> wsSessionMap = new ConcurrentHashMap<>();
 
+    /**
+     * Outbound queue of each websocket session
+     */
+    private ConcurrentMap<Session, SessionOutbox> outboxes = new ConcurrentHashMap<>();
+
+    /**
+     * Websocket delivery counters
+     */
+    private final WebsocketCounters counters = new WebsocketCounters();
+
+    /**
+     * Update messages waiting for the end of the coalescing window, mapped by channel. Guarded by
+     * its own monitor.
+     */
+    private final Map<WebsocketChannel, PrecomputedWsUpdateMessage> pendingUpdates
+        = new HashMap<>();
+
+    /**
+     * Messages waiting to be delivered, in order. Guarded by the pendingUpdates monitor.
+     */
+    private final Deque<Supplier<PrecomputedWsMessages>> deliveries = new ArrayDeque<>();
+
+    /**
+     * Is a thread delivering messages of the delivery queue? Guarded by the pendingUpdates
+     * monitor.
+     */
+    private boolean delivering = false;
+
+    /**
+     * Channel occupancy changes waiting to be sent to admins, mapped by channel. Guarded by its own
+     * monitor.
+     */
+    private final Map<WebsocketChannel, Integer> pendingChannelChanges = new HashMap<>();
+
+    /**
+     * Presence changes waiting to be propagated, mapped by project id. Guarded by its own
+     * monitor.
+     */
+    private final Map<Long, PresenceDelta> pendingPresences = new HashMap<>();
+
+    /**
+     * To flush pending updates at the end of the coalescing window
+     */
+    @Resource
+    private ManagedScheduledExecutorService scheduler;
+
+    /**
+     * To propagate presence changes once the transaction is committed
+     */
+    @Resource
+    private TransactionSynchronizationRegistry jtaSyncRegistry;
+
+    /**
+     * Get the cluster-wide directory of occupied channels.
+     * <p>
+     * channelUrn => uuids of instances which host subscribers. Entries are only updated through
+     * {@link UpdateChannelDirectory}, synchronously, so a subscription is visible to all instances
+     * as soon as it is registered.
+     *
+     * @return the directory
+     */
+    private IMap<String, HashSet<String>> getChannelDirectory() {
+        return hzInstance.getMap("WS_CHANNEL_DIRECTORY");
+    }
+
+    /**
+     * Get the delivery topic of the given instance
+     *
+     * @param memberUuid uuid of the instance
+     *
+     * @return the topic
+     */
+    private ITopic<PrecomputedWsMessages> getDeliveryTopic(UUID memberUuid) {
+        return hzInstance.getTopic(WS_DELIVERY_TOPIC + memberUuid);
+    }
+
+    /**
+     * Listen to this instance delivery topic, to presences which expire on this instance and to
+     * instances which leave the cluster.
+     */
+    @PostConstruct
+    public void init() {
+        UUID localUuid = hzInstance.getCluster().getLocalMember().getUuid();
+        deliveryListenerId = getDeliveryTopic(localUuid)
+            .addMessageListener(message -> onMessagePropagation(message.getMessageObject()));
+        presenceExpiryListenerId = presenceManager
+            .addExpiryListener(event -> propagatePresenceDeletion(event.getOldValue()));
+        membershipListenerId = hzInstance.getCluster()
+            .addMembershipListener(new MembershipListener() {
+                @Override
+                public void memberAdded(MembershipEvent membershipEvent) {
+                    /* no-op */
+                }
+
+                @Override
+                public void memberRemoved(MembershipEvent membershipEvent) {
+                    onMemberRemoved(membershipEvent.getMember().getUuid());
+                }
+            });
+    }
+
+    /**
+     * Forget channels and connected users hosted by an instance which left the cluster, crashed
+     * ones included. Only the oldest remaining instance does the cleanup.
+     *
+     * @param memberUuid uuid of the instance which left the cluster
+     */
+    private void onMemberRemoved(UUID memberUuid) {
+        Member oldest = hzInstance.getCluster().getMembers().iterator().next();
+        if (oldest.localMember()) {
+            logger.info("Member {} left the cluster: clean channel directory", memberUuid);
+            getChannelDirectory().executeOnEntries(
+                new UpdateChannelDirectory(memberUuid.toString(), false));
+
+            String prefix = memberUuid + ":";
+            ReplicatedMap<String, Long> connectedUsers = getConnectedUsers();
+            new ArrayList<>(connectedUsers.keySet()).stream()
+                .filter(key -> key.startsWith(prefix))
+                .forEach(connectedUsers::remove);
+        }
+    }
+
+    /**
+     * Stop listening and remove this instance entries from the channel directory.
+     */
+    @PreDestroy
+    public void destroy() {
+        UUID localUuid = hzInstance.getCluster().getLocalMember().getUuid();
+        if (deliveryListenerId != null) {
+            getDeliveryTopic(localUuid).removeMessageListener(deliveryListenerId);
+        }
+        if (presenceExpiryListenerId != null) {
+            presenceManager.removeExpiryListener(presenceExpiryListenerId);
+        }
+        if (membershipListenerId != null) {
+            hzInstance.getCluster().removeMembershipListener(membershipListenerId);
+        }
+        Set<String> urns = subscriptions.keySet().stream()
+            .map(WebsocketChannel::getUrn)
+            .collect(Collectors.toSet());
+        if (!urns.isEmpty()) {
+            getChannelDirectory().executeOnKeys(urns,
+                new UpdateChannelDirectory(localUuid.toString(), false));
+        }
+    }
+
+    /**
+     * Get the cluster-wide registry of users who are connected through websockets.
+     * <p>
+     * memberUuid:userId => userId
+     *
+     * @return the registry
+     */
+    private ReplicatedMap<String, Long> getConnectedUsers() {
+        return hzInstance.getReplicatedMap("WS_CONNECTED_USERS");
+    }
+
+    /**
+     * Build the key of the given user in the connected users registry
+     *
+     * @param channel channel of the user
+     *
+     * @return the key
+     */
+    private String getConnectedUserKey(UserChannel channel) {
+        return hzInstance.getCluster().getLocalMember().getUuid() + ":" + channel.getUserId();
+    }
+
     /**
      * Get list of all occupied channels.
      * <p>
@@ -439,40 +662,47 @@ public class WebsocketManager {
                 // first determine the effective channel
                 WebsocketChannel channel = getChannel(request);
                 if (channel != null) {
-                    synchronized (this) {
+                    // make sure to link wsSession to its Http session
+                    // wsSessionToHttpSession.put(session, request.getColabSessionId()); //
+                    // TODO: is it even used ?
+                    if (request.getType() == SubscriptionRequest.SubscriptionType.SUBSCRIBE) {
+                        // the request has been authenticated: changes sent through the websocket
+                        // will be processed on behalf of the same http session. A websocket
+                        // session which belongs to another http session is never taken over
+                        if (!WebsocketEndpoint.linkColabSession(session,
+                            request.getColabSessionId())) {
+                            logger.warn("Reject subscription of a websocket session linked to "
+                                + "another http session: {}", request);
+                            return;
+                        }
+
                         // make sure the http session has its own set of wsSessions
                         // and make sure the websocket session is linked to the http session
-                        httpSessionToWsSessions
-                            .computeIfAbsent(request.getColabSessionId(), (key) -> {
-                                return new HashSet<>();
-                            })
-                            // and make sure the websocket session is linked to the http session
-                            .add(session);
-
-                        // make sure to link wsSession to its Http session
-                        // wsSessionToHttpSession.put(session, request.getColabSessionId()); //
-                        // TODO: is it even used ?
-                        if (request.getType() == SubscriptionRequest.SubscriptionType.SUBSCRIBE) {
-                            // make sure the http session has its own list of channels
-                            wsSessionMap.computeIfAbsent(session, (key) -> {
-                                return new HashSet<>();
-                            })
-                                // keep wsSession to channel registry up-to date
-                                .add(channel);
-
-                            // subscribe to channel
-                            subscribe(channel, session);
-                        } else {
-                            // Remove the channel from the set of channel linked to the wsSession
-                            if (wsSessionMap.containsKey(session)) {
-                                Set<WebsocketChannel> channels = wsSessionMap.get(session);
-                                channels.remove(channel);
-                                if (channels.isEmpty()) {
-                                    wsSessionMap.remove(session);
-                                }
-                            }
-                            unsubscribe(channel, Set.of(session));
-                        }
+                        httpSessionToWsSessions.compute(request.getColabSessionId(),
+                            (key, set) -> {
+                                Set<Session> wsSessions = set != null ? set
+                                    : ConcurrentHashMap.newKeySet();
+                                wsSessions.add(session);
+                                return wsSessions;
+                            });
+                        // make sure the http session has its own list of channels
+                        // and keep wsSession to channel registry up-to date
+                        wsSessionMap.compute(session, (key, set) -> {
+                            Set<WebsocketChannel> channels = set != null ? set
+                                : ConcurrentHashMap.newKeySet();
+                            channels.add(channel);
+                            return channels;
+                        });
+
+                        // subscribe to channel
+                        subscribe(channel, session);
+                    } else {
+                        // Remove the channel from the set of channel linked to the wsSession
+                        wsSessionMap.computeIfPresent(session, (key, channels) -> {
+                            channels.remove(channel);
+                            return channels.isEmpty() ? null : channels;
+                        });
+                        unsubscribe(channel, Set.of(session));
                     }
                 } else {
                     logger.debug("Failed to resolve {} to an effective channel", request);
@@ -494,9 +724,21 @@ public class WebsocketManager {
             String sessionId = WebsocketEndpoint.getSessionId(session);
             logger.debug("Session {} subscribes to {}", sessionId, channel);
         }
-        subscriptions.computeIfAbsent(channel, (key -> {
-            return new HashSet<>();
-        })).add(session);
+        boolean[] created = {false};
+        subscriptions.compute(channel, (key, set) -> {
+            Set<Session> sessions = set;
+            if (sessions == null) {
+                sessions = ConcurrentHashMap.newKeySet();
+                created[0] = true;
+            }
+            sessions.add(session);
+            return sessions;
+        });
+
+        if (created[0]) {
+            // this instance now hosts subscribers of the channel
+            this.updateChannelDirectory(channel, true);
+        }
 
         // make sure to propagate channelCHange after subscription
         // (the ChannelChange event may be send through this very subscription, eg if an admin
@@ -512,44 +754,124 @@ public class WebsocketManager {
      * @param sessions session to remove from channel
      */
     private void unsubscribe(WebsocketChannel channel, Set<Session> sessions) {
-        Set<Session> chSessions = subscriptions.get(channel);
         if (logger.isDebugEnabled()) {
             logger.debug("Sessions {} unsubscribes from {}",
                 sessions.stream().map(session -> WebsocketEndpoint.getSessionId(session)
                 ), channel);
         }
-        if (chSessions != null) {
-            int size = chSessions.size();
-            chSessions.removeAll(sessions);
+        int[] removed = {0};
+        boolean[] emptied = {false};
+        subscriptions.computeIfPresent(channel, (key, chSessions) -> {
+            for (Session session : sessions) {
+                if (chSessions.remove(session)) {
+                    removed[0]++;
+                }
+            }
+            if (chSessions.isEmpty()) {
+                emptied[0] = true;
+                return null;
+            }
+            return chSessions;
+        });
 
-            // make sure to propagate change before the unsubscription is effective
-            this.propagateChannelChange(channel, chSessions.size() - size);
+        if (emptied[0]) {
+            this.updateChannelDirectory(channel, false);
+        }
 
-            if (chSessions.isEmpty()) {
-                subscriptions.remove(channel);
+        if (removed[0] > 0) {
+            this.propagateChannelChange(channel, -removed[0]);
+        }
+    }
+
+    /**
+     * Register or unregister this instance as a host of subscribers of the channel. The directory
+     * and the connected users are remote structures: they are updated once the local registry has
+     * been updated, not while holding its lock.
+     * <p>
+     * As the channel may be created or emptied again by another thread meanwhile, the local
+     * registry is checked again after each update and the update is repeated until both agree.
+     * Updates are idempotent.
+     *
+     * @param channel the channel
+     * @param hosted  true if this instance hosts subscribers of the channel
+     */
+    private void updateChannelDirectory(WebsocketChannel channel, boolean hosted) {
+        String localUuid = hzInstance.getCluster().getLocalMember().getUuid().toString();
+        boolean state = hosted;
+        while (true) {
+            getChannelDirectory().executeOnKey(channel.getUrn(),
+                new UpdateChannelDirectory(localUuid, state));
+            if (channel instanceof UserChannel) {
+                UserChannel userChannel = (UserChannel) channel;
+                if (state) {
+                    getConnectedUsers().put(getConnectedUserKey(userChannel),
+                        userChannel.getUserId());
+                } else {
+                    getConnectedUsers().remove(getConnectedUserKey(userChannel));
+                }
+            }
+            boolean current = subscriptions.containsKey(channel);
+            if (current == state) {
+                return;
             }
+            state = current;
         }
     }
 
     /**
-     * Propagate a channel change
+     * Propagate a channel change. Changes are not sent immediately: all changes which occur within
+     * a short window are aggregated and sent at once.
      *
      * @param channel the channel
      * @param diff    diff
      */
     private void propagateChannelChange(WebsocketChannel channel, int diff) {
-        try {
-            PrecomputedWsMessages prepareWsMessage = WebsocketMessagePreparer
-                .prepareWsMessageForAdmins(
-                    userDao,
-                    WsChannelUpdate.build(channel, diff)
-                );
-            this.propagate(prepareWsMessage);
-        } catch (EncodeException ex) {
-            logger.error("Faild to propagate channel change :{}", channel);
+        boolean schedule;
+        synchronized (pendingChannelChanges) {
+            schedule = pendingChannelChanges.isEmpty();
+            pendingChannelChanges.merge(channel, diff, Integer::sum);
+        }
+        if (schedule) {
+            scheduler.schedule(this::flushChannelChanges,
+                ColabConfiguration.getWsChannelChangeWindow(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Send aggregated channel changes to admins. One message per channel.
+     */
+    private void flushChannelChanges() {
+        List<WsMessage> messages = new ArrayList<>();
+        synchronized (pendingChannelChanges) {
+            pendingChannelChanges.forEach((channel, diff) -> {
+                if (diff != 0) {
+                    messages.add(WsChannelUpdate.build(channel, diff));
+                }
+            });
+            pendingChannelChanges.clear();
+        }
+
+        if (!messages.isEmpty() && isAnyAdminConnected()) {
+            try {
+                PrecomputedWsMessages prepareWsMessage = WebsocketMessagePreparer
+                    .prepareWsMessageForAdmins(userDao, messages);
+                this.propagate(prepareWsMessage);
+            } catch (EncodeException ex) {
+                logger.error("Faild to propagate channel changes :{}", messages);
+            }
         }
     }
 
+    /**
+     * Is there at least one admin connected somewhere in the cluster?
+     *
+     * @return true if at least one admin is connected
+     */
+    private boolean isAnyAdminConnected() {
+        Set<Long> adminIds = userDao.findAllAdminIds();
+        return getConnectedUsers().values().stream().anyMatch(adminIds::contains);
+    }
+
     /**
      * Determine the EffectiveChannel
      *
@@ -582,59 +904,349 @@ public class WebsocketManager {
     }
 
     /**
-     * Propagate precomputed message to clients. Actually, this methods, will ask all instances of
-     * the hazelcast cluster to propagate the message to session they're in charge. This will call
-     * {@link #onMessagePropagation(PrecomputedWsMessages) onMessagePropagation}cluster-wide.
+     * Propagate precomputed message to clients. Actually, this methods, will ask instances of the
+     * hazelcast cluster to propagate the message to session they're in charge. This will call
+     * {@link #onMessagePropagation(PrecomputedWsMessages) onMessagePropagation} on each instance
+     * which hosts subscribers of at least one channel.
+     * <p>
+     * If a coalescing window is configured, update messages are delayed and merged with the
+     * following ones sent through the same channel: only the latest state of each object is sent
+     * at the end of the window. Any other message first flushes all pending updates, so clients
+     * receive messages in the order they have been produced, whatever the channel.
+     * <p>
+     * Messages are handed off to an ordered delivery queue and published once the pending updates
+     * monitor has been released.
      *
      * @param message precomputed message to propagate.
      */
     public void propagate(PrecomputedWsMessages message) {
-        this.messagePropagation.fire(message);
+        long window = ColabConfiguration.getWsCoalescingWindow();
+        Map<WebsocketChannel, PrecomputedWsUpdateMessage> updates = message.getUpdates();
+        boolean coalescable = window > 0 && message.getMessages() != null
+            && updates != null
+            && updates.keySet().containsAll(message.getMessages().keySet());
+        boolean schedule = false;
+
+        synchronized (pendingUpdates) {
+            if (coalescable) {
+                // delay updates, and merge them with other updates of the same channel
+                boolean wasEmpty = pendingUpdates.isEmpty();
+                updates.forEach((channel, update) -> {
+                    PrecomputedWsUpdateMessage pending = pendingUpdates.get(channel);
+                    if (pending == null) {
+                        pendingUpdates.put(channel, update);
+                    } else {
+                        counters.updatesCoalesced(pending.merge(update));
+                    }
+                });
+                schedule = wasEmpty && !pendingUpdates.isEmpty();
+            } else {
+                // preserve order: pending updates must be sent before any other message
+                this.handOffPendingUpdates();
+                deliveries.addLast(() -> message);
+            }
+        }
+
+        // deliver outside of the monitor: publishing to other instances is a network round-trip
+        this.deliverHandedOff();
+
+        if (schedule) {
+            scheduler.schedule(this::flushPendingUpdates, window, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Propagate all updates which are waiting for the end of the coalescing window.
+     */
+    private void flushPendingUpdates() {
+        synchronized (pendingUpdates) {
+            this.handOffPendingUpdates();
+        }
+        this.deliverHandedOff();
+    }
+
+    /**
+     * Move pending updates to the delivery queue. Updates are encoded once delivered. Caller must
+     * hold the pendingUpdates monitor.
+     */
+    private void handOffPendingUpdates() {
+        if (!pendingUpdates.isEmpty()) {
+            Map<WebsocketChannel, PrecomputedWsUpdateMessage> updates
+                = new HashMap<>(pendingUpdates);
+            pendingUpdates.clear();
+            deliveries.addLast(() -> encodeUpdates(updates));
+        }
+    }
+
+    /**
+     * Encode coalesced updates
+     *
+     * @param updates coalesced updates, mapped by channel
+     *
+     * @return message to deliver
+     */
+    private PrecomputedWsMessages encodeUpdates(
+        Map<WebsocketChannel, PrecomputedWsUpdateMessage> updates) {
+        Map<WebsocketChannel, List<String>> messages = new HashMap<>();
+        updates.forEach((channel, update) -> {
+            if (!update.isEmpty()) {
+                try {
+                    messages.put(channel, List.of(update.toJson()));
+                } catch (EncodeException ex) {
+                    logger.error("Failed to encode coalesced updates for {}", channel, ex);
+                }
+            }
+        });
+        logger.trace("Flush coalesced updates for {} channels", messages.size());
+        PrecomputedWsMessages message = new PrecomputedWsMessages();
+        message.setMessages(messages);
+        return message;
+    }
+
+    /**
+     * Deliver messages of the delivery queue, in order. Only one thread delivers at a time: if
+     * another thread is already delivering, it will deliver the messages queued meanwhile.
+     */
+    private void deliverHandedOff() {
+        synchronized (pendingUpdates) {
+            if (delivering || deliveries.isEmpty()) {
+                return;
+            }
+            delivering = true;
+        }
+        while (true) {
+            Supplier<PrecomputedWsMessages> next;
+            synchronized (pendingUpdates) {
+                next = deliveries.pollFirst();
+                if (next == null) {
+                    delivering = false;
+                    return;
+                }
+            }
+            try {
+                this.deliver(next.get());
+            } catch (RuntimeException ex) {
+                logger.error("Failed to deliver websocket messages", ex);
+            }
+        }
     }
 
     /**
-     * On Hazelcast event. Each instance receive precomputed message.
+     * Send messages to instances which host subscribers. Each instance only receives messages of
+     * channels it hosts subscribers for. Messages for this very instance are processed right away.
+     * <p>
+     * If the directory can not be read (eg partition migration after a member left), messages are
+     * sent to all instances, as instances without subscribers just ignore them.
+     *
+     * @param message messages to deliver
+     */
+    private void deliver(PrecomputedWsMessages message) {
+        Map<WebsocketChannel, List<String>> messages = message.getMessages();
+        if (messages == null || messages.isEmpty()) {
+            return;
+        }
+
+        Map<String, HashSet<String>> hosts;
+        try {
+            hosts = getChannelDirectory().getAll(messages.keySet().stream()
+                .map(WebsocketChannel::getUrn)
+                .collect(Collectors.toSet()));
+        } catch (RuntimeException ex) {
+            logger.warn("Channel directory unavailable, broadcast messages to all instances", ex);
+            hosts = null;
+        }
+        Map<String, HashSet<String>> directory = hosts;
+
+        hzInstance.getCluster().getMembers().forEach(member -> {
+            UUID uuid = member.getUuid();
+            Map<WebsocketChannel, List<String>> forMember = new HashMap<>();
+            messages.forEach((channel, jsonMessages) -> {
+                Set<String> members = directory != null ? directory.get(channel.getUrn()) : null;
+                if (directory == null || (members != null && members.contains(uuid.toString()))) {
+                    forMember.put(channel, jsonMessages);
+                }
+            });
+
+            if (!forMember.isEmpty()) {
+                PrecomputedWsMessages payload = new PrecomputedWsMessages();
+                payload.setMessages(forMember);
+                if (member.localMember()) {
+                    onMessagePropagation(payload);
+                } else {
+                    getDeliveryTopic(uuid).publish(payload);
+                }
+            }
+        });
+    }
+
+    /**
+     * Each instance receive precomputed messages for channels it hosts subscribers for.
+     * <p>
+     * Sessions which receive messages from the very same set of channels receive the very same
+     * frame. Thus, each distinct frame is built only once.
      *
      * @param payload the messagesByChannels to send to clients though relevant websocket channels
      */
-    public void onMessagePropagation(
-        @Observes @Inbound(eventName = WS_PROPAGATION_CHANNEL) PrecomputedWsMessages payload) {
+    public void onMessagePropagation(PrecomputedWsMessages payload) {
 
         Map<WebsocketChannel, List<String>> messagesByChannels = payload.getMessages();
         if (messagesByChannels != null) {
 
-            Map<Session, List<String>> mappedMessages = new HashMap<>();
-
-            // Group messages by effective websocket session
-            messagesByChannels.forEach((channel, messages) -> {
+            // Collect, for each effective websocket session, the channels it receives messages from
+            Map<Session, Set<WebsocketChannel>> channelsBySession = new HashMap<>();
+            messagesByChannels.keySet().forEach(channel -> {
                 Set<Session> subscribers = this.subscriptions.get(channel);
                 if (subscribers != null) {
                     subscribers.forEach(session -> {
-                        List<String> list = mappedMessages.computeIfAbsent(session,
-                            (k) -> new LinkedList<>());
-                        list.addAll(messages);
+                        channelsBySession.computeIfAbsent(session, (k) -> new LinkedHashSet<>())
+                            .add(channel);
                     });
                 }
             });
 
-            // send one big message to each session
-            mappedMessages.entrySet().forEach(entry -> {
-                Session session = entry.getKey();
-                String jsonArray = entry.getValue().stream()
+            // Group sessions by set of channels
+            Map<Set<WebsocketChannel>, List<Session>> sessionsByChannels = new HashMap<>();
+            channelsBySession.forEach((session, channels) -> {
+                sessionsByChannels.computeIfAbsent(channels, (k) -> new ArrayList<>())
+                    .add(session);
+            });
+
+            // build one big message for each set of channels and queue it for each session
+            sessionsByChannels.forEach((channels, sessions) -> {
+                String jsonArray = channels.stream()
+                    .flatMap(channel -> messagesByChannels.get(channel).stream())
                     .collect(Collectors.joining(", ", "[", "]"));
-                try {
-                    logger.debug("Send {} to {} ({})", jsonArray, session.getId());
+                // shared by all sessions, so the frame is deflated at most once
+                OutboundFrame frame = new OutboundFrame(jsonArray);
+                counters.frameEncoded(frame.getSize());
+
+                sessions.forEach(session -> {
+                    logger.debug("Send {} to {} ({} bytes)", jsonArray, session.getId(),
+                        frame.getSize());
                     if (session.isOpen()) {
-                        session.getBasicRemote().sendText(jsonArray);
+                        sendToSession(session, frame);
                     }
-                } catch (IOException ex) {
-                    logger.error("Failed to send websocket message {} to {}",
-                        jsonArray, session);
-                }
+                });
             });
         }
     }
 
+    /**
+     * Queue a frame in the session outbox. The frame will be sent asynchronously.
+     *
+     * @param session the session
+     * @param frame   JSON-encoded message or array of messages
+     */
+    public void sendToSession(Session session, String frame) {
+        sendToSession(session, new OutboundFrame(frame));
+    }
+
+    /**
+     * Queue a frame in the session outbox. The frame will be sent asynchronously.
+     *
+     * @param session the session
+     * @param frame   the frame
+     */
+    public void sendToSession(Session session, OutboundFrame frame) {
+        outboxes.computeIfAbsent(session, (key) -> new SessionOutbox(key,
+            ColabConfiguration.getWsOutboxCapacity(),
+            ColabConfiguration.getWsOutboxMaxSize(),
+            ColabConfiguration.getWsOutboxPolicy(),
+            counters,
+            WebsocketEndpoint.supportsCompression(key)
+                ? ColabConfiguration.getWsCompressionThreshold()
+                : -1)
+        ).offer(frame);
+        if (!session.isOpen()) {
+            // session has been closed in the meantime
+            outboxes.remove(session);
+        }
+    }
+
+    /**
+     * Patch blocks with changes received through a websocket session.
+     * <p>
+     * Changes are processed on behalf of the http session the websocket session has been linked to
+     * when subscribing to channels. Hence, the same security rules as the REST endpoint apply,
+     * including the agreement to the current terms of use.
+     *
+     * @param session the websocket session which sent the changes
+     * @param message the changes
+     *
+     * @throws HttpErrorMessage authenticationRequired if the websocket session is not linked to any
+     *                          authenticated http session, forbidden if the current user has not
+     *                          agreed to the current terms of use
+     */
+    @ActivateRequestContext
+    public void processChangeMessage(Session session, WsChangeMessage message) {
+        Long colabSessionId = WebsocketEndpoint.getColabSessionId(session);
+        requestManager.setHttpSessionId(colabSessionId);
+        if (colabSessionId == null || !requestManager.isAuthenticated()) {
+            throw HttpErrorMessage.authenticationRequired();
+        }
+        User currentUser = requestManager.getCurrentUser();
+        if (currentUser.getAgreedTime() == null
+            || currentUser.getAgreedTime().isBefore(termsOfUseManager.getTimestamp())) {
+            throw HttpErrorMessage.forbidden();
+        }
+        logger.debug("Process {} from {}", message, session.getId());
+        liveManager.patchBlocks(message.getChanges());
+    }
+
+    /**
+     * Register the efficiency of the channels memo used to prepare messages.
+     *
+     * @param memo the memo used to prepare messages
+     */
+    public void registerChannelsMemo(ChannelsMemo memo) {
+        counters.channelsResolved(memo.getHits(), memo.getMisses());
+    }
+
+    /**
+     * Get websocket delivery counters of this very instance.
+     *
+     * @return delivery counters
+     */
+    public WebsocketMonitoring getLocalMonitoringData() {
+        WebsocketMonitoring monitoring = counters.toMonitoring();
+        long queued = 0;
+        long max = 0;
+        for (SessionOutbox outbox : outboxes.values()) {
+            int size = outbox.getSize();
+            queued += size;
+            max = Math.max(max, size);
+        }
+        monitoring.setQueuedFrames(queued);
+        monitoring.setMaxQueueDepth(max);
+        return monitoring;
+    }
+
+    /**
+     * Get websocket delivery counters.
+     * <p>
+     * This method is cluster-aware. In short, {@link #getLocalMonitoringData() } will be called
+     * for each instance of the cluster.
+     *
+     * @return sum of counters of all instances
+     */
+    public WebsocketMonitoring getMonitoringData() {
+        IExecutorService executorService = hzInstance.getExecutorService("COLAB_WS");
+        Map<Member, Future<WebsocketMonitoring>> results = executorService
+            .submitToAllMembers(new CallableGetWsMonitoring());
+
+        WebsocketMonitoring monitoring = new WebsocketMonitoring();
+
+        results.values().forEach(result -> {
+            try {
+                monitoring.merge(result.get(5, TimeUnit.SECONDS));
+            } catch (InterruptedException | ExecutionException | TimeoutException ex) {
+                logger.warn("Fail to get websocket monitoring data", ex);
+            }
+        });
+
+        return monitoring;
+    }
+
     /**
      * Propagate the logout and unsubscribe from all channels linked to the given http session.
      * Clear the space.
@@ -642,31 +1254,141 @@ public class WebsocketManager {
      * @param session the http session which just logged out
      */
     public void signoutAndUnsubscribeFromAll(HttpSession session) {
-        synchronized (this) {
-            // propagate before removing the channels
-            propagateSignOut(session);
-
-            Set<Session> wsSessions = this.httpSessionToWsSessions.get(session.getId());
-            if (wsSessions != null) {
-                // the http session is linked to one or more websocket session, let's cancel all
-                // their
-                // subscriptions
-                wsSessions.stream()
-                    // get channels from each wsSession
-                    .map(wsSession -> this.wsSessionMap.get(wsSession))
-                    // filter out null channels set
-                    .filter(channels -> channels != null)
-                    // convert "stream of set of channels" to "stream of channels"
-                    .flatMap(Collection::stream)
-                    // no need to list same channel twice
-                    .distinct()
-                    // clean subscriptions
-                    .forEach(channel -> {
-                        this.unsubscribe(channel, wsSessions);
-                    });
+        // propagate before removing the channels
+        propagateSignOut(session);
+
+        Set<Session> wsSessions = this.httpSessionToWsSessions.remove(session.getId());
+        if (wsSessions != null) {
+            wsSessions.forEach(wsSession -> WebsocketEndpoint.unlinkColabSession(wsSession,
+                session.getId()));
+            // the http session is linked to one or more websocket session, let's cancel all
+            // their
+            // subscriptions
+            wsSessions.stream()
+                // get channels from each wsSession
+                .map(wsSession -> this.wsSessionMap.get(wsSession))
+                // filter out null channels set
+                .filter(channels -> channels != null)
+                // convert "stream of set of channels" to "stream of channels"
+                .flatMap(Collection::stream)
+                // no need to list same channel twice
+                .distinct()
+                // clean subscriptions
+                .forEach(channel -> {
+                    this.unsubscribe(channel, wsSessions);
+                });
+        }
+    }
+
+    /**
+     * Propagate a presence update. Presence changes are not sent immediately: all changes of a
+     * project which occur within an interval are sent at once, once their transaction, if any,
+     * has been committed.
+     *
+     * @param presence the new presence
+     */
+    public void propagatePresenceUpdate(UserPresence presence) {
+        addPresenceChange(presence, false);
+    }
+
+    /**
+     * Propagate the deletion of a presence, once it has been cleared or it has not been touched
+     * for too long. Deletion cancels any pending update of the same presence.
+     *
+     * @param presence the deleted presence
+     */
+    public void propagatePresenceDeletion(UserPresence presence) {
+        addPresenceChange(presence, true);
+    }
+
+    /**
+     * Add a presence change to its project batch. Within a transaction, the change is only added
+     * once the transaction has been committed: a rolled-back change is never propagated.
+     *
+     * @param presence the presence
+     * @param deleted  true if the presence has been deleted
+     */
+    private void addPresenceChange(UserPresence presence, boolean deleted) {
+        if (presence == null || presence.getProjectId() == null) {
+            return;
+        }
+        if (jtaSyncRegistry != null && jtaSyncRegistry.getTransactionKey() != null) {
+            jtaSyncRegistry.registerInterposedSynchronization(new Synchronization() {
+                @Override
+                public void beforeCompletion() {
+                    /* no-op */
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == Status.STATUS_COMMITTED) {
+                        enqueuePresenceChange(presence, deleted);
+                    }
+                }
+            });
+        } else {
+            // e.g. presence expiry
+            enqueuePresenceChange(presence, deleted);
+        }
+    }
+
+    /**
+     * Add a presence change to its project batch and schedule the flush of the batch
+     *
+     * @param presence the presence
+     * @param deleted  true if the presence has been deleted
+     */
+    private void enqueuePresenceChange(UserPresence presence, boolean deleted) {
+        Long projectId = presence.getProjectId();
+        boolean schedule;
+        synchronized (pendingPresences) {
+            PresenceDelta delta = pendingPresences.get(projectId);
+            schedule = delta == null;
+            if (delta == null) {
+                delta = new PresenceDelta();
+                pendingPresences.put(projectId, delta);
+            }
+            if (deleted) {
+                delta.updated.remove(presence.getWsSessionId());
+                delta.deleted.put(presence.getWsSessionId(), IndexEntry.build(presence));
+            } else {
+                delta.deleted.remove(presence.getWsSessionId());
+                delta.updated.put(presence.getWsSessionId(), presence);
             }
+        }
+        if (schedule) {
+            scheduler.schedule(() -> flushPresences(projectId),
+                ColabConfiguration.getPresenceInterval(), TimeUnit.MILLISECONDS);
+        }
+    }
 
-            this.httpSessionToWsSessions.remove(session.getId());
+    /**
+     * Propagate all presence changes of a project in one single message
+     *
+     * @param projectId id of the project
+     */
+    private void flushPresences(Long projectId) {
+        PresenceDelta delta;
+        synchronized (pendingPresences) {
+            delta = pendingPresences.remove(projectId);
+        }
+
+        if (delta != null) {
+            logger.trace("Flush {} presence update(s) and {} deletion(s) for project #{}",
+                delta.updated.size(), delta.deleted.size(), projectId);
+            try {
+                PrecomputedWsMessages prepareWsMessage = WebsocketMessagePreparer
+                    .prepareWsMessage(
+                        userDao,
+                        teamMemberDao,
+                        cardTypeDao,
+                        projectDao,
+                        new HashSet<>(delta.updated.values()),
+                        new HashSet<>(delta.deleted.values()));
+                this.propagate(prepareWsMessage);
+            } catch (EncodeException ex) {
+                logger.error("Faild to propagate presence of project #{}", projectId);
+            }
         }
     }
 
@@ -698,24 +1420,38 @@ public class WebsocketManager {
      * @param sessionId public websocket identifier
      */
     public void unsubscribeFromAll(Session session, String sessionId) {
-        synchronized (this) {
-            Set<WebsocketChannel> set = this.wsSessionMap.get(session);
-            if (set != null) {
-                Set<Session> setOfSession = Set.of(session);
-                set.forEach(channel -> {
-                    unsubscribe(channel, setOfSession);
-                    if (channel instanceof ProjectContentChannel) {
-                        ProjectContentChannel pChannel = (ProjectContentChannel) channel;
-                        presenceManager.clearWsSession(pChannel.getProjectId(), sessionId);
-                    }
-                });
-                this.wsSessionMap.remove(session);
-                // flush changes ASAP
-                WebsocketTxSync synchronizer = bag.getSynchronizer();
-                if (synchronizer != null) {
-                    synchronizer.flush();
+        this.outboxes.remove(session);
+        Set<WebsocketChannel> set = this.wsSessionMap.remove(session);
+        if (set != null) {
+            Set<Session> setOfSession = Set.of(session);
+            set.forEach(channel -> {
+                unsubscribe(channel, setOfSession);
+                if (channel instanceof ProjectContentChannel) {
+                    ProjectContentChannel pChannel = (ProjectContentChannel) channel;
+                    presenceManager.clearWsSession(pChannel.getProjectId(), sessionId);
                 }
+            });
+            // flush changes ASAP
+            WebsocketTxSync synchronizer = bag.getSynchronizer();
+            if (synchronizer != null) {
+                synchronizer.flush();
             }
         }
     }
+
+    /**
+     * Presence changes of one project, waiting to be propagated
+     */
+    private static class PresenceDelta {
+
+        /**
+         * Latest state of updated presences, by websocket session id
+         */
+        private final Map<String, UserPresence> updated = new HashMap<>();
+
+        /**
+         * Deleted presences, by websocket session id
+         */
+        private final Map<String, IndexEntry> deleted = new HashMap<>();
+    }
 }
@@ -7,11 +7,14 @@
 package ch.colabproject.colab.api.controller.document;
 
 import ch.colabproject.colab.api.exceptions.ColabMergeException;
+import ch.colabproject.colab.api.microchanges.live.monitoring.BlockLocation;
 import ch.colabproject.colab.api.model.document.Document;
 import ch.colabproject.colab.api.model.document.TextDataBlock;
 import ch.colabproject.colab.api.persistence.jpa.document.DocumentDao;
 import ch.colabproject.colab.generator.model.exceptions.HttpErrorMessage;
 import ch.colabproject.colab.generator.model.exceptions.MessageI18nKey;
+import java.util.Collection;
+import java.util.List;
 import javax.ejb.LocalBean;
 import javax.ejb.Stateless;
 import javax.inject.Inject;
@@ -89,6 +92,15 @@ public class BlockManager {
         return documentDao.findTextDataBlock(id);
     }
 
+    /**
+     * @param ids ids of the blocks
+     *
+     * @return where each existing block lives, fetched in bulk
+     */
+    public List<BlockLocation> findBlockLocations(Collection<Long> ids) {
+        return documentDao.findTextDataBlockLocations(ids);
+    }
+
     /**
      * Update block. Only fields which are editable by users will be impacted.
      *
@@ -6,7 +6,9 @@
  */
 package ch.colabproject.colab.api.controller.monitoring;
 
+import ch.colabproject.colab.api.controller.WebsocketManager;
 import ch.colabproject.colab.api.setup.ColabConfiguration;
+import ch.colabproject.colab.api.ws.monitoring.WebsocketMonitoring;
 import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.Logger;
 import ch.qos.logback.classic.LoggerContext;
@@ -41,6 +43,12 @@ public class MonitoringManager {
     @Outbound(eventName = SET_LOGGER_LEVEL_EVENT, loopBack = true)
     private Event<LoggerLevelPayload> events;
 
+    /**
+     * Websocket business logic
+     */
+    @Inject
+    private WebsocketManager websocketManager;
+
     /**
      * Change the level of a logger cluster-wide.
      *
@@ -89,6 +97,15 @@ public class MonitoringManager {
         return loggers;
     }
 
+    /**
+     * Get websocket delivery counters of the whole cluster
+     *
+     * @return websocket monitoring data
+     */
+    public WebsocketMonitoring getWebsocketMonitoring() {
+        return websocketManager.getMonitoringData();
+    }
+
     /**
      * Get information about current coLAB version
      *
@@ -129,24 +129,36 @@ public class SecurityManager {
      */
     private void assertCondition(Condition condition, String message, WithPermission o) {
         if (!requestManager.isAdmin()) {
-            requestManager.sudo(() -> {
-                if (!condition.eval(requestManager, this)) {
-                    if (logger.isErrorEnabled()) {
-                        if (o != null) {
-                            logger.error("{} Permission denied: {} ({}) currentUser: {}",
-                                message, o, condition, requestManager.getCurrentUser());
-                        } else {
-                            logger.error("{} Permission denied: ({}) currentUser: {}",
-                                message, condition, requestManager.getCurrentUser());
-                        }
-                    }
-                    if (requestManager.isAuthenticated()) {
-                        throw HttpErrorMessage.forbidden();
-                    } else {
-                        throw HttpErrorMessage.authenticationRequired();
-                    }
+            requestManager.sudo(() -> evalCondition(condition, message, o));
+        }
+    }
+
+    /**
+     * Evaluate the given condition and throw if it does not hold. Must be called with admin
+     * privileges.
+     *
+     * @param condition the condition to evaluate
+     * @param message   message to display if the assertion failed
+     * @param o         related object to log, may be null
+     *
+     * @throws HttpErrorMessage authenticationRequired or forbidden if the condition is false
+     */
+    private void evalCondition(Condition condition, String message, WithPermission o) {
+        if (!condition.eval(requestManager, this)) {
+            if (logger.isErrorEnabled()) {
+                if (o != null) {
+                    logger.error("{} Permission denied: {} ({}) currentUser: {}",
+                        message, o, condition, requestManager.getCurrentUser());
+                } else {
+                    logger.error("{} Permission denied: ({}) currentUser: {}",
+                        message, condition, requestManager.getCurrentUser());
                 }
-            });
+            }
+            if (requestManager.isAuthenticated()) {
+                throw HttpErrorMessage.forbidden();
+            } else {
+                throw HttpErrorMessage.authenticationRequired();
+            }
         }
     }
 
@@ -170,22 +182,42 @@ public class SecurityManager {
     }
 
     /**
-     * Assert the currentUser has right to read the given object
+     * Is the currentUser known to have right to read the given object? True if the user is an
+     * admin or if the read condition has already been evaluated to true in the current request.
+     * Nothing is evaluated nor loaded.
      *
      * @param o object the user want to read
+     *
+     * @return true if read access is known to be granted, false if it is denied or unknown yet
      */
-    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
-    public void assertReadPermissionTx(WithPermission o) {
-        runInSecurityTx(() -> this.assertReadPermission(o));
+    @TransactionAttribute(TransactionAttributeType.SUPPORTS)
+    public boolean isReadPermissionGranted(WithPermission o) {
+        return requestManager.isAdmin()
+            || Boolean.TRUE.equals(requestManager.getConditionResult(o.getReadCondition()));
     }
 
     /**
-     * Assert the currentUser has right to read the given object
+     * Assert the currentUser has right to read the given object.
+     * <p>
+     * The condition is evaluated in a new transaction: entities it loads live in a persistence
+     * context of their own. They are not queried through the context of the caller, which may be
+     * running a lifecycle callback, and they do not stay in it without having been checked.
+     * Reading has no side effect: the new persistence context is never flushed.
      *
      * @param o object the user want to read
      */
-    private void assertReadPermission(WithPermission o) {
-        this.assertCondition(o.getReadCondition(), "Read", o);
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void assertReadPermissionTx(WithPermission o) {
+        if (!requestManager.isAdmin()) {
+            boolean inSecurityTx = requestManager.isInSecurityTx();
+            requestManager.setInSecurityTx(true);
+            try {
+                requestManager.sudoReadOnly(
+                    () -> evalCondition(o.getReadCondition(), "Read", o));
+            } finally {
+                requestManager.setInSecurityTx(inSecurityTx);
+            }
+        }
     }
 
     /**
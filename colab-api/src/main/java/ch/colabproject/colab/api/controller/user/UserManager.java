@@ -529,6 +529,7 @@ public class UserManager {
      */
     public void grantAdminRight(User user) {
         user.setAdmin(true);
+        userDao.invalidateAdminIds();
     }
 
     /**
@@ -562,6 +563,7 @@ public class UserManager {
                 throw HttpErrorMessage.badRequest();
             } else {
                 user.setAdmin(false);
+                userDao.invalidateAdminIds();
             }
         }
     }
@@ -0,0 +1,310 @@
+/*
+ * The coLAB project
+ * Copyright (C) 2023 AlbaSim, MEI, HEIG-VD, HES-SO
+ *
+ * Licensed under the MIT License
+ */
+package ch.colabproject.colab.api.microchanges.live;
+
+import ch.colabproject.colab.api.microchanges.model.Change;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Indexed view of a set of changes: changes by revision, children by parent revision and cached
+ * dependencies.
+ * <p>
+ * Parents of a change shall only be updated with {@link #setBasedOn(Change, Set)} to keep indexes
+ * up-to-date. Children are always listed in the order of the initial list.
+ *
+ * @author maxence
+ */
+class ChangeGraph {
+
+    /**
+     * All changes, in order
+     */
+    private final List<Change> changes;
+
+    /**
+     * Position of each change in the initial list
+     */
+    private final Map<Change, Integer> positions = new IdentityHashMap<>();
+
+    /**
+     * Changes by revision
+     */
+    private final Map<String, Change> byRevision = new HashMap<>();
+
+    /**
+     * Children by parent revision, sorted by position
+     */
+    private final Map<String, List<Change>> children = new HashMap<>();
+
+    /**
+     * Full set of dependencies of each change. Invalidated each time parents of a change, or of
+     * one of its ancestors, change.
+     */
+    private final Map<Change, Set<String>> dependencies = new IdentityHashMap<>();
+
+    /**
+     * Revision {@link #reachability} is about
+     */
+    private String reachabilityTarget = null;
+
+    /**
+     * Does each change depend on the {@link #reachabilityTarget}? Cleared each time the graph
+     * changes.
+     */
+    private final Map<Change, Boolean> reachability = new IdentityHashMap<>();
+
+    /**
+     * Index the given changes
+     *
+     * @param changes changes to index
+     */
+    ChangeGraph(List<Change> changes) {
+        this.changes = changes;
+        for (int i = 0; i < changes.size(); i++) {
+            Change change = changes.get(i);
+            positions.put(change, i);
+            byRevision.putIfAbsent(change.getRevision(), change);
+            change.getBasedOn().forEach(parent -> addChild(parent, change));
+        }
+    }
+
+    /**
+     * @return all changes
+     */
+    List<Change> getChanges() {
+        return changes;
+    }
+
+    /**
+     * Get the position of the change in the initial list
+     *
+     * @param change the change
+     *
+     * @return the position
+     */
+    int getPosition(Change change) {
+        Integer position = positions.get(change);
+        return position != null ? position : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Get changes which are direct children of the given revision
+     *
+     * @param revision the parent revision
+     *
+     * @return new list of children, in order
+     */
+    List<Change> getChildren(String revision) {
+        List<Change> list = children.get(revision);
+        return list != null ? new ArrayList<>(list) : new ArrayList<>();
+    }
+
+    /**
+     * Update parents of a change
+     *
+     * @param change  the change
+     * @param basedOn new parents
+     */
+    void setBasedOn(Change change, Set<String> basedOn) {
+        Set<String> previous = change.getBasedOn();
+        if (previous != null) {
+            previous.forEach(parent -> {
+                List<Change> list = children.get(parent);
+                if (list != null) {
+                    list.remove(change);
+                    if (list.isEmpty()) {
+                        children.remove(parent);
+                    }
+                }
+            });
+        }
+        change.setBasedOn(basedOn);
+        basedOn.forEach(parent -> addChild(parent, change));
+        invalidateDependencies(change);
+        reachability.clear();
+    }
+
+    /**
+     * Clear cached dependencies of the given change and of all its descendants
+     *
+     * @param change the change whose parents changed
+     */
+    private void invalidateDependencies(Change change) {
+        Set<Change> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<Change> queue = new ArrayDeque<>();
+        queue.add(change);
+        while (!queue.isEmpty() && !dependencies.isEmpty()) {
+            Change ch = queue.poll();
+            if (visited.add(ch)) {
+                dependencies.remove(ch);
+                List<Change> list = children.get(ch.getRevision());
+                if (list != null) {
+                    queue.addAll(list);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the full set of revisions the given change depends on
+     *
+     * @param change the change
+     *
+     * @return unmodifiable set of dependencies
+     */
+    Set<String> getAllDependencies(Change change) {
+        Set<String> cached = dependencies.get(change);
+        if (cached != null) {
+            return cached;
+        }
+
+        Set<String> deps = new HashSet<>();
+        Deque<Change> queue = new ArrayDeque<>();
+        queue.add(change);
+
+        while (!queue.isEmpty()) {
+            Change ch = queue.poll();
+            for (String dep : ch.getBasedOn()) {
+                if (deps.add(dep)) {
+                    Change parent = byRevision.get(dep);
+                    if (parent != null) {
+                        queue.add(parent);
+                    }
+                }
+            }
+        }
+
+        Set<String> result = Collections.unmodifiableSet(deps);
+        dependencies.put(change, result);
+        return result;
+    }
+
+    /**
+     * Does the given change depend on the given revision? Same as
+     * {@code getAllDependencies(change).contains(revision)} but answers are cached: when walking
+     * the graph from parents to children, each answer is deduced from answers about parents.
+     *
+     * @param change   the change
+     * @param revision the revision
+     *
+     * @return true if the revision is one of the dependencies of the change
+     */
+    boolean dependsOn(Change change, String revision) {
+        if (!revision.equals(reachabilityTarget)) {
+            reachability.clear();
+            reachabilityTarget = revision;
+        }
+        Boolean known = reachability.get(change);
+        if (known != null) {
+            return known;
+        }
+
+        // iterative depth-first walk: a change is resolved once all its parents are
+        Set<Change> inProgress = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<Step> stack = new ArrayDeque<>();
+        stack.push(new Step(change, revision));
+        inProgress.add(change);
+        boolean result = false;
+
+        while (!stack.isEmpty()) {
+            Step step = stack.peek();
+            if (!step.found && step.parents.hasNext()) {
+                Change parent = byRevision.get(step.parents.next());
+                if (parent != null) {
+                    Boolean parentResult = reachability.get(parent);
+                    if (parentResult != null) {
+                        step.found = parentResult;
+                    } else if (inProgress.contains(parent)) {
+                        // cycle: the answer depends on a change which is not resolved yet
+                        step.partial = true;
+                    } else {
+                        inProgress.add(parent);
+                        stack.push(new Step(parent, revision));
+                    }
+                }
+            } else {
+                // all parents resolved (or one depends on the revision): resolve the change
+                stack.pop();
+                inProgress.remove(step.change);
+                if (step.found || !step.partial) {
+                    reachability.put(step.change, step.found);
+                }
+                result = step.found;
+                Step child = stack.peek();
+                if (child != null) {
+                    child.found = step.found;
+                    child.partial |= step.partial;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Register a child, keeping children sorted by position
+     *
+     * @param parent parent revision
+     * @param child  the child
+     */
+    private void addChild(String parent, Change child) {
+        List<Change> list = children.computeIfAbsent(parent, (k) -> new ArrayList<>());
+        int position = getPosition(child);
+        int index = list.size();
+        while (index > 0 && getPosition(list.get(index - 1)) > position) {
+            index--;
+        }
+        list.add(index, child);
+    }
+
+    /**
+     * A change being resolved by {@link #dependsOn(Change, String)}
+     */
+    private static class Step {
+
+        /**
+         * The change
+         */
+        private final Change change;
+
+        /**
+         * Parents still to walk through
+         */
+        private final Iterator<String> parents;
+
+        /**
+         * Does the change depend on the revision?
+         */
+        private boolean found;
+
+        /**
+         * Has a parent been skipped because it was not resolved yet?
+         */
+        private boolean partial = false;
+
+        /**
+         * Create a step
+         *
+         * @param change   the change
+         * @param revision the revision to look for
+         */
+        Step(Change change, String revision) {
+            this.change = change;
+            this.parents = change.getBasedOn().iterator();
+            this.found = change.getBasedOn().contains(revision);
+        }
+    }
+}
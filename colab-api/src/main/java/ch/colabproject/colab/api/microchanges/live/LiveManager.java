@@ -10,26 +10,27 @@ import ch.colabproject.colab.api.controller.EntityGatheringBagForPropagation;
 import ch.colabproject.colab.api.controller.RequestManager;
 import ch.colabproject.colab.api.controller.document.BlockManager;
 import ch.colabproject.colab.api.exceptions.ColabMergeException;
+import ch.colabproject.colab.api.microchanges.live.monitoring.BlockLocation;
 import ch.colabproject.colab.api.microchanges.live.monitoring.BlockMonitoring;
 import ch.colabproject.colab.api.microchanges.model.Change;
-import ch.colabproject.colab.api.microchanges.tools.CancelDebounce;
-import ch.colabproject.colab.api.microchanges.tools.Debouncer;
-import ch.colabproject.colab.api.model.card.Card;
-import ch.colabproject.colab.api.model.card.CardContent;
-import ch.colabproject.colab.api.model.card.CardType;
-import ch.colabproject.colab.api.model.card.CardTypeRef;
-import ch.colabproject.colab.api.model.document.Resource;
-import ch.colabproject.colab.api.model.document.Resourceable;
+import ch.colabproject.colab.api.microchanges.tools.AppendChanges;
+import ch.colabproject.colab.api.microchanges.tools.DropProcessedChanges;
+import ch.colabproject.colab.api.microchanges.tools.PostponeProcessing;
+import ch.colabproject.colab.api.microchanges.tools.ReadyToProcess;
+import ch.colabproject.colab.api.microchanges.tools.SummarizeLiveUpdates;
+import ch.colabproject.colab.api.microchanges.tools.SuspendProcessing;
 import ch.colabproject.colab.api.model.document.TextDataBlock;
-import ch.colabproject.colab.api.model.project.Project;
+import ch.colabproject.colab.api.setup.ColabConfiguration;
+import ch.colabproject.colab.generator.model.exceptions.HttpErrorMessage;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
+import java.util.TreeMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import javax.ejb.Lock;
 import javax.ejb.LockType;
@@ -39,9 +40,7 @@ import javax.ejb.TransactionAttributeType;
 import javax.inject.Inject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import com.hazelcast.cluster.Member;
 import com.hazelcast.core.HazelcastInstance;
-import com.hazelcast.core.IExecutorService;
 import com.hazelcast.cp.lock.FencedLock;
 import com.hazelcast.map.IMap;
 
@@ -59,9 +58,6 @@ public class LiveManager implements Serializable {
     /** logger */
     private static final Logger logger = LoggerFactory.getLogger(LiveManager.class);
 
-    /** delayed process call */
-    private final Map<Long, Future<Void>> debounces = new HashMap<>();
-
     /** Block specific logic management */
     @Inject
     private BlockManager blockManager;
@@ -97,7 +93,8 @@ public class LiveManager implements Serializable {
     }
 
     /**
-     * Lock the block
+     * Lock the block. Only changes processing locks the block: changes are appended atomically
+     * with entry processors.
      *
      * @param id id of the block to lock
      */
@@ -117,36 +114,22 @@ public class LiveManager implements Serializable {
     }
 
     /**
-     * Get pending updates for the given block
+     * Build the initial pending updates of the given block
      *
-     * @param id of the block
+     * @param block the block
      *
-     * @return LiveUpdate object
+     * @return LiveUpdate object without any pending change
      */
-    private LiveUpdates get(Long id) {
-        logger.debug("Get LiveUpdates for block #{}", id);
-        try {
-            this.lock(id);
-            LiveUpdates get = getCache().get(id);
-            if (get != null) {
-                logger.trace("Get existing {}", get);
-                return get;
-            } else {
-                LiveUpdates l = new LiveUpdates();
+    private LiveUpdates buildLiveUpdates(TextDataBlock block) {
+        LiveUpdates l = new LiveUpdates();
+        l.setRevision(block.getRevision());
+        l.setContent(block.getTextData());
 
-                TextDataBlock block = blockManager.findBlock(id);
-                l.setRevision(block.getRevision());
-                l.setContent(block.getTextData());
+        l.setTargetClass(block.getJsonDiscriminator());
+        l.setTargetId(block.getId());
 
-                l.setTargetClass(block.getJsonDiscriminator());
-                l.setTargetId(block.getId());
-
-                logger.trace("new empty LiveUpdates  {}", l);
-                return l;
-            }
-        } finally {
-            this.unlock(id);
-        }
+        logger.trace("new empty LiveUpdates  {}", l);
+        return l;
     }
 
     /**
@@ -157,52 +140,81 @@ public class LiveManager implements Serializable {
      * @param patch the patch to apply
      */
     public void patchBlock(Long id, Change patch) {
-        logger.debug("Patch block #{} with {}", id, patch);
-        TextDataBlock block = blockManager.findBlock(id);
-        try {
-            this.lock(id);
-            LiveUpdates get = get(id);
-            List<Change> changes = get.getPendingChanges();
-
-            Set<String> basedOn = patch.getBasedOn();
-
-            boolean parentExists = basedOn.contains(block.getRevision())
-                || changes.stream()
-                    .filter(change -> basedOn.stream()
-                        .filter(rev -> change.getRevision().equals(rev))
-                        .findFirst().isPresent()
-                    )
-                    .findFirst().isPresent();
-
-            if (!parentExists) {
-                logger.warn("Change is based on non-existing parent");
-                logger.trace("TODO: keep it in a temp bag the time his parent is known");
-                // patch.setBasedOn("0");
-            }
-            // Project project = block.getProject();
+        patchBlock(id, List.of(patch));
+    }
 
-            patch.setBlockId(block.getId());
+    /**
+     * Patch many blocks at once. Changes are grouped by block (see {@link Change#getAtId()}) and
+     * each block is patched with all its changes at once.
+     * <p>
+     * All blocks are resolved before any change is registered: if one block does not exist or
+     * can not be read by the current user, no block is patched at all.
+     *
+     * @param patches changes to apply, in order
+     *
+     * @throws HttpErrorMessage if one of the blocks does not exist or can not be read
+     */
+    public void patchBlocks(List<Change> patches) {
+        Map<Long, List<Change>> byBlock = new LinkedHashMap<>();
+        patches.forEach(patch -> byBlock
+            .computeIfAbsent(patch.getAtId(), (k) -> new ArrayList<>())
+            .add(patch));
 
-            changes.add(patch);
-            getCache().put(id, get);
-            this.scheduleSaveMicroChanges(id);
+        Map<Long, TextDataBlock> blocks = new HashMap<>();
+        byBlock.keySet().forEach(id -> blocks.put(id,
+            blockManager.assertAndGetTextDataBlock(id)));
 
-            logger.trace("Registered change is {}", patch);
-            transactionManager.registerUpdate(patch);
-//            WsUpdateChangeMessage message = WsUpdateChangeMessage.build(List.of(patch));
+        byBlock.forEach((id, changes) -> this.patchBlock(blocks.get(id), changes));
+    }
 
-//            try {
-//                PrecomputedWsMessages msg = WebsocketHelper.prepareWsMessage(userDao,
-//                    block.getChannels(), message);
-//                websocketManager.propagate(msg);
-//            } catch (EncodeException ex) {
-//                logger.error("Live update error: precompute failed");
-//            }
-        } finally {
-            this.unlock(id);
+    /**
+     * Patch a block with many changes. Add the given changes to the list of pending changes and
+     * schedule changes processing. Changes are appended by the owner of the pending changes
+     * entry, in one go.
+     *
+     * @param id      id of the block to patch
+     * @param patches the patches to apply, in order
+     */
+    public void patchBlock(Long id, List<Change> patches) {
+        if (!patches.isEmpty()) {
+            this.patchBlock(blockManager.findBlock(id), patches);
         }
     }
 
+    /**
+     * Append changes to the pending changes of the given block
+     *
+     * @param block   the block to patch
+     * @param patches the patches to apply, in order
+     */
+    private void patchBlock(TextDataBlock block, List<Change> patches) {
+        Long id = block.getId();
+        logger.debug("Patch block #{} with {}", id, patches);
+        if (patches.isEmpty()) {
+            return;
+        }
+        patches.forEach(patch -> patch.setBlockId(id));
+
+        // append changes on the entry owner, no need to lock the block
+        IMap<Long, LiveUpdates> cache = getCache();
+        Integer orphans = cache.executeOnKey(id, new AppendChanges(patches, null));
+        if (orphans == null || orphans == AppendChanges.MISSING) {
+            // first changes since last processing: initialize with the block content
+            orphans = cache.executeOnKey(id, new AppendChanges(patches,
+                buildLiveUpdates(block)));
+        }
+
+        if (orphans != null && orphans > 0) {
+            logger.warn("{} change(s) based on non-existing parent", orphans);
+            logger.trace("TODO: keep it in a temp bag the time his parent is known");
+        }
+
+        patches.forEach(patch -> {
+            logger.trace("Registered change is {}", patch);
+            transactionManager.registerUpdate(patch);
+        });
+    }
+
     /**
      * Get all pending changes for the given block
      *
@@ -220,7 +232,11 @@ public class LiveManager implements Serializable {
     }
 
     /**
-     * Process all pending changes and save new value to database.
+     * Process pending changes and save new value to database.
+     * <p>
+     * If the block is still being edited, it is only checkpointed: the stable prefix of pending
+     * changes (see {@link LiveUpdates#getStablePrefix()}) is saved and other changes remain
+     * pending. Otherwise, all pending changes are processed.
      *
      * @param blockId id of the block to process
      */
@@ -235,21 +251,37 @@ public class LiveManager implements Serializable {
                     LiveUpdates get = this.getCache().get(blockId);
                     if (get != null) {
                         try {
-                            LiveResult result = get.process(false);
+                            boolean editing = System.currentTimeMillis()
+                                - get.getLastChangeTime()
+                                < ColabConfiguration.getMicrochangesQuietPeriod();
+                            LiveUpdates toProcess = editing ? get.getStablePrefix() : get;
+                            if (toProcess.getPendingChanges().isEmpty()) {
+                                logger.debug("Nothing stable to checkpoint in #{}", blockId);
+                                // do not check the block again on each tick
+                                getCache().executeOnKey(blockId,
+                                    new PostponeProcessing(System.currentTimeMillis()));
+                                return;
+                            }
+                            logger.debug("Process {}/{} changes",
+                                toProcess.getPendingChanges().size(),
+                                get.getPendingChanges().size());
+
+                            LiveResult result = toProcess.process(false);
                             block.setTextData(result.getContent());
                             block.setRevision(result.getRevision());
 
                             blockManager.updateBlock(block);
-                            this.deletePendingChangesAndPropagate(blockId);
+                            this.dropProcessedChangesAndPropagate(block,
+                                toProcess.getPendingChanges(), result);
                         } catch (RuntimeException ex) {
                             logger.error("Process failed", ex);
-                            block.setHealthy(false);
+                            this.suspendProcessing(block);
                         } catch (ColabMergeException ex) {
                             logger.error("Fails to save block", ex);
-                            block.setHealthy(false);
+                            this.suspendProcessing(block);
                         } catch (StackOverflowError error) {
                             logger.error("StackOverflowError");
-                            block.setHealthy(false);
+                            this.suspendProcessing(block);
                         }
                     }
                 } else {
@@ -263,6 +295,20 @@ public class LiveManager implements Serializable {
         );
     }
 
+    /**
+     * Mark the block unhealthy and do not process it again until a new change is received
+     *
+     * @param block the block which failed to be processed
+     */
+    private void suspendProcessing(TextDataBlock block) {
+        block.setHealthy(false);
+        try {
+            getCache().executeOnKey(block.getId(), new SuspendProcessing());
+        } catch (Throwable t) {
+            logger.warn("Suspend processing failed", t);
+        }
+    }
+
     /**
      * Clear pending changes
      *
@@ -298,134 +344,105 @@ public class LiveManager implements Serializable {
     }
 
     /**
-     * Cancel any debounce call related to the given blockId
+     * Clear processed changes. Changes received during the processing remain pending.
      *
-     * @param blockId id of the block
-     *
-     * @return true if there was something to cancel
+     * @param block     the saved block
+     * @param processed processed changes
+     * @param result    the result of the processing
      */
-    public boolean cancelDebounce(Long blockId) {
-        logger.debug("Cancel debounce #{}", blockId);
-        Future<Void> remove = this.debounces.remove(blockId);
-        if (remove != null) {
-            return remove.cancel(true);
+    private void dropProcessedChangesAndPropagate(TextDataBlock block, List<Change> processed,
+        LiveResult result) {
+        logger.debug("Delete processed changes");
+        block.setHealthy(true);
+        try {
+            transactionManager.registerDeletion(processed);
+        } catch (Throwable t) {
+            logger.warn("Propagate deleted changes failed", t);
+        }
+
+        Set<String> revisions = processed.stream()
+            .map(Change::getRevision)
+            .collect(Collectors.toSet());
+        try {
+            getCache().executeOnKey(block.getId(),
+                new DropProcessedChanges(revisions, result.getContent(), result.getRevision()));
+        } catch (Throwable t) {
+            logger.warn("Drop changes", t);
         }
-        return false;
     }
 
     /**
-     * Schedule changes processing.
+     * Get the blocks, owned by this instance, whose pending changes shall be processed now: no
+     * change has been received during the quiet period, the oldest pending change waits for too
+     * long or there are too many pending changes.
      * <p>
-     * Ask all hazelcast instances to cancel any pending process call and reschedule a new one
+     * Each instance only considers its local entries, so each block is selected by one instance
+     * only.
      *
-     * @param blockId id of the block
+     * @return ids of blocks to process
      */
-    public void scheduleSaveMicroChanges(Long blockId) {
-        IExecutorService executorService = hzInstance.getExecutorService("COLAB_LIVE");
-        Map<Member, Future<Boolean>> cancelCalls = executorService
-            .submitToAllMembers(new CancelDebounce(blockId));
-
-        logger.debug("Schedule processing #{}", blockId);
-
-        // cancel all pending debounce calls
-        cancelCalls.values().forEach(cancelCall -> {
-            try {
-                cancelCall.get();
-            } catch (InterruptedException | ExecutionException ex) {
-                logger.error("Fails to cancel", ex);
-            }
-        });
-
-        // schedule a new one
-        Future<Void> call = executorService.submit(new Debouncer(blockId));
-        this.debounces.put(blockId, call);
+    public Set<Long> getBlocksToProcess() {
+        return getCache().localKeySet(new ReadyToProcess(System.currentTimeMillis(),
+            ColabConfiguration.getMicrochangesQuietPeriod(),
+            ColabConfiguration.getMicrochangesMaxDelay(),
+            ColabConfiguration.getMicrochangesMaxCount()));
     }
 
     /**
-     * get data to monitor block with pending changes
+     * get data to monitor block with pending changes.
+     * <p>
+     * Pending changes are summarized on their owner and blocks are described with one single
+     * query.
      *
      * @return monitoring data
      */
     public List<BlockMonitoring> getMonitoringData() {
         IMap<Long, LiveUpdates> cache = getCache();
-        Set<Long> keys = cache.keySet();
-
-        return keys.stream().map(key -> {
-            var bm = new BlockMonitoring();
-            bm.setBlockId(key);
-            TextDataBlock block = blockManager.findBlock(key);
-
-            if (block != null) {
-                StringBuilder title = new StringBuilder();
-                if (block.getProject() != null) {
-                    Project p = block.getProject();
-                    title.append("Project \"")
-                        .append(p.getName())
-                        .append("\" #")
-                        .append(p.getId())
-                        .append(" / ");
-                }
-                try {
-                    if (block.getOwningResource() != null) {
-                        // block belongs to a resource
-                        Resource r = block.getOwningResource();
-                        Resourceable owner = r.getOwner();
-                        if (owner instanceof CardType) {
-                            CardType ct = (CardType) owner;
-                            title.append("Type: ").append(ct.getTitle()).append(" #")
-                                .append(ct.getId());
-                        } else if (owner instanceof CardTypeRef) {
-                            CardTypeRef ref = (CardTypeRef) owner;
-                            title.append("TypeRef: ").append(ref.resolve().getTitle()).append(" #")
-                                .append(ref.getId());
-                        } else if (owner instanceof CardContent) {
-                            CardContent cc = (CardContent) owner;
-                            Card c = cc.getCard();
-                            title.append("Card: ").append(c.getTitle()).append(" #")
-                                .append(c.getId());
-                            title.append(" / CardContent: ").append(cc.getTitle()).append(" #")
-                                .append(cc.getId());
-                        } else if (owner instanceof Card) {
-                            Card c = (Card) owner;
-                            title.append("Card: ").append(c.getTitle()).append(" #")
-                                .append(c.getId());
-                        }
+        SummarizeLiveUpdates summarize = new SummarizeLiveUpdates(System.currentTimeMillis());
 
-                        title.append(" / Resource ").append(r.getTitle()).append(" # ")
-                            .append(r.getId());
-                    } else if (block.getOwningCardContent() != null) {
-                        CardContent cc = block.getOwningCardContent();
-                        Card c = cc.getCard();
-                        title.append("Card: ").append(c.getTitle()).append(" #").append(c.getId()
-                        ).append(" / CardContent: ").append(cc.getTitle()).append(" #")
-                            .append(cc.getId());
-                    }
-                } catch (Throwable error) {
-                    /** no-op */
-                    logger.warn("Fails to build block title {}", block);
-                }
-                bm.setTitle(title.toString());
+        Map<Long, BlockMonitoring> data = new TreeMap<>();
+        try {
+            cache.project(summarize).forEach(bm -> data.put(bm.getBlockId(), bm));
+        } catch (RuntimeException ex) {
+            // some entries can not be read: summarize them one by one
+            logger.warn("Fails to summarize all pending changes at once", ex);
+            cache.keySet().forEach(key -> {
                 try {
-                    var data = cache.get(key);
-                    if (data != null) {
-                        if (block.isHealthy()) {
-                            bm.setStatus(BlockMonitoring.BlockStatus.HEALTHY);
-                        } else {
-                            bm.setStatus(BlockMonitoring.BlockStatus.UNHEALTHY);
-                        }
-                    } else {
-                        bm.setStatus(BlockMonitoring.BlockStatus.PROCESSED);
+                    LiveUpdates value = cache.get(key);
+                    if (value != null) {
+                        data.put(key, summarize.transform(Map.entry(key, value)));
                     }
                 } catch (Throwable e) {
                     /** Catch everything ! */
+                    var bm = new BlockMonitoring();
+                    bm.setBlockId(key);
                     bm.setStatus(BlockMonitoring.BlockStatus.DATA_ERROR);
+                    data.put(key, bm);
+                }
+            });
+        }
+
+        Map<Long, BlockLocation> locations = blockManager.findBlockLocations(data.keySet())
+            .stream()
+            .collect(Collectors.toMap(BlockLocation::getBlockId, Function.identity()));
+
+        data.values().forEach(bm -> {
+            BlockLocation location = locations.get(bm.getBlockId());
+            if (location != null) {
+                bm.setTitle(location.getTitle());
+                if (bm.getStatus() == null) {
+                    if (location.isHealthy()) {
+                        bm.setStatus(BlockMonitoring.BlockStatus.HEALTHY);
+                    } else {
+                        bm.setStatus(BlockMonitoring.BlockStatus.UNHEALTHY);
+                    }
                 }
             } else {
                 bm.setTitle("Ghost block");
                 bm.setStatus(BlockMonitoring.BlockStatus.DELETED);
             }
+        });
 
-            return bm;
-        }).collect(Collectors.toList());
+        return new ArrayList<>(data.values());
     }
 }
@@ -9,12 +9,21 @@ package ch.colabproject.colab.api.microchanges.live;
 import ch.colabproject.colab.api.microchanges.model.Change;
 import ch.colabproject.colab.api.microchanges.model.MicroChange;
 import ch.colabproject.colab.api.microchanges.model.MicroChange.Type;
+import ch.colabproject.colab.api.ws.utils.CompressionHelper;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.DataSerializable;
+import java.io.IOException;
 import java.io.Serializable;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -26,10 +35,13 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Set of pending changes.
+ * <p>
+ * Stored in a cluster-wide cache: it uses Hazelcast data serialization and big contents are
+ * deflated.
  *
  * @author maxence
  */
-public class LiveUpdates implements Serializable {
+public class LiveUpdates implements Serializable, DataSerializable {
 
     private static final long serialVersionUID = 1L;
 
@@ -61,11 +73,44 @@ public class LiveUpdates implements Serializable {
      */
     private List<Change> pendingChanges = new ArrayList<>();
 
+    /**
+     * Time, in ms, the oldest pending change has been received at
+     */
+    private long firstChangeTime = 0L;
+
+    /**
+     * Time, in ms, the newest pending change has been received at
+     */
+    private long lastChangeTime = 0L;
+
     /**
      * Temp debug data
      */
     private transient String debugData = null;
 
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeString(targetClass);
+        out.writeObject(targetId);
+        out.writeString(revision);
+        CompressionHelper.writeString(out, content);
+        out.writeObject(pendingChanges);
+        out.writeLong(firstChangeTime);
+        out.writeLong(lastChangeTime);
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        targetClass = in.readString();
+        targetId = in.readObject();
+        revision = in.readString();
+        content = CompressionHelper.readString(in);
+        List<Change> changes = in.readObject();
+        pendingChanges = changes != null ? changes : new ArrayList<>();
+        firstChangeTime = in.readLong();
+        lastChangeTime = in.readLong();
+    }
+
     /**
      * Get the JSON discriminator
      *
@@ -102,6 +147,42 @@ public class LiveUpdates implements Serializable {
         this.targetId = targetId;
     }
 
+    /**
+     * Get the time the oldest pending change has been received at
+     *
+     * @return time in ms
+     */
+    public long getFirstChangeTime() {
+        return firstChangeTime;
+    }
+
+    /**
+     * Set the time the oldest pending change has been received at
+     *
+     * @param firstChangeTime time in ms
+     */
+    public void setFirstChangeTime(long firstChangeTime) {
+        this.firstChangeTime = firstChangeTime;
+    }
+
+    /**
+     * Get the time the newest pending change has been received at
+     *
+     * @return time in ms
+     */
+    public long getLastChangeTime() {
+        return lastChangeTime;
+    }
+
+    /**
+     * Set the time the newest pending change has been received at
+     *
+     * @param lastChangeTime time in ms
+     */
+    public void setLastChangeTime(long lastChangeTime) {
+        this.lastChangeTime = lastChangeTime;
+    }
+
     /**
      * Get the revision
      *
@@ -156,55 +237,6 @@ public class LiveUpdates implements Serializable {
         this.pendingChanges = pendingChanges;
     }
 
-    /**
-     * Get change by revision
-     *
-     * @param changes  all changes
-     * @param revision the revision tag
-     *
-     * @return the change which the given revision or null if such a change does not exist
-     */
-    public Change getByRevision(List<Change> changes, String revision) {
-        Optional<Change> findAny = changes.stream()
-            .filter(ch -> ch.getRevision().equals(revision))
-            .findAny();
-        return findAny.isPresent() ? findAny.get() : null;
-    }
-
-    /**
-     * Get changes which are direct children of given parent
-     *
-     * @param changes all changes
-     * @param basedOn parent id
-     *
-     * @return all changes which are based on the given parentId
-     */
-    public List<Change> getByParent(List<Change> changes, String basedOn) {
-        List<Change> collect = changes.stream()
-            .filter(ch -> ch.getBasedOn().contains(basedOn))
-            .collect(Collectors.toList());
-        return new ArrayList<>(collect);
-    }
-
-    /**
-     * Get changes which are direct children of the given parent, authored by the same live-session.
-     * This method is used to detect if a live session has diverged.
-     *
-     * @param changes list of changes
-     * @param parent  parent
-     *
-     * @return children of parent if they are authored by the same person
-     */
-    public List<Change> getByParentAndSession(List<Change> changes, Change parent) {
-        logger.trace("Get Children By Parent And Session");
-
-        List<Change> collect = changes.stream()
-            .filter(ch -> ch.getBasedOn().contains(parent.getRevision())
-                && ch.getLiveSession().equals(parent.getLiveSession()))
-            .collect(Collectors.toList());
-        return new ArrayList<>(collect);
-    }
-
     /**
      * Include new offset within the map.
      *
@@ -262,14 +294,13 @@ public class LiveUpdates implements Serializable {
     /**
      * Apply microchange to the buffer
      *
-     * @param buffer the buffet
+     * @param buffer the buffer
      * @param mu     the patch
      */
-    private void applyChange(StringBuilder buffer, MicroChange mu) {
+    private void applyChange(Rope buffer, MicroChange mu) {
         logger.trace("Apply {} to {}", mu, buffer);
         if (mu.getT() == MicroChange.Type.D) {
             if (mu.getO() < buffer.length()) {
-                buffer.length();
                 buffer.delete(mu.getO(), mu.getO() + mu.getL());
             } else {
                 logger.trace("Skip micro change");
@@ -479,70 +510,52 @@ public class LiveUpdates implements Serializable {
     }
 
     /**
-     * Propagate offset to children
+     * Propagate offset to children.
+     * <p>
+     * Depth-first, iterative, walk: long chains of changes do not exhaust the stack.
      *
+     * @param graph   indexed changes
      * @param parent  starting point
      * @param offsets offset to propagate
      *
      * @return conflict free propagation or not
      */
-    private boolean propagateOffsets(List<Change> changes, Change parent,
+    private boolean propagateOffsets(ChangeGraph graph, Change parent,
         Map<Integer, Integer> offsets, boolean forward, String offsetFromRev) {
         boolean conflictFree = true;
 
-        for (Change child : getByParent(changes, parent.getRevision())) {
-            Set<String> childDeps = getAllDependencies(changes, child);
-            if (!childDeps.contains(offsetFromRev)) {
-                logger.trace("PropagateOffset {}@{} to {}", offsets, offsetFromRev, child);
+        Deque<PropagationStep> stack = new ArrayDeque<>();
+        stack.push(new PropagationStep(graph.getChildren(parent.getRevision()), offsets));
+
+        while (!stack.isEmpty()) {
+            PropagationStep step = stack.peek();
+            if (!step.children.hasNext()) {
+                stack.pop();
+                continue;
+            }
+            Change child = step.children.next();
+            if (!graph.dependsOn(child, offsetFromRev)) {
+                logger.trace("PropagateOffset {}@{} to {}", step.offsets, offsetFromRev, child);
                 // should propagate to children which are not based on the offsetsFromRev
-                boolean shiftFree = this.shift(child, offsets, forward);
-                Map<Integer, Integer> shiftedOffsets = shiftOffsets(offsets, child);
+                boolean shiftFree = this.shift(child, step.offsets, forward);
+                Map<Integer, Integer> shiftedOffsets = shiftOffsets(step.offsets, child);
                 logger.trace("Shifted Offsets: {}", shiftedOffsets);
-                boolean pFree = this.propagateOffsets(changes, child, shiftedOffsets, forward,
-                    offsetFromRev);
-                conflictFree = conflictFree && shiftFree && pFree;
+                conflictFree = conflictFree && shiftFree;
+                // go deeper
+                stack.push(new PropagationStep(graph.getChildren(child.getRevision()),
+                    shiftedOffsets));
             } else {
                 // merge has been done
                 HashSet<String> newDeps = new HashSet<>(child.getBasedOn());
                 newDeps.remove(offsetFromRev);
                 logger.trace("Do not go deeper than {}, now based on {}", child, newDeps);
-                child.setBasedOn(newDeps);
+                graph.setBasedOn(child, newDeps);
                 // child.getBasedOn().remove(offsetFromRev);
             }
         }
         return conflictFree;
     }
 
-    /**
-     * Get the full set of revision the given change depends on
-     *
-     * @param changes full set of changes
-     * @param change  the change
-     *
-     * @return set of dependencies
-     */
-    private Set<String> getAllDependencies(List<Change> changes, Change change) {
-        Set<String> deps = new HashSet<>();
-
-        List<Change> queue = new LinkedList<>();
-        queue.add(change);
-
-        while (!queue.isEmpty()) {
-            Change ch = queue.remove(0);
-            ch.getBasedOn().forEach(dep -> {
-                if (!deps.contains(dep)) {
-                    deps.add(dep);
-                    Change parent = getByRevision(changes, dep);
-                    if (parent != null && !queue.contains(parent)) {
-                        queue.add(parent);
-                    }
-                }
-            });
-        }
-
-        return deps;
-    }
-
     /**
      * Do sets equals?
      *
@@ -575,9 +588,9 @@ public class LiveUpdates implements Serializable {
      *
      * @return true if rebase has been done without conflict
      */
-    private boolean rebase(List<Change> changes, Change newBase, Change change) {
-        Set<String> baseDeps = getAllDependencies(changes, newBase);
-        Set<String> changeDeps = getAllDependencies(changes, change);
+    private boolean rebase(ChangeGraph graph, Change newBase, Change change) {
+        Set<String> baseDeps = graph.getAllDependencies(newBase);
+        Set<String> changeDeps = graph.getAllDependencies(change);
 
         if (setsEqual(baseDeps, changeDeps)) {
             try {
@@ -590,11 +603,11 @@ public class LiveUpdates implements Serializable {
                     + " with offset " + offsets);
 
                 conflictFree = shift(change, offsets, true) && conflictFree;
-                conflictFree = propagateOffsets(changes, change,
+                conflictFree = propagateOffsets(graph, change,
                     offsets, true, newBaseRev) && conflictFree;
 
                 // Update parents after rebase/propagation step
-                change.setBasedOn(Set.of(newBase.getRevision()));
+                graph.setBasedOn(change, Set.of(newBase.getRevision()));
                 logger.trace(" -> " + change);
                 return conflictFree;
             } catch (StackOverflowError e) {
@@ -611,8 +624,8 @@ public class LiveUpdates implements Serializable {
 
             Map<Integer, Integer> changeOffsets = computeOffset(change);
 
-            newBase.setBasedOn(change.getBasedOn());
-            change.setBasedOn(Set.of(newBase.getRevision()));
+            graph.setBasedOn(newBase, change.getBasedOn());
+            graph.setBasedOn(change, Set.of(newBase.getRevision()));
 
             conflictFree = shift(newBase, changeOffsets, false) && conflictFree;
 
@@ -630,7 +643,8 @@ public class LiveUpdates implements Serializable {
         } else {
             logger.error(
                 "Not yet implemented: Changes: {} Change: {} NewBase: {} BaseDeps: {} ChangeDeps: {}",
-                changes, change.getRevision(), newBase.getRevision(), baseDeps, changeDeps);
+                graph.getChanges(), change.getRevision(), newBase.getRevision(), baseDeps,
+                changeDeps);
             return false;
         }
     }
@@ -653,6 +667,100 @@ public class LiveUpdates implements Serializable {
         return changes.stream().map(Change::getRevision).collect(Collectors.toList());
     }
 
+    /**
+     * Get the stable prefix of the pending changes: the changes a checkpoint may fold into the
+     * base revision while editing goes on.
+     * <p>
+     * The prefix is made of a change every leaf of the graph depends on, and of all its
+     * dependencies. Remaining changes must not depend on the base revision or on any change of
+     * the prefix but its last one, which becomes the new base revision. The largest such prefix is
+     * selected.
+     * <p>
+     * Once folded, revisions of the prefix are unknown: a change based on one of them would be an
+     * orphan. Thus, each live session which authored a folded change must have acknowledged the
+     * new base revision, i.e. must have authored the last change of the prefix or a change based
+     * on it.
+     *
+     * @return new LiveUpdates with the same base and the stable changes only. Its list of pending
+     *         changes is empty if nothing can be folded yet
+     */
+    public LiveUpdates getStablePrefix() {
+        LiveUpdates prefix = new LiveUpdates();
+        prefix.setTargetClass(targetClass);
+        prefix.setTargetId(targetId);
+        prefix.setRevision(revision);
+        prefix.setContent(content);
+
+        ChangeGraph graph = new ChangeGraph(pendingChanges);
+        Set<String> known = new HashSet<>(mapChangesRevision(pendingChanges));
+        known.add(revision);
+
+        // changes every leaf depends on
+        Set<String> common = null;
+        for (Change change : pendingChanges) {
+            if (graph.getChildren(change.getRevision()).isEmpty()) {
+                Set<String> deps = new HashSet<>(graph.getAllDependencies(change));
+                deps.add(change.getRevision());
+                if (common == null) {
+                    common = deps;
+                } else {
+                    common.retainAll(deps);
+                }
+            }
+        }
+        if (common == null) {
+            return prefix;
+        }
+
+        final Set<String> candidates = common;
+        List<Change> sorted = pendingChanges.stream()
+            .filter(change -> candidates.contains(change.getRevision()))
+            .sorted(Comparator.comparing(
+                (Change change) -> graph.getAllDependencies(change).size()).reversed())
+            .collect(Collectors.toList());
+
+        for (Change last : sorted) {
+            Set<String> folded = new HashSet<>(graph.getAllDependencies(last));
+            if (known.containsAll(folded)) {
+                folded.add(last.getRevision());
+                folded.add(revision);
+                boolean cut = pendingChanges.stream()
+                    .filter(change -> !folded.contains(change.getRevision()))
+                    .allMatch(change -> change.getBasedOn().stream()
+                        .allMatch(parent -> parent.equals(last.getRevision())
+                            || !folded.contains(parent)));
+                if (cut && isAcknowledged(graph, folded, last)) {
+                    prefix.setPendingChanges(pendingChanges.stream()
+                        .filter(change -> folded.contains(change.getRevision()))
+                        .collect(Collectors.toList()));
+                    return prefix;
+                }
+            }
+        }
+        return prefix;
+    }
+
+    /**
+     * Have all live sessions which authored a change to fold acknowledged the new base revision?
+     *
+     * @param graph  the graph of pending changes
+     * @param folded revisions to fold
+     * @param last   the last change to fold, which becomes the new base revision
+     *
+     * @return true if each of these sessions authored the last change or a change based on it
+     */
+    private boolean isAcknowledged(ChangeGraph graph, Set<String> folded, Change last) {
+        Set<String> acknowledged = pendingChanges.stream()
+            .filter(change -> change == last
+                || graph.dependsOn(change, last.getRevision()))
+            .map(Change::getLiveSession)
+            .collect(Collectors.toSet());
+
+        return pendingChanges.stream()
+            .filter(change -> folded.contains(change.getRevision()))
+            .allMatch(change -> acknowledged.contains(change.getLiveSession()));
+    }
+
     /**
      * Apply all changes.
      *
@@ -664,24 +772,29 @@ public class LiveUpdates implements Serializable {
         initDebugData();
         logger.debug("Debug Data {}", this.debugData);
 
-        StringBuilder buffer = new StringBuilder();
-        if (this.content != null) {
-            buffer.append(this.content);
-        }
+        Rope buffer = new Rope(this.content);
 
         logger.trace("Process: {}", this);
 
         String currentRevision = this.revision;
 
         List<Change> allChanges = this.getPendingChanges();
-        List<Change> changes = new ArrayList<>(allChanges);
+        ChangeGraph graph = new ChangeGraph(allChanges);
+
+        // changes still to apply, with their rank in the processing order:
+        // changes moved to the front of the queue get decreasing ranks
+        Map<Change, Long> changes = new IdentityHashMap<>();
+        allChanges.forEach(change -> changes.put(change, (long) graph.getPosition(change)));
+        long frontRank = -1;
 
         Set<String> appliedChanges = new HashSet<>();
 
         while (!changes.isEmpty()) {
             appliedChanges.add(currentRevision);
             // fetch all changes based on the current revision
-            List<Change> children = getByParent(changes, currentRevision);
+            List<Change> children = graph.getChildren(currentRevision);
+            children.removeIf(child -> !changes.containsKey(child));
+            children.sort(Comparator.comparing(changes::get));
             if (!children.isEmpty()) {
                 // Map<Integer, Integer> offsets = new HashMap<>();
                 // logger.trace("new empty offsets " + offsets);
@@ -704,21 +817,21 @@ public class LiveUpdates implements Serializable {
                     List<MicroChange> muChanges = change.getMicrochanges();
                     for (int i = muChanges.size() - 1; i >= 0; i--) {
                         applyChange(buffer, muChanges.get(i));
-                        logger.trace("  " + i + ")" + buffer);
+                        logger.trace("  {}) {}", i, buffer);
                     }
 
                     logger.trace(" -> {}", buffer);
                     // logger.trace("Offsets" + offsets);
                     // rebase others children
 
-                    changes.removeAll(children);
+                    children.forEach(changes::remove);
                     for (int i = children.size() - 1; i >= 0; i--) {
                         Change child = children.remove(i);
-                        if (!rebase(allChanges, change, child) && strict) {
+                        if (!rebase(graph, change, child) && strict) {
                             // todo throw ?
                             logger.warn("Conflict");
                         }
-                        changes.add(0, child);
+                        changes.put(child, frontRank--);
                     }
                     currentRevision = change.getRevision();
                 } else {
@@ -730,7 +843,7 @@ public class LiveUpdates implements Serializable {
 
             } else {
                 // TODO add full tree JSON formated full tree
-                logger.error("Some children without any parents left: {}", changes);
+                logger.error("Some children without any parents left: {}", changes.keySet());
                 printDebugData();
                 break;
             }
@@ -784,4 +897,31 @@ public class LiveUpdates implements Serializable {
     public void printDebugData() {
         logger.warn("Debug Data {}", this.debugData);
     }
+
+    /**
+     * Pending step of offsets propagation: children still to visit and offsets to apply to them
+     */
+    private static class PropagationStep {
+
+        /**
+         * Children still to visit
+         */
+        private final Iterator<Change> children;
+
+        /**
+         * Offsets to apply to children
+         */
+        private final Map<Integer, Integer> offsets;
+
+        /**
+         * Create a step
+         *
+         * @param children children to visit
+         * @param offsets  offsets to apply to them
+         */
+        PropagationStep(List<Change> children, Map<Integer, Integer> offsets) {
+            this.children = children.iterator();
+            this.offsets = offsets;
+        }
+    }
 }
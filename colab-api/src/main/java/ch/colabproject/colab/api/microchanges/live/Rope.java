@@ -0,0 +1,266 @@
+/*
+ * The coLAB project
+ * Copyright (C) 2023 AlbaSim, MEI, HEIG-VD, HES-SO
+ *
+ * Licensed under the MIT License
+ */
+package ch.colabproject.colab.api.microchanges.live;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.SplittableRandom;
+
+/**
+ * Mutable text to apply many small edits to a big text: a balanced tree of text chunks (treap
+ * ordered by position). Inserting or deleting text costs O(log n) instead of moving the whole
+ * tail of the text as {@link StringBuilder} does.
+ * <p>
+ * Insertions and deletions behave like {@link StringBuilder#insert(int, String)} and
+ * {@link StringBuilder#delete(int, int)}. Not thread-safe.
+ *
+ * @author maxence
+ */
+public class Rope {
+
+    /**
+     * Max length of chunks the initial text and inserted texts are cut into
+     */
+    private static final int CHUNK_SIZE = 512;
+
+    /**
+     * A chunk of text
+     */
+    private static final class Node {
+
+        /**
+         * Text of this very node
+         */
+        private final String text;
+
+        /**
+         * Random priority which keeps the tree balanced
+         */
+        private final int priority;
+
+        /**
+         * Length of the text of the whole subtree
+         */
+        private int length;
+
+        /**
+         * Text before this chunk
+         */
+        private Node left;
+
+        /**
+         * Text after this chunk
+         */
+        private Node right;
+
+        /**
+         * Create a leaf
+         *
+         * @param text     text of the chunk
+         * @param priority priority
+         */
+        private Node(String text, int priority) {
+            this.text = text;
+            this.priority = priority;
+            this.length = text.length();
+        }
+
+        /**
+         * Update the length of the subtree
+         */
+        private void update() {
+            length = text.length() + length(left) + length(right);
+        }
+    }
+
+    /**
+     * Priorities generator. Seeded: the shape of the tree does not depend on the run.
+     */
+    private final SplittableRandom random = new SplittableRandom(0xC01AB);
+
+    /**
+     * Root of the tree, null if the text is empty
+     */
+    private Node root;
+
+    /**
+     * Create an empty rope
+     */
+    public Rope() {
+        this.root = null;
+    }
+
+    /**
+     * Create a rope which contains the given text
+     *
+     * @param text initial text, may be null
+     */
+    public Rope(String text) {
+        this.root = text != null ? build(text) : null;
+    }
+
+    /**
+     * @return length of the text
+     */
+    public int length() {
+        return length(root);
+    }
+
+    /**
+     * Insert text at the given index
+     *
+     * @param offset index to insert the text at
+     * @param text   the text to insert. Like StringBuilder, null is inserted as "null"
+     *
+     * @throws StringIndexOutOfBoundsException if the offset is invalid
+     */
+    public void insert(int offset, String text) {
+        if (offset < 0 || offset > length()) {
+            throw new StringIndexOutOfBoundsException("offset " + offset + ", length "
+                + length());
+        }
+        String value = String.valueOf(text);
+        if (!value.isEmpty()) {
+            Node[] parts = split(root, offset);
+            root = merge(merge(parts[0], build(value)), parts[1]);
+        }
+    }
+
+    /**
+     * Append text
+     *
+     * @param text the text to append. Like StringBuilder, null is appended as "null"
+     */
+    public void append(String text) {
+        insert(length(), text);
+    }
+
+    /**
+     * Delete characters from start (inclusive) to end (exclusive). If end is greater than the
+     * length, characters are deleted up to the end of the text.
+     *
+     * @param start index of the first character to delete
+     * @param end   index after the last character to delete
+     *
+     * @throws StringIndexOutOfBoundsException if start is negative, greater than the length or
+     *                                         greater than end
+     */
+    public void delete(int start, int end) {
+        int length = length();
+        int effectiveEnd = Math.min(end, length);
+        if (start < 0 || start > effectiveEnd) {
+            throw new StringIndexOutOfBoundsException("start " + start + ", end " + end
+                + ", length " + length);
+        }
+        if (start < effectiveEnd) {
+            Node[] parts = split(root, start);
+            Node[] tail = split(parts[1], effectiveEnd - start);
+            root = merge(parts[0], tail[1]);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(length());
+        Deque<Node> stack = new ArrayDeque<>();
+        Node current = root;
+        while (current != null || !stack.isEmpty()) {
+            while (current != null) {
+                stack.push(current);
+                current = current.left;
+            }
+            current = stack.pop();
+            sb.append(current.text);
+            current = current.right;
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Null-safe length of a subtree
+     *
+     * @param node the subtree
+     *
+     * @return its length
+     */
+    private static int length(Node node) {
+        return node != null ? node.length : 0;
+    }
+
+    /**
+     * Build a tree which contains the given text, cut into chunks
+     *
+     * @param text the text
+     *
+     * @return root of the tree
+     */
+    private Node build(String text) {
+        Node result = null;
+        for (int i = 0; i < text.length(); i += CHUNK_SIZE) {
+            String chunk = text.substring(i, Math.min(text.length(), i + CHUNK_SIZE));
+            result = merge(result, new Node(chunk, random.nextInt()));
+        }
+        return result;
+    }
+
+    /**
+     * Split a tree in two trees: the first one contains the first offset characters and the
+     * second one contains the remaining ones.
+     *
+     * @param node   root of the tree to split
+     * @param offset number of characters of the first tree
+     *
+     * @return both trees
+     */
+    private Node[] split(Node node, int offset) {
+        if (node == null) {
+            return new Node[]{null, null};
+        }
+        int leftLength = length(node.left);
+        if (offset <= leftLength) {
+            Node[] parts = split(node.left, offset);
+            node.left = parts[1];
+            node.update();
+            return new Node[]{parts[0], node};
+        } else if (offset >= leftLength + node.text.length()) {
+            Node[] parts = split(node.right, offset - leftLength - node.text.length());
+            node.right = parts[0];
+            node.update();
+            return new Node[]{node, parts[1]};
+        } else {
+            // split within the chunk of this node
+            int index = offset - leftLength;
+            Node head = new Node(node.text.substring(0, index), random.nextInt());
+            Node tail = new Node(node.text.substring(index), random.nextInt());
+            return new Node[]{merge(node.left, head), merge(tail, node.right)};
+        }
+    }
+
+    /**
+     * Concatenate two trees
+     *
+     * @param a first tree
+     * @param b second tree
+     *
+     * @return root of the tree which contains text of a followed by text of b
+     */
+    private Node merge(Node a, Node b) {
+        if (a == null) {
+            return b;
+        } else if (b == null) {
+            return a;
+        } else if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            a.update();
+            return a;
+        } else {
+            b.left = merge(a, b.left);
+            b.update();
+            return b;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * The coLAB project
+ * Copyright (C) 2023 AlbaSim, MEI, HEIG-VD, HES-SO
+ *
+ * Licensed under the MIT License
+ */
+package ch.colabproject.colab.api.microchanges.live.monitoring;
+
+/**
+ * Where a block lives, as fetched in bulk by the TextDataBlock.findLocations query. Only ids and
+ * titles are fetched, no entity is loaded.
+ *
+ * @author maxence
+ */
+public class BlockLocation {
+
+    /** id of the block */
+    private final Long blockId;
+
+    /** is the block healthy */
+    private final boolean healthy;
+
+    /** id of the card the block is a deliverable of */
+    private final Long cardId;
+
+    /** title of the card the block is a deliverable of */
+    private final String cardTitle;
+
+    /** id of the card content the block is the deliverable of */
+    private final Long cardContentId;
+
+    /** title of the card content the block is the deliverable of */
+    private final String cardContentTitle;
+
+    /** id of the resource the block is part of */
+    private final Long resourceId;
+
+    /** title of the resource the block is part of */
+    private final String resourceTitle;
+
+    /** id of the card type the block is the purpose of */
+    private final Long cardTypeId;
+
+    /** title of the card type the block is the purpose of */
+    private final String cardTypeTitle;
+
+    /** id of the resource the block is the teaser of */
+    private final Long teasedResourceId;
+
+    /** title of the resource the block is the teaser of */
+    private final String teasedResourceTitle;
+
+    /**
+     * Constructor used by the query
+     *
+     * @param blockId             id of the block
+     * @param healthy             is the block healthy
+     * @param cardId              id of the card, if the block is a deliverable
+     * @param cardTitle           title of the card, if the block is a deliverable
+     * @param cardContentId       id of the card content, if the block is a deliverable
+     * @param cardContentTitle    title of the card content, if the block is a deliverable
+     * @param resourceId          id of the resource, if the block is part of a resource
+     * @param resourceTitle       title of the resource, if the block is part of a resource
+     * @param cardTypeId          id of the card type, if the block is a purpose
+     * @param cardTypeTitle       title of the card type, if the block is a purpose
+     * @param teasedResourceId    id of the resource, if the block is a teaser
+     * @param teasedResourceTitle title of the resource, if the block is a teaser
+     */
+    public BlockLocation(Long blockId, boolean healthy,
+        Long cardId, String cardTitle, Long cardContentId, String cardContentTitle,
+        Long resourceId, String resourceTitle, Long cardTypeId, String cardTypeTitle,
+        Long teasedResourceId, String teasedResourceTitle) {
+        this.blockId = blockId;
+        this.healthy = healthy;
+        this.cardId = cardId;
+        this.cardTitle = cardTitle;
+        this.cardContentId = cardContentId;
+        this.cardContentTitle = cardContentTitle;
+        this.resourceId = resourceId;
+        this.resourceTitle = resourceTitle;
+        this.cardTypeId = cardTypeId;
+        this.cardTypeTitle = cardTypeTitle;
+        this.teasedResourceId = teasedResourceId;
+        this.teasedResourceTitle = teasedResourceTitle;
+    }
+
+    /**
+     * @return id of the block
+     */
+    public Long getBlockId() {
+        return blockId;
+    }
+
+    /**
+     * @return true if the block is healthy
+     */
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    /**
+     * Build a human readable description of the location
+     *
+     * @return the description
+     */
+    public String getTitle() {
+        StringBuilder title = new StringBuilder();
+        if (cardContentId != null) {
+            if (cardId != null) {
+                title.append("Card: ").append(cardTitle).append(" #").append(cardId)
+                    .append(" / ");
+            }
+            title.append("CardContent: ").append(cardContentTitle).append(" #")
+                .append(cardContentId);
+        } else if (resourceId != null) {
+            title.append("Resource ").append(resourceTitle).append(" #").append(resourceId);
+        } else if (cardTypeId != null) {
+            title.append("Type: ").append(cardTypeTitle).append(" #").append(cardTypeId)
+                .append(" / Purpose");
+        } else if (teasedResourceId != null) {
+            title.append("Resource ").append(teasedResourceTitle).append(" #")
+                .append(teasedResourceId).append(" / Teaser");
+        }
+        return title.toString();
+    }
+}
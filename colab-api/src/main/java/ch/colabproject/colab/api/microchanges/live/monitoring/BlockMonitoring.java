@@ -50,6 +50,15 @@ public class BlockMonitoring implements WithJsonDiscriminator {
     @NotNull
     private BlockStatus status;
 
+    /** Number of pending changes */
+    private Integer nbChanges;
+
+    /** Approximate size, in bytes, of the content and its pending changes */
+    private Long size;
+
+    /** Age, in ms, of the oldest pending change. Null if processing is suspended */
+    private Long age;
+
     /**
      * Get id
      *
@@ -103,4 +112,58 @@ public class BlockMonitoring implements WithJsonDiscriminator {
     public void setTitle(String title) {
         this.title = title;
     }
+
+    /**
+     * Get number of pending changes
+     *
+     * @return the number of pending changes
+     */
+    public Integer getNbChanges() {
+        return nbChanges;
+    }
+
+    /**
+     * Set number of pending changes
+     *
+     * @param nbChanges number of pending changes
+     */
+    public void setNbChanges(Integer nbChanges) {
+        this.nbChanges = nbChanges;
+    }
+
+    /**
+     * Get approximate size, in bytes, of the content and its pending changes
+     *
+     * @return the size
+     */
+    public Long getSize() {
+        return size;
+    }
+
+    /**
+     * Set size
+     *
+     * @param size the size, in bytes
+     */
+    public void setSize(Long size) {
+        this.size = size;
+    }
+
+    /**
+     * Get age of the oldest pending change
+     *
+     * @return the age, in ms, or null if processing is suspended
+     */
+    public Long getAge() {
+        return age;
+    }
+
+    /**
+     * Set age of the oldest pending change
+     *
+     * @param age the age, in ms
+     */
+    public void setAge(Long age) {
+        this.age = age;
+    }
 }
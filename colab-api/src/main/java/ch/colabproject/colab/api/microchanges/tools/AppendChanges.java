@@ -0,0 +1,127 @@
+/*
+ * The coLAB project
+ * Copyright (C) 2023 AlbaSim, MEI, HEIG-VD, HES-SO
+ *
+ * Licensed under the MIT License
+ */
+package ch.colabproject.colab.api.microchanges.tools;
+
+import ch.colabproject.colab.api.microchanges.live.LiveUpdates;
+import ch.colabproject.colab.api.microchanges.model.Change;
+import com.hazelcast.map.EntryProcessor;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.DataSerializable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Append changes to the pending changes of a block. Executed by the owner of the entry: neither a
+ * cluster-wide lock nor the transfer of the whole pending changes are required.
+ * <p>
+ * Changes whose revision is already known are ignored. Returns the number of changes based on an
+ * unknown parent, or {@link #MISSING} if there is no pending changes for the block and no seed has
+ * been given.
+ *
+ * @author maxence
+ */
+public class AppendChanges implements EntryProcessor<Long, LiveUpdates, Integer>,
+    DataSerializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Returned if the entry does not exist yet
+     */
+    public static final int MISSING = -1;
+
+    /**
+     * Changes to append, in order
+     */
+    private List<Change> changes;
+
+    /**
+     * Initial value to use if the entry does not exist yet. May be null.
+     */
+    private LiveUpdates seed;
+
+    /**
+     * Default constructor, used by deserialization
+     */
+    public AppendChanges() {
+        /* no-op */
+    }
+
+    /**
+     * Create an entry processor
+     *
+     * @param changes changes to append
+     * @param seed    initial value to use if there is no pending changes yet. If null, nothing is
+     *                done in such a case
+     */
+    public AppendChanges(List<Change> changes, LiveUpdates seed) {
+        this.changes = changes;
+        this.seed = seed;
+    }
+
+    @Override
+    public Integer process(Map.Entry<Long, LiveUpdates> entry) {
+        LiveUpdates value = entry.getValue();
+        if (value == null) {
+            if (seed == null) {
+                return MISSING;
+            }
+            value = seed;
+        }
+
+        List<Change> pendingChanges = value.getPendingChanges();
+        long now = System.currentTimeMillis();
+        if (pendingChanges.isEmpty()) {
+            value.setFirstChangeTime(now);
+        }
+        value.setLastChangeTime(now);
+
+        int orphans = 0;
+        for (Change change : changes) {
+            // a client may send a change again if it does not know whether it has been received
+            String revision = change.getRevision();
+            if (revision.equals(value.getRevision()) || pendingChanges.stream()
+                .anyMatch(pending -> revision.equals(pending.getRevision()))) {
+                continue;
+            }
+            Set<String> basedOn = change.getBasedOn();
+            // parent may be one of the previous changes
+            boolean parentExists = basedOn.contains(value.getRevision())
+                || pendingChanges.stream()
+                    .anyMatch(pending -> basedOn.contains(pending.getRevision()));
+            if (!parentExists) {
+                orphans++;
+            }
+            pendingChanges.add(change);
+        }
+
+        entry.setValue(value);
+        return orphans;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeObject(changes);
+        out.writeObject(seed);
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        List<Change> list = in.readObject();
+        changes = list != null ? list : new ArrayList<>();
+        seed = in.readObject();
+    }
+
+    @Override
+    public String toString() {
+        return "AppendChanges{" + "changes=" + changes + ", seed=" + seed + '}';
+    }
+}
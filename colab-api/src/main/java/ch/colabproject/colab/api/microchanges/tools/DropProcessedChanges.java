@@ -0,0 +1,110 @@
+/*
+ * The coLAB project
+ * Copyright (C) 2023 AlbaSim, MEI, HEIG-VD, HES-SO
+ *
+ * Licensed under the MIT License
+ */
+package ch.colabproject.colab.api.microchanges.tools;
+
+import ch.colabproject.colab.api.microchanges.live.LiveUpdates;
+import ch.colabproject.colab.api.ws.utils.CompressionHelper;
+import com.hazelcast.map.EntryProcessor;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.DataSerializable;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Remove processed changes from the pending changes of a block. Changes appended since the
+ * processing started are kept and rebased on the saved content. The entry is removed if no change
+ * remains.
+ *
+ * @author maxence
+ */
+public class DropProcessedChanges implements EntryProcessor<Long, LiveUpdates, Void>,
+    DataSerializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Revisions of processed changes
+     */
+    private Set<String> revisions;
+
+    /**
+     * Saved content
+     */
+    private String content;
+
+    /**
+     * Revision of the saved content
+     */
+    private String revision;
+
+    /**
+     * Default constructor, used by deserialization
+     */
+    public DropProcessedChanges() {
+        /* no-op */
+    }
+
+    /**
+     * Create an entry processor
+     *
+     * @param revisions revisions of processed changes
+     * @param content   saved content
+     * @param revision  revision of the saved content
+     */
+    public DropProcessedChanges(Set<String> revisions, String content, String revision) {
+        this.revisions = revisions;
+        this.content = content;
+        this.revision = revision;
+    }
+
+    @Override
+    public Void process(Map.Entry<Long, LiveUpdates> entry) {
+        LiveUpdates value = entry.getValue();
+        if (value != null) {
+            value.getPendingChanges().removeIf(change -> revisions.contains(change.getRevision()));
+            if (value.getPendingChanges().isEmpty()) {
+                entry.setValue(null);
+            } else {
+                value.setContent(content);
+                value.setRevision(revision);
+                // remaining changes are recent: they wait from now on
+                value.setFirstChangeTime(System.currentTimeMillis());
+                entry.setValue(value);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeInt(revisions.size());
+        for (String rev : revisions) {
+            out.writeString(rev);
+        }
+        CompressionHelper.writeString(out, content);
+        out.writeString(revision);
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        int size = in.readInt();
+        revisions = new HashSet<>();
+        for (int i = 0; i < size; i++) {
+            revisions.add(in.readString());
+        }
+        content = CompressionHelper.readString(in);
+        revision = in.readString();
+    }
+
+    @Override
+    public String toString() {
+        return "DropProcessedChanges{" + "revisions=" + revisions + ", revision=" + revision + '}';
+    }
+}
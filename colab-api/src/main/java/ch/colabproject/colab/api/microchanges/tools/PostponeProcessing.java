@@ -0,0 +1,47 @@
+/*
+ * The coLAB project
+ * Copyright (C) 2023 AlbaSim, MEI, HEIG-VD, HES-SO
+ *
+ * Licensed under the MIT License
+ */
+package ch.colabproject.colab.api.microchanges.tools;
+
+import ch.colabproject.colab.api.microchanges.live.LiveUpdates;
+import com.hazelcast.map.EntryProcessor;
+import java.util.Map;
+
+/**
+ * Postpone the processing of a block which is still being edited but has nothing stable to
+ * checkpoint yet: the block waits for another max delay before being checked again.
+ *
+ * @author maxence
+ */
+public class PostponeProcessing implements EntryProcessor<Long, LiveUpdates, Void> {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Time of the check, in ms
+     */
+    private final long now;
+
+    /**
+     * Create the entry processor
+     *
+     * @param now time of the check, in ms
+     */
+    public PostponeProcessing(long now) {
+        this.now = now;
+    }
+
+    @Override
+    public Void process(Map.Entry<Long, LiveUpdates> entry) {
+        LiveUpdates value = entry.getValue();
+        if (value != null) {
+            // the max delay restarts now
+            value.setFirstChangeTime(now);
+            entry.setValue(value);
+        }
+        return null;
+    }
+}
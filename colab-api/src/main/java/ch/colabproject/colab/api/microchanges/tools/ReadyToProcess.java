@@ -0,0 +1,70 @@
+/*
+ * The coLAB project
+ * Copyright (C) 2023 AlbaSim, MEI, HEIG-VD, HES-SO
+ *
+ * Licensed under the MIT License
+ */
+package ch.colabproject.colab.api.microchanges.tools;
+
+import ch.colabproject.colab.api.microchanges.live.LiveUpdates;
+import com.hazelcast.query.Predicate;
+import java.util.Map;
+
+/**
+ * Select blocks whose pending changes shall be processed: no change has been received during the
+ * quiet period, the oldest change waits for too long or there are too many pending changes.
+ *
+ * @author maxence
+ */
+public class ReadyToProcess implements Predicate<Long, LiveUpdates> {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Current time, in ms
+     */
+    private final long now;
+
+    /**
+     * Quiet period, in ms
+     */
+    private final long quietPeriod;
+
+    /**
+     * Max delay, in ms
+     */
+    private final long maxDelay;
+
+    /**
+     * Max number of pending changes
+     */
+    private final long maxCount;
+
+    /**
+     * Create the predicate
+     *
+     * @param now         current time, in ms
+     * @param quietPeriod delay without any new change
+     * @param maxDelay    max delay the oldest change may wait
+     * @param maxCount    max number of pending changes
+     */
+    public ReadyToProcess(long now, long quietPeriod, long maxDelay, long maxCount) {
+        this.now = now;
+        this.quietPeriod = quietPeriod;
+        this.maxDelay = maxDelay;
+        this.maxCount = maxCount;
+    }
+
+    @Override
+    public boolean apply(Map.Entry<Long, LiveUpdates> entry) {
+        LiveUpdates value = entry.getValue();
+        return value != null
+            // suspended blocks wait for a new change
+            && value.getLastChangeTime() != Long.MAX_VALUE
+            && (now - value.getLastChangeTime() >= quietPeriod
+            || now - value.getFirstChangeTime() >= maxDelay
+            // postponed or just checkpointed blocks wait for a quiet period at least
+            || value.getPendingChanges().size() >= maxCount
+            && now - value.getFirstChangeTime() >= quietPeriod);
+    }
+}
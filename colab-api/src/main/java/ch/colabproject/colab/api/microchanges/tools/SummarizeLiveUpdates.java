@@ -0,0 +1,74 @@
+/*
+ * The coLAB project
+ * Copyright (C) 2023 AlbaSim, MEI, HEIG-VD, HES-SO
+ *
+ * Licensed under the MIT License
+ */
+package ch.colabproject.colab.api.microchanges.tools;
+
+import ch.colabproject.colab.api.microchanges.live.LiveUpdates;
+import ch.colabproject.colab.api.microchanges.live.monitoring.BlockMonitoring;
+import ch.colabproject.colab.api.microchanges.model.Change;
+import ch.colabproject.colab.api.microchanges.model.MicroChange;
+import com.hazelcast.projection.Projection;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Summarize pending changes of a block for monitoring purpose. Run on the owner of each entry:
+ * contents and changes never leave it.
+ *
+ * @author maxence
+ */
+public class SummarizeLiveUpdates
+    implements Projection<Map.Entry<Long, LiveUpdates>, BlockMonitoring> {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Current time, in ms
+     */
+    private final long now;
+
+    /**
+     * Create the projection
+     *
+     * @param now current time, in ms
+     */
+    public SummarizeLiveUpdates(long now) {
+        this.now = now;
+    }
+
+    /**
+     * Size of a string once encoded in UTF-8
+     *
+     * @param value the string, may be null
+     *
+     * @return number of bytes
+     */
+    private static long sizeOf(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8).length : 0;
+    }
+
+    @Override
+    public BlockMonitoring transform(Map.Entry<Long, LiveUpdates> entry) {
+        LiveUpdates value = entry.getValue();
+
+        BlockMonitoring bm = new BlockMonitoring();
+        bm.setBlockId(entry.getKey());
+        bm.setNbChanges(value.getPendingChanges().size());
+
+        long size = sizeOf(value.getContent());
+        for (Change change : value.getPendingChanges()) {
+            for (MicroChange mu : change.getMicrochanges()) {
+                size += sizeOf(mu.getV());
+            }
+        }
+        bm.setSize(size);
+
+        if (value.getLastChangeTime() != Long.MAX_VALUE) {
+            bm.setAge(now - value.getFirstChangeTime());
+        }
+        return bm;
+    }
+}
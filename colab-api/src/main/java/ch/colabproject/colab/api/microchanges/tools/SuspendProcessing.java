@@ -0,0 +1,37 @@
+/*
+ * The coLAB project
+ * Copyright (C) 2023 AlbaSim, MEI, HEIG-VD, HES-SO
+ *
+ * Licensed under the MIT License
+ */
+package ch.colabproject.colab.api.microchanges.tools;
+
+import ch.colabproject.colab.api.microchanges.live.LiveUpdates;
+import com.hazelcast.map.EntryProcessor;
+import java.util.Map;
+
+/**
+ * Do not process pending changes of a block until a new change is received. Used once processing
+ * failed not to retry it again and again.
+ * <p>
+ * The time of the first pending change is kept: once a new change is received, the max delay still
+ * applies to the oldest pending change.
+ *
+ * @author maxence
+ */
+public class SuspendProcessing implements EntryProcessor<Long, LiveUpdates, Void> {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public Void process(Map.Entry<Long, LiveUpdates> entry) {
+        LiveUpdates value = entry.getValue();
+        if (value != null) {
+            // the quiet period will never elapse, and suspended blocks are not selected until a
+            // new change resets the last change time
+            value.setLastChangeTime(Long.MAX_VALUE);
+            entry.setValue(value);
+        }
+        return null;
+    }
+}
@@ -20,6 +20,7 @@ import javax.persistence.DiscriminatorValue;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.Lob;
+import javax.persistence.NamedQuery;
 import javax.persistence.OneToOne;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
@@ -32,6 +33,16 @@ import javax.validation.constraints.Size;
  */
 @Entity
 @DiscriminatorValue("TEXT_DATA_BLOCK")
+@NamedQuery(name = "TextDataBlock.findLocations",
+    query = "SELECT NEW ch.colabproject.colab.api.microchanges.live.monitoring.BlockLocation("
+        + "b.id, b.healthy, c.id, c.title, cc.id, cc.title, r.id, r.title, "
+        + "ct.id, ct.title, tr.id, tr.title) "
+        + "FROM TextDataBlock b "
+        + "LEFT JOIN b.owningCardContent cc LEFT JOIN cc.card c "
+        + "LEFT JOIN b.owningResource r "
+        + "LEFT JOIN b.purposingCardType ct "
+        + "LEFT JOIN b.teasingResource tr "
+        + "WHERE b.id IN :ids")
 public class TextDataBlock extends Document {
 
     private static final long serialVersionUID = 1L;
@@ -61,7 +61,11 @@ public class EntityListener {
         logger.trace("Load {}", o);
         // Skip permission check if a condition assertion is already in progress
         if (o instanceof WithPermission && !requestManager.isInSecurityTx()) {
-            securityManager.assertReadPermissionTx((WithPermission) o);
+            WithPermission entity = (WithPermission) o;
+            // only open a security transaction if the answer is not known yet
+            if (!securityManager.isReadPermissionGranted(entity)) {
+                securityManager.assertReadPermissionTx(entity);
+            }
         }
     }
 
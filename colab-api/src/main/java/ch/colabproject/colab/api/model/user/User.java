@@ -42,6 +42,8 @@ import java.util.List;
     query = "SELECT u from User u where u.username = :username")
 @NamedQuery(name = "User.findAllAdmin",
     query = "SELECT u from User u where u.isAdmin = TRUE")
+@NamedQuery(name = "User.findAllAdminIds",
+    query = "SELECT u.id from User u where u.isAdmin = TRUE")
 public class User implements ColabEntity, WithWebsocketChannels {
 
     private static final long serialVersionUID = 1L;
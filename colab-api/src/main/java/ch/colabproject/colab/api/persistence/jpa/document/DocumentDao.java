@@ -7,12 +7,17 @@
 package ch.colabproject.colab.api.persistence.jpa.document;
 
 import ch.colabproject.colab.api.exceptions.ColabMergeException;
+import ch.colabproject.colab.api.microchanges.live.monitoring.BlockLocation;
 import ch.colabproject.colab.api.model.document.Document;
 import ch.colabproject.colab.api.model.document.TextDataBlock;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import javax.ejb.LocalBean;
 import javax.ejb.Stateless;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -63,6 +68,28 @@ public class DocumentDao {
         return em.find(TextDataBlock.class, id);
     }
 
+    /**
+     * Find where the given text data blocks live, with one single query.
+     *
+     * @param ids ids of the text data blocks
+     *
+     * @return location of each existing text data block
+     */
+    public List<BlockLocation> findTextDataBlockLocations(Collection<Long> ids) {
+        logger.trace("find locations of text data blocks {}", ids);
+
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        TypedQuery<BlockLocation> query = em.createNamedQuery("TextDataBlock.findLocations",
+            BlockLocation.class);
+
+        query.setParameter("ids", ids);
+
+        return query.getResultList();
+    }
+
     /**
      * Update document. Only fields which are editable by users will be impacted.
      *
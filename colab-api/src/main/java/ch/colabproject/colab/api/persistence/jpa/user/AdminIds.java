@@ -0,0 +1,99 @@
+/*
+ * The coLAB project
+ * Copyright (C) 2023 AlbaSim, MEI, HEIG-VD, HES-SO
+ *
+ * Licensed under the MIT License
+ */
+package ch.colabproject.colab.api.persistence.jpa.user;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.DataSerializable;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Cached admin ids. Each invalidation increments the version, so ids loaded before an
+ * invalidation can be detected and discarded.
+ *
+ * @author maxence
+ */
+public class AdminIds implements DataSerializable {
+
+    /**
+     * Version of the cache entry
+     */
+    private long version;
+
+    /**
+     * Admin ids. Null means not loaded yet.
+     */
+    private Set<Long> ids;
+
+    /**
+     * Default constructor, used by deserialization
+     */
+    public AdminIds() {
+        /* no-op */
+    }
+
+    /**
+     * Create cache entry
+     *
+     * @param version version
+     * @param ids     admin ids, may be null
+     */
+    public AdminIds(long version, Set<Long> ids) {
+        this.version = version;
+        this.ids = ids;
+    }
+
+    /**
+     * Get the version
+     *
+     * @return the version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Get admin ids
+     *
+     * @return admin ids or null if they have not been loaded since the last invalidation
+     */
+    public Set<Long> getIds() {
+        return ids;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeLong(version);
+        out.writeInt(ids != null ? ids.size() : -1);
+        if (ids != null) {
+            for (Long id : ids) {
+                out.writeLong(id);
+            }
+        }
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        version = in.readLong();
+        int size = in.readInt();
+        if (size >= 0) {
+            ids = new HashSet<>();
+            for (int i = 0; i < size; i++) {
+                ids.add(in.readLong());
+            }
+        } else {
+            ids = null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "AdminIds{" + "version=" + version + ", ids=" + ids + '}';
+    }
+}
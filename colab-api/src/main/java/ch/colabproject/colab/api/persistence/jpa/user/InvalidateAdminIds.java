@@ -0,0 +1,29 @@
+/*
+ * The coLAB project
+ * Copyright (C) 2023 AlbaSim, MEI, HEIG-VD, HES-SO
+ *
+ * Licensed under the MIT License
+ */
+package ch.colabproject.colab.api.persistence.jpa.user;
+
+import com.hazelcast.map.EntryProcessor;
+import java.util.Map;
+
+/**
+ * Forget cached admin ids and increment the version of the entry. Ids loaded before the
+ * invalidation will never be stored.
+ *
+ * @author maxence
+ */
+public class InvalidateAdminIds implements EntryProcessor<String, AdminIds, Void> {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public Void process(Map.Entry<String, AdminIds> entry) {
+        AdminIds value = entry.getValue();
+        long version = value != null ? value.getVersion() : 0L;
+        entry.setValue(new AdminIds(version + 1, null));
+        return null;
+    }
+}
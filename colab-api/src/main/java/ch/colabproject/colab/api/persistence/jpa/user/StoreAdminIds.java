@@ -0,0 +1,90 @@
+/*
+ * The coLAB project
+ * Copyright (C) 2023 AlbaSim, MEI, HEIG-VD, HES-SO
+ *
+ * Licensed under the MIT License
+ */
+package ch.colabproject.colab.api.persistence.jpa.user;
+
+import com.hazelcast.map.EntryProcessor;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.DataSerializable;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Store loaded admin ids, only if the cache has not been invalidated since the load started.
+ *
+ * @author maxence
+ */
+public class StoreAdminIds implements EntryProcessor<String, AdminIds, Boolean>,
+    DataSerializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Version of the entry read before loading ids
+     */
+    private long version;
+
+    /**
+     * Loaded admin ids
+     */
+    private Set<Long> ids;
+
+    /**
+     * Default constructor, used by deserialization
+     */
+    public StoreAdminIds() {
+        /* no-op */
+    }
+
+    /**
+     * Create an entry processor
+     *
+     * @param version version of the entry read before loading ids
+     * @param ids     loaded admin ids
+     */
+    public StoreAdminIds(long version, Set<Long> ids) {
+        this.version = version;
+        this.ids = ids;
+    }
+
+    @Override
+    public Boolean process(Map.Entry<String, AdminIds> entry) {
+        AdminIds value = entry.getValue();
+        long current = value != null ? value.getVersion() : 0L;
+        if (current == version) {
+            entry.setValue(new AdminIds(version, ids));
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeLong(version);
+        out.writeInt(ids.size());
+        for (Long id : ids) {
+            out.writeLong(id);
+        }
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        version = in.readLong();
+        int size = in.readInt();
+        ids = new HashSet<>();
+        for (int i = 0; i < size; i++) {
+            ids.add(in.readLong());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "StoreAdminIds{" + "version=" + version + ", ids=" + ids + '}';
+    }
+}
@@ -8,13 +8,21 @@ package ch.colabproject.colab.api.persistence.jpa.user;
 
 import ch.colabproject.colab.api.exceptions.ColabMergeException;
 import ch.colabproject.colab.api.model.user.User;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import javax.annotation.Resource;
 import javax.ejb.LocalBean;
 import javax.ejb.Stateless;
+import javax.inject.Inject;
 import javax.persistence.EntityManager;
 import javax.persistence.NoResultException;
 import javax.persistence.PersistenceContext;
 import javax.persistence.TypedQuery;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -32,12 +40,38 @@ public class UserDao {
     /** logger */
     private static final Logger logger = LoggerFactory.getLogger(UserDao.class);
 
+    /**
+     * Key of the admin ids within the cache
+     */
+    private static final String ADMIN_IDS_KEY = "ADMIN_IDS";
+
     /**
      * Access to the persistence unit
      */
     @PersistenceContext(unitName = "COLAB_PU")
     private EntityManager em;
 
+    /**
+     * Hazelcast instance
+     */
+    @Inject
+    private HazelcastInstance hzInstance;
+
+    /**
+     * To invalidate cache once the transaction is completed
+     */
+    @Resource
+    private TransactionSynchronizationRegistry jtaSyncRegistry;
+
+    /**
+     * Get the cluster-wide cache of admin ids.
+     *
+     * @return the cache
+     */
+    private IMap<String, AdminIds> getAdminIdsCache() {
+        return hzInstance.getMap("ADMIN_IDS_CACHE");
+    }
+
     /**
      * Find a user by id
      *
@@ -77,6 +111,51 @@ public class UserDao {
         return query.getResultList();
     }
 
+    /**
+     * Get ids of all admin users. Ids are cached cluster-wide until admin rights change.
+     * <p>
+     * Loaded ids are stored only if the cache has not been invalidated meanwhile, so ids read
+     * before a grant or a revocation is committed never re-populate the cache.
+     *
+     * @return ids of all administrators
+     */
+    public Set<Long> findAllAdminIds() {
+        IMap<String, AdminIds> cache = getAdminIdsCache();
+        AdminIds cached = cache.get(ADMIN_IDS_KEY);
+        if (cached != null && cached.getIds() != null) {
+            return cached.getIds();
+        }
+
+        logger.trace("find all admin ids");
+        long version = cached != null ? cached.getVersion() : 0L;
+        Set<Long> ids = new HashSet<>(
+            em.createNamedQuery("User.findAllAdminIds", Long.class).getResultList());
+        cache.executeOnKey(ADMIN_IDS_KEY, new StoreAdminIds(version, ids));
+        return ids;
+    }
+
+    /**
+     * Clear cached admin ids. As the current transaction may not have been committed yet, the
+     * cache is cleared once again when the transaction completes.
+     */
+    public void invalidateAdminIds() {
+        IMap<String, AdminIds> cache = getAdminIdsCache();
+        cache.executeOnKey(ADMIN_IDS_KEY, new InvalidateAdminIds());
+        if (jtaSyncRegistry != null && jtaSyncRegistry.getTransactionKey() != null) {
+            jtaSyncRegistry.registerInterposedSynchronization(new Synchronization() {
+                @Override
+                public void beforeCompletion() {
+                    /* no-op */
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    cache.executeOnKey(ADMIN_IDS_KEY, new InvalidateAdminIds());
+                }
+            });
+        }
+    }
+
     /**
      * Find a user by username
      *
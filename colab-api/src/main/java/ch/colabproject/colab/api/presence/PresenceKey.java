@@ -0,0 +1,105 @@
+/*
+ * The coLAB project
+ * Copyright (C) 2023 AlbaSim, MEI, HEIG-VD, HES-SO
+ *
+ * Licensed under the MIT License
+ */
+package ch.colabproject.colab.api.presence;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.DataSerializable;
+import com.hazelcast.partition.PartitionAware;
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Key of the presence of one websocket session in one project. All presences of a project live in
+ * the same partition.
+ *
+ * @author maxence
+ */
+public class PresenceKey implements PartitionAware<Long>, DataSerializable {
+
+    /**
+     * Id of the project
+     */
+    private Long projectId;
+
+    /**
+     * Websocket session id
+     */
+    private String wsSessionId;
+
+    /**
+     * Default constructor, used by deserialization
+     */
+    public PresenceKey() {
+        /* no-op */
+    }
+
+    /**
+     * Create a key
+     *
+     * @param projectId   id of the project
+     * @param wsSessionId websocket session id
+     */
+    public PresenceKey(Long projectId, String wsSessionId) {
+        this.projectId = projectId;
+        this.wsSessionId = wsSessionId;
+    }
+
+    /**
+     * @return id of the project
+     */
+    public Long getProjectId() {
+        return projectId;
+    }
+
+    /**
+     * @return websocket session id
+     */
+    public String getWsSessionId() {
+        return wsSessionId;
+    }
+
+    @Override
+    public Long getPartitionKey() {
+        return projectId;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeLong(projectId);
+        out.writeString(wsSessionId);
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        projectId = in.readLong();
+        wsSessionId = in.readString();
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(projectId, wsSessionId);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        PresenceKey other = (PresenceKey) obj;
+        return Objects.equals(projectId, other.projectId)
+            && Objects.equals(wsSessionId, other.wsSessionId);
+    }
+
+    @Override
+    public String toString() {
+        return "PresenceKey{" + "projectId=" + projectId + ", wsSessionId=" + wsSessionId + '}';
+    }
+}
@@ -6,8 +6,8 @@
  */
 package ch.colabproject.colab.api.presence;
 
-import ch.colabproject.colab.api.controller.EntityGatheringBagForPropagation;
 import ch.colabproject.colab.api.controller.RequestManager;
+import ch.colabproject.colab.api.controller.WebsocketManager;
 import ch.colabproject.colab.api.controller.project.ProjectManager;
 import ch.colabproject.colab.api.controller.team.TeamManager;
 import ch.colabproject.colab.api.model.project.Project;
@@ -15,18 +15,21 @@ import ch.colabproject.colab.api.model.team.TeamMember;
 import ch.colabproject.colab.api.model.user.User;
 import ch.colabproject.colab.api.presence.model.TouchUserPresence;
 import ch.colabproject.colab.api.presence.model.UserPresence;
+import ch.colabproject.colab.api.setup.ColabConfiguration;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import javax.ejb.LocalBean;
 import javax.ejb.Stateless;
 import javax.inject.Inject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.hazelcast.core.HazelcastInstance;
-import com.hazelcast.cp.lock.FencedLock;
 import com.hazelcast.map.IMap;
+import com.hazelcast.map.listener.EntryExpiredListener;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.Predicates;
 
 /**
  * To manages user presence
@@ -45,10 +48,10 @@ public class PresenceManager {
     private HazelcastInstance hzInstance;
 
     /**
-     * To register presence
+     * To propagate presence
      */
     @Inject
-    private EntityGatheringBagForPropagation transactionManager;
+    private WebsocketManager websocketManager;
 
     /** Project specific logic management */
     @Inject
@@ -62,24 +65,30 @@ public class PresenceManager {
     @Inject
     private RequestManager requestManager;
 
+    /**
+     * Name of the shared cache of presence
+     */
+    private static final String PRESENCE_CACHE = "USER_PRESENCE_CACHE";
+
     /**
      * Get shared cache of presence.
      * <p>
-     * projectId => wsSessionId => UserPresence
+     * (projectId, wsSessionId) => UserPresence. Presences of a project share the same partition.
      */
-    private IMap<Long, Map<String, UserPresence>> getCache() {
-        return hzInstance.getMap("PRESENCE_CACHE");
+    private IMap<PresenceKey, UserPresence> getCache() {
+        return hzInstance.getMap(PRESENCE_CACHE);
     }
 
     /**
-     * Get the lock for the given project id
+     * Select all presences of the given project. The query only runs on the partition which
+     * contains them.
      *
-     * @param id id of the project
+     * @param projectId id of the project
      *
-     * @return the lock
+     * @return the predicate
      */
-    private FencedLock getLock(Long id) {
-        return hzInstance.getCPSubsystem().getLock("Project-Presence-" + id);
+    private Predicate<PresenceKey, UserPresence> inProject(Long projectId) {
+        return Predicates.partitionPredicate(projectId, Predicates.equal("projectId", projectId));
     }
 
     /**
@@ -93,22 +102,17 @@ public class PresenceManager {
         // just to check read access to project
         projectManager.assertAndGetProject(projectId);
 
-        Map<String, UserPresence> get = null;
         try {
-            get = getCache().get(projectId);
+            return getCache().values(inProject(projectId));
         } catch (RuntimeException e) {
             logger.warn("Unable to fetch presence list", e);
-        }
-
-        if (get != null) {
-            return get.values();
-        } else {
             return new HashSet<>();
         }
     }
 
     /**
-     * Register and propagate user presence
+     * Register user presence and propagate it if it has changed. Changes of a project are
+     * propagated in batches. Presence expires if it is not touched again within the time-to-live.
      *
      * @param touch presence data
      */
@@ -120,8 +124,6 @@ public class PresenceManager {
             User currentUser = requestManager.getCurrentUser();
             TeamMember member = teamManager.findMemberByProjectAndUser(project, currentUser);
 
-            String wsSessionId = touch.getWsSessionId();
-            FencedLock lock = getLock(projectId);
             UserPresence userPresence = new UserPresence(touch);
 
             // no member => user is an admin
@@ -130,18 +132,18 @@ public class PresenceManager {
             }
 
             try {
-                lock.lock();
-                IMap<Long, Map<String, UserPresence>> cache = getCache();
-                cache.putIfAbsent(projectId, new HashMap<>());
-                Map<String, UserPresence> projectPresence = cache.get(projectId);
-                projectPresence.put(wsSessionId, userPresence);
-                cache.put(projectId, projectPresence);
-
-                transactionManager.registerUpdate(userPresence);
+                // one entry per session: no need to lock anything
+                // each touch is a heartbeat which restarts the time-to-live
+                UserPresence previous = getCache().put(
+                    new PresenceKey(projectId, touch.getWsSessionId()), userPresence,
+                    ColabConfiguration.getPresenceTtl(), TimeUnit.SECONDS);
+
+                // only propagate changes other users can see, in per-project batches
+                if (!userPresence.hasSameVisibleState(previous)) {
+                    websocketManager.propagatePresenceUpdate(userPresence);
+                }
             } catch (RuntimeException e) {
                 logger.warn("Unable to update user presence", e);
-            } finally {
-                lock.unlock();
             }
         }
     }
@@ -153,32 +155,19 @@ public class PresenceManager {
      * @param wsSessionId the sessionId to clean
      */
     public void clearWsSession(Long projectId, String wsSessionId) {
-
-        FencedLock lock = getLock(projectId);
         try {
-            lock.lock();
-            IMap<Long, Map<String, UserPresence>> cache = getCache();
-            Map<String, UserPresence> projectPresence = cache.get(projectId);
-
-            if (projectPresence != null) {
-                UserPresence remove = projectPresence.remove(wsSessionId);
-                transactionManager.registerDeletion(remove);
-                if (projectPresence.isEmpty()) {
-                    cache.delete(projectId);
-                } else {
-                    // make sure to cal setValue to save the change!
-                    cache.put(projectId, projectPresence);
-                }
+            UserPresence remove = getCache().remove(new PresenceKey(projectId, wsSessionId));
+            if (remove != null) {
+                websocketManager.propagatePresenceDeletion(remove);
             }
         } catch (RuntimeException e) {
             logger.warn("Unable to remove wsSession", e);
-        } finally {
-            lock.unlock();
         }
     }
 
     /**
-     * Clear presence list for the given project
+     * Clear presence list for the given project and propagate the deletion of each presence, so
+     * clients do not keep stale presences.
      *
      * @param projectId id of the project
      */
@@ -186,16 +175,41 @@ public class PresenceManager {
         // laod project to check permissions
         projectManager.assertAndGetProject(projectId);
 
-        FencedLock lock = getLock(projectId);
-
         try {
-            lock.lock();
-            getCache().delete(projectId);
-        } finally {
-            lock.unlock();
+            IMap<PresenceKey, UserPresence> cache = getCache();
+            // only the partition of the project is queried
+            cache.keySet(inProject(projectId)).forEach(key -> {
+                UserPresence remove = cache.remove(key);
+                if (remove != null) {
+                    websocketManager.propagatePresenceDeletion(remove);
+                }
+            });
+        } catch (RuntimeException e) {
+            logger.warn("Unable to clear presence list", e);
         }
     }
 
+    /**
+     * Listen to presences which expire on this instance. Each expired presence is notified once,
+     * by the instance which owns it.
+     *
+     * @param listener the listener
+     *
+     * @return id of the registration
+     */
+    public UUID addExpiryListener(EntryExpiredListener<PresenceKey, UserPresence> listener) {
+        return getCache().addLocalEntryListener(listener, Predicates.alwaysTrue(), true);
+    }
+
+    /**
+     * Stop listening to expired presences
+     *
+     * @param registrationId id of the registration
+     */
+    public void removeExpiryListener(UUID registrationId) {
+        getCache().removeEntryListener(registrationId);
+    }
+
     /**
      * Clear all presence lists
      */
@@ -13,6 +13,7 @@ import ch.colabproject.colab.generator.model.annotations.ExtractJavaDoc;
 import ch.colabproject.colab.generator.model.interfaces.WithJsonDiscriminator;
 import ch.colabproject.colab.generator.model.tools.DateSerDe;
 import java.time.OffsetDateTime;
+import java.util.Objects;
 import javax.json.bind.annotation.JsonbTypeDeserializer;
 import javax.json.bind.annotation.JsonbTypeSerializer;
 import javax.validation.constraints.NotNull;
@@ -109,6 +110,26 @@ public class UserPresence extends TouchUserPresence implements WithJsonDiscrimin
         this.teamMemberId = teamMemberId;
     }
 
+    /**
+     * Do both presences show the same thing to other users? Dates are not compared.
+     *
+     * @param other the other presence
+     *
+     * @return true if other users can not tell the difference between both presences
+     */
+    public boolean hasSameVisibleState(UserPresence other) {
+        return other != null
+            && Objects.equals(this.getProjectId(), other.getProjectId())
+            && Objects.equals(this.getWsSessionId(), other.getWsSessionId())
+            && Objects.equals(this.getTeamMemberId(), other.getTeamMemberId())
+            && Objects.equals(this.getCardId(), other.getCardId())
+            && Objects.equals(this.getCardContentId(), other.getCardContentId())
+            && Objects.equals(this.getDocumentId(), other.getDocumentId())
+            && Objects.equals(this.getContext(), other.getContext())
+            && Objects.equals(this.getSelectionStart(), other.getSelectionStart())
+            && Objects.equals(this.getSelectionEnd(), other.getSelectionEnd());
+    }
+
     /////////////////////
     // Websockets
     /////////////////////
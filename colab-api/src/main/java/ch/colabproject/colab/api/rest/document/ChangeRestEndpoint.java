@@ -66,6 +66,18 @@ public class ChangeRestEndpoint {
         liveManager.patchBlock(id, change);
     }
 
+    /**
+     * Patch many blocks at once. Changes are applied in order and grouped by block (see
+     * {@link Change#getAtId()}).
+     *
+     * @param changes the changes
+     */
+    @PUT
+    @Path("batch")
+    public void patchBlocks(List<Change> changes) {
+        liveManager.patchBlocks(changes);
+    }
+
     /**
      * Patch a block with a change
      *
@@ -9,6 +9,7 @@ package ch.colabproject.colab.api.rest.monitoring;
 import ch.colabproject.colab.api.controller.monitoring.LevelDescriptor;
 import ch.colabproject.colab.api.controller.monitoring.MonitoringManager;
 import ch.colabproject.colab.api.controller.monitoring.VersionDetails;
+import ch.colabproject.colab.api.ws.monitoring.WebsocketMonitoring;
 import ch.colabproject.colab.generator.model.annotations.AdminResource;
 import java.util.Map;
 import javax.inject.Inject;
@@ -84,4 +85,16 @@ public class MonitoringRestEndpoint {
     public Map<String, LevelDescriptor> getLoggerLevels() {
         return monitoringManager.getLoggerLevels();
     }
+
+    /**
+     * Get websocket delivery counters of the whole cluster
+     *
+     * @return websocket monitoring data
+     */
+    @GET
+    @Path("WebsocketMonitoring")
+    @AdminResource
+    public WebsocketMonitoring getWebsocketMonitoring() {
+        return monitoringManager.getWebsocketMonitoring();
+    }
 }
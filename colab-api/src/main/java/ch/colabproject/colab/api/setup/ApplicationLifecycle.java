@@ -8,6 +8,7 @@ package ch.colabproject.colab.api.setup;
 
 import ch.colabproject.colab.api.controller.CdiBridgeSingleton;
 import ch.colabproject.colab.api.controller.setup.ApplicationLifecycleManager;
+import ch.colabproject.colab.generator.model.tools.JsonbProvider;
 import ch.colabproject.colab.generator.model.tools.PolymorphicDeserializer;
 import java.util.Set;
 import javax.inject.Inject;
@@ -70,6 +71,15 @@ public class ApplicationLifecycle extends HttpServlet {
         int newTypeCount = PolymorphicDeserializer.includePackage("ch.colabproject.colab.api");
         logger.info("Update PolymorphicDeserializer: {} new types", newTypeCount);
 
+        // build JSON-B class models now rather than on first messages
+        try {
+            int warmCount = JsonbProvider.warmUp(PolymorphicDeserializer.getKnownTypes());
+            logger.info("Warm JSON-B mapper up: {} types", warmCount);
+        } catch (RuntimeException ex) {
+            // optional: models are built on first messages anyway
+            logger.warn("Fail to warm JSON-B mapper up", ex);
+        }
+
         logger.info("Create a default admin user if none exists");
         applicationLifecycleManager.createDefaultAdminIfNone();
 
@@ -107,6 +117,7 @@ public class ApplicationLifecycle extends HttpServlet {
     @Override
     public void destroy() {
         logger.info("LIFE CYCLE : destroy");
+        JsonbProvider.release();
         super.destroy();
     }
 }
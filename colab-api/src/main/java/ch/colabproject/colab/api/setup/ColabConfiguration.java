@@ -6,6 +6,7 @@
  */
 package ch.colabproject.colab.api.setup;
 
+import ch.colabproject.colab.api.ws.utils.SessionOutbox;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
@@ -207,6 +208,132 @@ public class ColabConfiguration {
      */
     public static final String YJS_INTERNAL_URL_DEFAULT = "";
 
+    /**
+     * Max number of frames queued for one websocket session
+     */
+    public static final String WS_OUTBOX_CAPACITY = "colab.ws.outbox.capacity";
+
+    /**
+     * Default max number of frames queued for one websocket session
+     */
+    public static final String WS_OUTBOX_CAPACITY_DEFAULT = "64";
+
+    /**
+     * Max size, in MB, of frames queued for one websocket session. The session is closed beyond
+     */
+    public static final String WS_OUTBOX_MAX_SIZE_MB = "colab.ws.outbox.maxsize.mb";
+
+    /**
+     * Default max size of frames queued for one websocket session, in MB
+     */
+    public static final String WS_OUTBOX_MAX_SIZE_MB_DEFAULT = "4";
+
+    /**
+     * What to do when the outbox of a websocket session is full: DROP_OLDEST, COALESCE or
+     * DISCONNECT
+     */
+    public static final String WS_OUTBOX_POLICY = "colab.ws.outbox.policy";
+
+    /**
+     * Default websocket back-pressure policy
+     */
+    public static final String WS_OUTBOX_POLICY_DEFAULT = "DISCONNECT";
+
+    /**
+     * Delay, in ms, during which updates of the same object are merged before being sent. 0 means
+     * updates are sent immediately
+     */
+    public static final String WS_COALESCING_WINDOW = "colab.ws.coalescing.window.ms";
+
+    /**
+     * Default coalescing window: disabled
+     */
+    public static final String WS_COALESCING_WINDOW_DEFAULT = "0";
+
+    /**
+     * Delay, in ms, during which channel occupancy changes are aggregated before being sent to
+     * admins
+     */
+    public static final String WS_CHANNEL_CHANGE_WINDOW = "colab.ws.channelchange.window.ms";
+
+    /**
+     * Default channel occupancy changes aggregation window
+     */
+    public static final String WS_CHANNEL_CHANGE_WINDOW_DEFAULT = "500";
+
+    /**
+     * Strings longer than this number of chars are deflated before being sent to other instances
+     * of the cluster
+     */
+    public static final String CLUSTER_COMPRESSION_THRESHOLD = "colab.cluster.compression.threshold";
+
+    /**
+     * Default cluster compression threshold
+     */
+    public static final String CLUSTER_COMPRESSION_THRESHOLD_DEFAULT = "16384";
+
+    /**
+     * Websocket frames bigger than this number of bytes are deflated, if the client supports it
+     */
+    public static final String WS_COMPRESSION_THRESHOLD = "colab.ws.compression.threshold";
+
+    /**
+     * Default websocket compression threshold
+     */
+    public static final String WS_COMPRESSION_THRESHOLD_DEFAULT = "16384";
+
+    /**
+     * Pending micro changes are processed once no change has been received during this delay
+     */
+    public static final String MICROCHANGES_QUIET_PERIOD = "colab.microchanges.quietperiod.ms";
+
+    /**
+     * Default quiet period
+     */
+    public static final String MICROCHANGES_QUIET_PERIOD_DEFAULT = "5000";
+
+    /**
+     * Stable pending micro changes are checkpointed at the latest after this delay, even if changes
+     * are still being received
+     */
+    public static final String MICROCHANGES_MAX_DELAY = "colab.microchanges.maxdelay.ms";
+
+    /**
+     * Default max delay
+     */
+    public static final String MICROCHANGES_MAX_DELAY_DEFAULT = "30000";
+
+    /**
+     * Stable pending micro changes are checkpointed once there are at least this number of pending
+     * changes, even if changes are still being received
+     */
+    public static final String MICROCHANGES_MAX_COUNT = "colab.microchanges.maxcount";
+
+    /**
+     * Default max count
+     */
+    public static final String MICROCHANGES_MAX_COUNT_DEFAULT = "500";
+
+    /**
+     * Presence of a websocket session expires if it is not touched during this delay
+     */
+    public static final String PRESENCE_TTL = "colab.presence.ttl.s";
+
+    /**
+     * Default presence time-to-live
+     */
+    public static final String PRESENCE_TTL_DEFAULT = "180";
+
+    /**
+     * Presence changes of a project are propagated at most once per interval, in ms
+     */
+    public static final String PRESENCE_INTERVAL = "colab.presence.interval.ms";
+
+    /**
+     * Default presence propagation interval
+     */
+    public static final String PRESENCE_INTERVAL_DEFAULT = "500";
+
     /**
      * never-called private constructor
      */
@@ -393,6 +520,111 @@ public class ColabConfiguration {
         return System.getProperty(YJS_INTERNAL_URL, YJS_INTERNAL_URL_DEFAULT);
     }
 
+    /**
+     * @return max number of frames queued for one websocket session
+     */
+    public static int getWsOutboxCapacity() {
+        var value = System.getProperty(WS_OUTBOX_CAPACITY, WS_OUTBOX_CAPACITY_DEFAULT);
+        return tryParsePositive(value, WS_OUTBOX_CAPACITY_DEFAULT).intValue();
+    }
+
+    /**
+     * @return max size of frames queued for one websocket session, in bytes
+     */
+    public static long getWsOutboxMaxSize() {
+        var value = System.getProperty(WS_OUTBOX_MAX_SIZE_MB, WS_OUTBOX_MAX_SIZE_MB_DEFAULT);
+        var parsed = tryParsePositive(value, WS_OUTBOX_MAX_SIZE_MB_DEFAULT);
+        return parsed << 20;// convert to bytes
+    }
+
+    /**
+     * @return what to do when the outbox of a websocket session is full
+     */
+    public static SessionOutbox.BackPressurePolicy getWsOutboxPolicy() {
+        var value = System.getProperty(WS_OUTBOX_POLICY, WS_OUTBOX_POLICY_DEFAULT);
+        try {
+            return SessionOutbox.BackPressurePolicy.valueOf(value);
+        } catch (IllegalArgumentException ex) {
+            return SessionOutbox.BackPressurePolicy.valueOf(WS_OUTBOX_POLICY_DEFAULT);
+        }
+    }
+
+    /**
+     * @return delay, in ms, during which updates of the same object are merged. 0 if disabled
+     */
+    public static long getWsCoalescingWindow() {
+        var value = System.getProperty(WS_COALESCING_WINDOW, WS_COALESCING_WINDOW_DEFAULT);
+        return tryParsePositive(value, WS_COALESCING_WINDOW_DEFAULT);
+    }
+
+    /**
+     * @return delay, in ms, during which channel occupancy changes are aggregated
+     */
+    public static long getWsChannelChangeWindow() {
+        var value = System.getProperty(WS_CHANNEL_CHANGE_WINDOW, WS_CHANNEL_CHANGE_WINDOW_DEFAULT);
+        return tryParsePositive(value, WS_CHANNEL_CHANGE_WINDOW_DEFAULT);
+    }
+
+    /**
+     * @return number of chars above which strings are deflated before being sent to other
+     *         instances of the cluster
+     */
+    public static int getClusterCompressionThreshold() {
+        var value = System.getProperty(CLUSTER_COMPRESSION_THRESHOLD,
+            CLUSTER_COMPRESSION_THRESHOLD_DEFAULT);
+        return tryParsePositive(value, CLUSTER_COMPRESSION_THRESHOLD_DEFAULT).intValue();
+    }
+
+    /**
+     * @return number of bytes above which websocket frames are deflated before being sent to
+     *         clients which support compression
+     */
+    public static long getWsCompressionThreshold() {
+        var value = System.getProperty(WS_COMPRESSION_THRESHOLD, WS_COMPRESSION_THRESHOLD_DEFAULT);
+        return tryParsePositive(value, WS_COMPRESSION_THRESHOLD_DEFAULT);
+    }
+
+    /**
+     * @return delay, in ms, without any new change after which pending changes are processed
+     */
+    public static long getMicrochangesQuietPeriod() {
+        var value = System.getProperty(MICROCHANGES_QUIET_PERIOD,
+            MICROCHANGES_QUIET_PERIOD_DEFAULT);
+        return tryParsePositive(value, MICROCHANGES_QUIET_PERIOD_DEFAULT);
+    }
+
+    /**
+     * @return max delay, in ms, pending changes wait before being processed
+     */
+    public static long getMicrochangesMaxDelay() {
+        var value = System.getProperty(MICROCHANGES_MAX_DELAY, MICROCHANGES_MAX_DELAY_DEFAULT);
+        return tryParsePositive(value, MICROCHANGES_MAX_DELAY_DEFAULT);
+    }
+
+    /**
+     * @return number of pending changes which triggers a checkpoint
+     */
+    public static long getMicrochangesMaxCount() {
+        var value = System.getProperty(MICROCHANGES_MAX_COUNT, MICROCHANGES_MAX_COUNT_DEFAULT);
+        return tryParsePositive(value, MICROCHANGES_MAX_COUNT_DEFAULT);
+    }
+
+    /**
+     * @return delay, in seconds, after which a presence which has not been touched expires
+     */
+    public static long getPresenceTtl() {
+        var value = System.getProperty(PRESENCE_TTL, PRESENCE_TTL_DEFAULT);
+        return tryParsePositive(value, PRESENCE_TTL_DEFAULT);
+    }
+
+    /**
+     * @return interval, in ms, during which presence changes of a project are aggregated
+     */
+    public static long getPresenceInterval() {
+        var value = System.getProperty(PRESENCE_INTERVAL, PRESENCE_INTERVAL_DEFAULT);
+        return tryParsePositive(value, PRESENCE_INTERVAL_DEFAULT);
+    }
+
     /**
      * Parses a long from a positive string value. Falls back on default value
      *
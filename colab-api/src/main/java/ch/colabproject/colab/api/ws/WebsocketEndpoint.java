@@ -8,6 +8,8 @@ package ch.colabproject.colab.api.ws;
 
 import ch.colabproject.colab.api.Helper;
 import ch.colabproject.colab.api.controller.WebsocketManager;
+import ch.colabproject.colab.api.ws.message.WsChangeAck;
+import ch.colabproject.colab.api.ws.message.WsChangeMessage;
 import ch.colabproject.colab.api.ws.message.WsMessage;
 import ch.colabproject.colab.api.ws.message.WsPing;
 import ch.colabproject.colab.api.ws.message.WsPong;
@@ -15,10 +17,12 @@ import ch.colabproject.colab.api.ws.message.WsSessionIdentifier;
 import ch.colabproject.colab.api.ws.utils.JsonDecoder;
 import ch.colabproject.colab.api.ws.utils.JsonEncoder;
 import ch.colabproject.colab.api.ws.utils.JsonWsMessageListDecoder;
+import ch.colabproject.colab.generator.model.exceptions.HttpErrorMessage;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import javax.enterprise.context.ApplicationScoped;
@@ -63,6 +67,17 @@ public class WebsocketEndpoint {
      */
     private static final Logger logger = LoggerFactory.getLogger(WebsocketEndpoint.class);
 
+    /**
+     * Name of the user property set on sessions which accept deflated binary frames
+     */
+    private static final String COMPRESSION_PROPERTY = "colab.ws.compression";
+
+    /**
+     * Name of the user property which holds the id of the colab http session the websocket session
+     * belongs to
+     */
+    private static final String COLAB_SESSION_PROPERTY = "colab.ws.colabSessionId";
+
     /**
      * Map of active sessions
      */
@@ -110,6 +125,13 @@ public class WebsocketEndpoint {
         String sessionId = "ws-" + Helper.generateHexSalt(8) + idGenerator.newId();
         sessionToIds.put(session, sessionId);
         idsToSessions.put(sessionId, session);
+
+        // clients which are able to inflate frames connect with "?compression=deflate"
+        List<String> compression = session.getRequestParameterMap().get("compression");
+        if (compression != null && compression.contains("deflate")) {
+            session.getUserProperties().put(COMPRESSION_PROPERTY, Boolean.TRUE);
+        }
+
         session.getBasicRemote().sendObject(new WsSessionIdentifier(sessionId));
 
         long maxIdleTimeout = session.getMaxIdleTimeout();
@@ -127,10 +149,31 @@ public class WebsocketEndpoint {
         logger.trace("Message received: {} from {}", message, session.getId());
         if (message instanceof WsPing) {
             try {
-                session.getBasicRemote().sendObject(new WsPong());
-            } catch (IOException | EncodeException ex) {
+                // go through the outbox not to interfere with pending asynchronous deliveries
+                websocketManager.sendToSession(session, JsonEncoder.toJson(new WsPong()));
+            } catch (EncodeException ex) {
                 logger.warn("Fail to reply to ping", ex);
             }
+        } else if (message instanceof WsChangeMessage) {
+            WsChangeMessage changeMessage = (WsChangeMessage) message;
+            String error = null;
+            try {
+                websocketManager.processChangeMessage(session, changeMessage);
+            } catch (HttpErrorMessage ex) {
+                logger.warn("Changes from {} rejected: {}", session.getId(), ex.getMessageCode());
+                error = ex.getMessageCode().name();
+            } catch (RuntimeException ex) {
+                logger.warn("Fail to process changes from {}: {}", session.getId(),
+                    ex.getMessage());
+                error = HttpErrorMessage.MessageCode.INTERNAL_SERVER_ERROR.name();
+            }
+            try {
+                // let the client know whether it has to send changes through the REST API
+                websocketManager.sendToSession(session,
+                    JsonEncoder.toJson(new WsChangeAck(changeMessage.getId(), error)));
+            } catch (EncodeException ex) {
+                logger.warn("Fail to acknowledge changes", ex);
+            }
         }
     }
 
@@ -162,6 +205,67 @@ public class WebsocketEndpoint {
         websocketManager.unsubscribeFromAll(session, id);
     }
 
+    /**
+     * Does the client accept deflated binary frames?
+     *
+     * @param session the session
+     *
+     * @return true if big frames can be sent deflated
+     */
+    public static boolean supportsCompression(Session session) {
+        return Boolean.TRUE.equals(session.getUserProperties().get(COMPRESSION_PROPERTY));
+    }
+
+    /**
+     * Link a websocket session to the colab http session it has been authenticated with. A
+     * websocket session is never moved from one http session to another one: it can only be linked
+     * if it is not linked yet, or if it is already linked to the very same http session.
+     *
+     * @param session        the websocket session
+     * @param colabSessionId id of the http session
+     *
+     * @return true if the websocket session is linked to the given http session
+     */
+    public static boolean linkColabSession(Session session, Long colabSessionId) {
+        Map<String, Object> properties = session.getUserProperties();
+        synchronized (properties) {
+            Long current = getColabSessionId(session);
+            if (current == null) {
+                properties.put(COLAB_SESSION_PROPERTY, colabSessionId);
+                return true;
+            }
+            return current.equals(colabSessionId);
+        }
+    }
+
+    /**
+     * Unlink a websocket session from the given colab http session. Nothing happens if the
+     * websocket session is linked to another http session.
+     *
+     * @param session        the websocket session
+     * @param colabSessionId id of the http session
+     */
+    public static void unlinkColabSession(Session session, Long colabSessionId) {
+        Map<String, Object> properties = session.getUserProperties();
+        synchronized (properties) {
+            if (colabSessionId != null && colabSessionId.equals(getColabSessionId(session))) {
+                properties.remove(COLAB_SESSION_PROPERTY);
+            }
+        }
+    }
+
+    /**
+     * Get the id of the colab http session the websocket session belongs to
+     *
+     * @param session the websocket session
+     *
+     * @return id of the http session or null if the session never subscribed to any channel
+     */
+    public static Long getColabSessionId(Session session) {
+        Object id = session.getUserProperties().get(COLAB_SESSION_PROPERTY);
+        return id instanceof Long ? (Long) id : null;
+    }
+
     /**
      * Get session by its id
      *
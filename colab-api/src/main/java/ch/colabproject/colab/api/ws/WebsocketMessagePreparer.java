@@ -14,6 +14,7 @@ import ch.colabproject.colab.api.persistence.jpa.user.UserDao;
 import ch.colabproject.colab.api.ws.channel.model.WebsocketChannel;
 import ch.colabproject.colab.api.ws.channel.tool.ChannelsBuilders.ChannelsBuilder;
 import ch.colabproject.colab.api.ws.channel.tool.ChannelsBuilders.ForAdminChannelsBuilder;
+import ch.colabproject.colab.api.ws.channel.tool.ChannelsMemo;
 import ch.colabproject.colab.api.ws.message.IndexEntry;
 import ch.colabproject.colab.api.ws.message.PrecomputedWsMessages;
 import ch.colabproject.colab.api.ws.message.WsMessage;
@@ -139,13 +140,43 @@ public class WebsocketMessagePreparer {
         ProjectDao projectDao,
         Set<WithWebsocketChannels> updated,
         Set<IndexEntry> deleted
+    ) throws EncodeException {
+        return prepareWsMessage(new ChannelsMemo(), userDao, teamDao, cardTypeDao, projectDao,
+            updated, deleted);
+    }
+
+    /**
+     * Prepare all WsUpdateMessage. Channels are resolved once for all objects which share the same
+     * channels builder inputs.
+     *
+     * @param memo        channels already computed during this preparation
+     * @param userDao     provide userDao to resolve nested channels
+     * @param teamDao     provide teamDao to resolve nested channels
+     * @param cardTypeDao provide cardTypeDao to resolve nested channels
+     * @param projectDao  provide projectDao to resolve nested channels
+     * @param updated     set of created/updated entities
+     * @param deleted     set of just destroyed-entities index entry
+     *
+     * @return the precomputed messagesByChannels
+     *
+     * @throws EncodeException if creating JSON messagesByChannels failed
+     */
+    public static PrecomputedWsMessages prepareWsMessage(
+        ChannelsMemo memo,
+        UserDao userDao,
+        TeamMemberDao teamDao,
+        CardTypeDao cardTypeDao,
+        ProjectDao projectDao,
+        Set<WithWebsocketChannels> updated,
+        Set<IndexEntry> deleted
     ) throws EncodeException {
         Map<WebsocketChannel, List<WsMessage>> messagesByChannel = new HashMap<>();
         logger.debug("Prepare WsMessage. Update:{}; Deleted:{}", updated, deleted);
 
         updated.forEach(object -> {
             logger.trace("Process updated entity {}", object);
-            object.getChannelsBuilder().computeChannels(userDao, teamDao, cardTypeDao, projectDao)
+            object.getChannelsBuilder()
+                .computeChannels(memo, userDao, teamDao, cardTypeDao, projectDao)
                 .forEach(channel -> {
                     addAsUpdated(messagesByChannel, channel, object);
                 });
@@ -153,12 +184,14 @@ public class WebsocketMessagePreparer {
 
         deleted.forEach(object -> {
             logger.trace("Process deleted entry {}", object);
-            object.getChannelsBuilder().computeChannels(userDao, teamDao, cardTypeDao, projectDao)
+            object.getChannelsBuilder()
+                .computeChannels(memo, userDao, teamDao, cardTypeDao, projectDao)
                 .forEach(
                     channel -> {
                         addAsDeleted(messagesByChannel, channel, object);
                     });
         });
+        logger.debug("Channels resolved: {}", memo);
 
         return PrecomputedWsMessages.build(messagesByChannel);
     }
@@ -180,6 +213,30 @@ public class WebsocketMessagePreparer {
         return prepareWsMessage(userDao, null, null, null, new ForAdminChannelsBuilder(), message);
     }
 
+    /**
+     * Prepare some messages on admin channel
+     *
+     * @param userDao  provide userDao to resolve nested channels
+     * @param messages the messages
+     *
+     * @return the precomputedMessage
+     *
+     * @throws EncodeException if json-encoding failed
+     */
+    public static PrecomputedWsMessages prepareWsMessageForAdmins(
+        UserDao userDao,
+        List<WsMessage> messages
+    ) throws EncodeException {
+        Map<WebsocketChannel, List<WsMessage>> messagesByChannel = new HashMap<>();
+
+        new ForAdminChannelsBuilder().computeChannels(userDao, null, null, null)
+            .forEach(channel -> {
+                messagesByChannel.put(channel, messages);
+            });
+
+        return PrecomputedWsMessages.build(messagesByChannel);
+    }
+
     /**
      * Prepare one message for many channels
      *
@@ -8,6 +8,10 @@ package ch.colabproject.colab.api.ws.channel.model;
 
 import ch.colabproject.colab.api.Helper;
 import ch.colabproject.colab.generator.model.annotations.ExtractJavaDoc;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.DataSerializable;
+import java.io.IOException;
 import java.util.Objects;
 
 /**
@@ -23,7 +27,7 @@ import java.util.Objects;
  * @author maxence
  */
 @ExtractJavaDoc
-public class BlockChannel implements WebsocketChannel {
+public class BlockChannel implements WebsocketChannel, DataSerializable {
 
     private static final long serialVersionUID = 1L;
 
@@ -55,6 +59,16 @@ public class BlockChannel implements WebsocketChannel {
         return Helper.getColabBaseUrn(this) + "/" + this.blockId;
     }
 
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeObject(blockId);
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        blockId = in.readObject();
+    }
+
     @Override
     public int hashCode() {
         int hash = 11;
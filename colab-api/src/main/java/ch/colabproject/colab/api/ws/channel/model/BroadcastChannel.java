@@ -8,6 +8,10 @@ package ch.colabproject.colab.api.ws.channel.model;
 
 import ch.colabproject.colab.api.Helper;
 import ch.colabproject.colab.generator.model.annotations.ExtractJavaDoc;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.DataSerializable;
+import java.io.IOException;
 
 /**
  * The channel to be used to transmit data to all online users.<br>
@@ -22,7 +26,7 @@ import ch.colabproject.colab.generator.model.annotations.ExtractJavaDoc;
  * @author maxence
  */
 @ExtractJavaDoc
-public class BroadcastChannel implements WebsocketChannel {
+public class BroadcastChannel implements WebsocketChannel, DataSerializable {
 
     private static final long serialVersionUID = 1L;
 
@@ -31,6 +35,16 @@ public class BroadcastChannel implements WebsocketChannel {
         return Helper.getColabBaseUrn(this);
     }
 
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        /* no-op: nothing to write */
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        /* no-op: nothing to read */
+    }
+
     @Override
     public int hashCode() {
         int hash = 23;
@@ -9,6 +9,10 @@ package ch.colabproject.colab.api.ws.channel.model;
 import ch.colabproject.colab.api.Helper;
 import ch.colabproject.colab.api.model.project.Project;
 import ch.colabproject.colab.generator.model.annotations.ExtractJavaDoc;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.DataSerializable;
+import java.io.IOException;
 import java.util.Objects;
 
 /**
@@ -27,7 +31,7 @@ import java.util.Objects;
  * @author maxence
  */
 @ExtractJavaDoc
-public class ProjectContentChannel implements WebsocketChannel {
+public class ProjectContentChannel implements WebsocketChannel, DataSerializable {
 
     private static final long serialVersionUID = 1L;
 
@@ -59,6 +63,16 @@ public class ProjectContentChannel implements WebsocketChannel {
         return Helper.getColabBaseUrn(this) + "/" + projectId;
     }
 
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeObject(projectId);
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        projectId = in.readObject();
+    }
+
     @Override
     public int hashCode() {
         int hash = 7;
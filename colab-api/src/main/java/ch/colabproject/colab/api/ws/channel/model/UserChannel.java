@@ -9,6 +9,10 @@ package ch.colabproject.colab.api.ws.channel.model;
 import ch.colabproject.colab.api.Helper;
 import ch.colabproject.colab.api.model.user.User;
 import ch.colabproject.colab.generator.model.annotations.ExtractJavaDoc;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.DataSerializable;
+import java.io.IOException;
 import java.util.Objects;
 
 /**
@@ -28,7 +32,7 @@ import java.util.Objects;
  * @author maxence
  */
 @ExtractJavaDoc
-public class UserChannel implements WebsocketChannel {
+public class UserChannel implements WebsocketChannel, DataSerializable {
 
     private static final long serialVersionUID = 1L;
 
@@ -60,6 +64,16 @@ public class UserChannel implements WebsocketChannel {
         return Helper.getColabBaseUrn(this) + "/" + userId;
     }
 
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeObject(userId);
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        userId = in.readObject();
+    }
+
     @Override
     public int hashCode() {
         int hash = 5;
@@ -103,8 +117,19 @@ public class UserChannel implements WebsocketChannel {
      * @return the user very own channel
      */
     public static UserChannel build(User user) {
+        return build(user.getId());
+    }
+
+    /**
+     * get the channel dedicated to the given user.
+     *
+     * @param userId id of the user
+     *
+     * @return the user very own channel
+     */
+    public static UserChannel build(Long userId) {
         UserChannel channel = new UserChannel();
-        channel.setUserId(user.getId());
+        channel.setUserId(userId);
         return channel;
     }
 }
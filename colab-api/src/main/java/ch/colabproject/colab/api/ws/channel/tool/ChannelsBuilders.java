@@ -54,12 +54,40 @@ public final class ChannelsBuilders {
          */
         public Set<WebsocketChannel> computeChannels(UserDao userDao, TeamMemberDao teamDao,
             CardTypeDao cardTypeDao, ProjectDao projectDao) {
-            return build(userDao, teamDao, cardTypeDao, projectDao);
+            return computeChannels(new ChannelsMemo(), userDao, teamDao, cardTypeDao, projectDao);
+        }
+
+        /**
+         * Determine the channels to use. Reuse channels already computed with the same inputs.
+         *
+         * @param memo        channels already computed during the current preparation
+         * @param userDao     the dao to fetch users
+         * @param teamDao     the dao to fetch team members
+         * @param cardTypeDao the dao to fetch card types
+         * @param projectDao  the dao to fetch projects
+         *
+         * @return all channels to use for propagation. Never modify the set
+         */
+        public Set<WebsocketChannel> computeChannels(ChannelsMemo memo, UserDao userDao,
+            TeamMemberDao teamDao, CardTypeDao cardTypeDao, ProjectDao projectDao) {
+            return memo.get(getMemoKey(),
+                () -> build(memo, userDao, teamDao, cardTypeDao, projectDao));
+        }
+
+        /**
+         * Get the key which identifies the inputs of the computation. Two builders with the same
+         * key compute the same channels.
+         *
+         * @return the key, null if channels must not be memoized
+         */
+        protected Object getMemoKey() {
+            return null;
         }
 
         /**
          * Determine the channels to use (internal implementation)
          *
+         * @param memo        channels already computed during the current preparation
          * @param userDao     the dao to fetch users
          * @param teamDao     the dao to fetch the team members
          * @param cardTypeDao the dao to fetch card types
@@ -67,8 +95,8 @@ public final class ChannelsBuilders {
          *
          * @return all channels to use for propagation
          */
-        abstract protected Set<WebsocketChannel> build(UserDao userDao, TeamMemberDao teamDao,
-            CardTypeDao cardTypeDao, ProjectDao projectDao);
+        abstract protected Set<WebsocketChannel> build(ChannelsMemo memo, UserDao userDao,
+            TeamMemberDao teamDao, CardTypeDao cardTypeDao, ProjectDao projectDao);
     }
 
     /**
@@ -76,8 +104,13 @@ public final class ChannelsBuilders {
      */
     public static class EmptyChannelBuilder extends ChannelsBuilder {
         @Override
-        protected Set<WebsocketChannel> build(UserDao userDao, TeamMemberDao teamDao,
-            CardTypeDao cardTypeDao, ProjectDao projectDao) {
+        protected Object getMemoKey() {
+            return ChannelsMemo.key(EmptyChannelBuilder.class);
+        }
+
+        @Override
+        protected Set<WebsocketChannel> build(ChannelsMemo memo, UserDao userDao,
+            TeamMemberDao teamDao, CardTypeDao cardTypeDao, ProjectDao projectDao) {
             return Set.of();
         }
     }
@@ -99,8 +132,13 @@ public final class ChannelsBuilders {
         }
 
         @Override
-        protected Set<WebsocketChannel> build(UserDao userDao, TeamMemberDao teamDao,
-            CardTypeDao cardTypeDao, ProjectDao projectDao) {
+        protected Object getMemoKey() {
+            return ChannelsMemo.key(BlockChannelBuilder.class, blockId);
+        }
+
+        @Override
+        protected Set<WebsocketChannel> build(ChannelsMemo memo, UserDao userDao,
+            TeamMemberDao teamDao, CardTypeDao cardTypeDao, ProjectDao projectDao) {
             return Set.of(BlockChannel.build(blockId));
         }
     }
@@ -131,8 +169,13 @@ public final class ChannelsBuilders {
         }
 
         @Override
-        protected Set<WebsocketChannel> build(UserDao userDao, TeamMemberDao teamDao,
-            CardTypeDao cardTypeDao, ProjectDao projectDao) {
+        protected Object getMemoKey() {
+            return ChannelsMemo.key(ProjectContentChannelBuilder.class, projectId);
+        }
+
+        @Override
+        protected Set<WebsocketChannel> build(ChannelsMemo memo, UserDao userDao,
+            TeamMemberDao teamDao, CardTypeDao cardTypeDao, ProjectDao projectDao) {
             return Set.of(ProjectContentChannel.build(projectId));
         }
     }
@@ -154,8 +197,15 @@ public final class ChannelsBuilders {
         }
 
         @Override
-        protected Set<WebsocketChannel> build(UserDao userDao, TeamMemberDao teamDao,
-            CardTypeDao cardTypeDao, ProjectDao projectDao) {
+        protected Object getMemoKey() {
+            return project != null
+                ? ChannelsMemo.key(AboutProjectOverviewChannelsBuilder.class, project.getId())
+                : null;
+        }
+
+        @Override
+        protected Set<WebsocketChannel> build(ChannelsMemo memo, UserDao userDao,
+            TeamMemberDao teamDao, CardTypeDao cardTypeDao, ProjectDao projectDao) {
             Set<WebsocketChannel> channels = new HashSet<>();
 
             if (project != null) {
@@ -165,7 +215,7 @@ public final class ChannelsBuilders {
                 if (project.isOrWasGlobal()) {
                     channels.add(BroadcastChannel.build());
                 } else {
-                    channels.addAll(buildAdminChannels(userDao));
+                    channels.addAll(buildAdminChannels(memo, userDao));
                 }
             }
 
@@ -178,10 +228,12 @@ public final class ChannelsBuilders {
      */
     public static class ForAdminChannelsBuilder extends ChannelsBuilder {
 
+        // no memo key: admin channels are memoized by buildAdminChannels
+
         @Override
-        protected Set<WebsocketChannel> build(UserDao userDao, TeamMemberDao teamDao,
-            CardTypeDao cardTypeDao, ProjectDao projectDao) {
-            return buildAdminChannels(userDao);
+        protected Set<WebsocketChannel> build(ChannelsMemo memo, UserDao userDao,
+            TeamMemberDao teamDao, CardTypeDao cardTypeDao, ProjectDao projectDao) {
+            return buildAdminChannels(memo, userDao);
         }
     }
 
@@ -202,8 +254,15 @@ public final class ChannelsBuilders {
         }
 
         @Override
-        protected Set<WebsocketChannel> build(UserDao userDao, TeamMemberDao teamDao,
-            CardTypeDao cardTypeDao, ProjectDao projectDao) {
+        protected Object getMemoKey() {
+            return user != null
+                ? ChannelsMemo.key(AboutUserChannelsBuilder.class, user.getId())
+                : null;
+        }
+
+        @Override
+        protected Set<WebsocketChannel> build(ChannelsMemo memo, UserDao userDao,
+            TeamMemberDao teamDao, CardTypeDao cardTypeDao, ProjectDao projectDao) {
             Set<WebsocketChannel> channels = new HashSet<>();
 
             if (user != null) {
@@ -212,7 +271,7 @@ public final class ChannelsBuilders {
                 channels.addAll(buildTeammatesChannels(user, teamDao));
                 channels.addAll(buildInstanceMakersChannels(user, projectDao));
 
-                channels.addAll(buildAdminChannels(userDao));
+                channels.addAll(buildAdminChannels(memo, userDao));
             }
 
             return channels;
@@ -236,15 +295,20 @@ public final class ChannelsBuilders {
         }
 
         @Override
-        protected Set<WebsocketChannel> build(UserDao userDao, TeamMemberDao teamDao,
-            CardTypeDao cardTypeDao, ProjectDao projectDao) {
+        protected Object getMemoKey() {
+            return ChannelsMemo.key(AboutAccountChannelsBuilder.class, account.getId());
+        }
+
+        @Override
+        protected Set<WebsocketChannel> build(ChannelsMemo memo, UserDao userDao,
+            TeamMemberDao teamDao, CardTypeDao cardTypeDao, ProjectDao projectDao) {
             Set<WebsocketChannel> channels = new HashSet<>();
 
             if (account.getUser() != null) {
                 channels.add(UserChannel.build(account.getUser()));
             }
 
-            channels.addAll(buildAdminChannels(userDao));
+            channels.addAll(buildAdminChannels(memo, userDao));
 
             return channels;
         }
@@ -266,10 +330,12 @@ public final class ChannelsBuilders {
             this.cardType = cardType;
         }
 
+        // no memo key: channels are memoized by buildCardTypeInProjectChannel
+
         @Override
-        protected Set<WebsocketChannel> build(UserDao userDao, TeamMemberDao teamDao,
-            CardTypeDao cardTypeDao, ProjectDao projectDao) {
-            return buildCardTypeInProjectChannel(cardType, userDao, cardTypeDao);
+        protected Set<WebsocketChannel> build(ChannelsMemo memo, UserDao userDao,
+            TeamMemberDao teamDao, CardTypeDao cardTypeDao, ProjectDao projectDao) {
+            return buildCardTypeInProjectChannel(memo, cardType, userDao, cardTypeDao);
         }
     }
 
@@ -279,14 +345,16 @@ public final class ChannelsBuilders {
     /**
      * Build a channel for each admin
      *
+     * @param memo    channels already computed
      * @param userDao To fetch the admin
      *
      * @return a set of channels : one user channel for each admin
      */
-    private static Set<WebsocketChannel> buildAdminChannels(UserDao userDao) {
-        return userDao.findAllAdmin().stream()
-            .map(user -> UserChannel.build(user))
-            .collect(Collectors.toSet());
+    private static Set<WebsocketChannel> buildAdminChannels(ChannelsMemo memo, UserDao userDao) {
+        return memo.get(ChannelsMemo.key(ForAdminChannelsBuilder.class),
+            () -> userDao.findAllAdminIds().stream()
+                .map(UserChannel::build)
+                .collect(Collectors.toSet()));
     }
 
     /**
@@ -360,13 +428,31 @@ public final class ChannelsBuilders {
     /**
      * Build all channels needed when a card type is changed
      *
+     * @param memo        channels already computed
+     * @param cardType    the card type
+     * @param userDao     to fetch the admin
+     * @param cardTypeDao to fetch the references of a card type
+     *
+     * @return a set of user channels
+     */
+    private static Set<WebsocketChannel> buildCardTypeInProjectChannel(ChannelsMemo memo,
+        AbstractCardType cardType, UserDao userDao,
+        CardTypeDao cardTypeDao) {
+        return memo.get(ChannelsMemo.key(AboutCardTypeChannelsBuilder.class, cardType.getId()),
+            () -> doBuildCardTypeInProjectChannel(memo, cardType, userDao, cardTypeDao));
+    }
+
+    /**
+     * Build all channels needed when a card type is changed (internal implementation)
+     *
+     * @param memo        channels already computed
      * @param cardType    the card type
      * @param userDao     to fetch the admin
      * @param cardTypeDao to fetch the references of a card type
      *
      * @return a set of user channels
      */
-    private static Set<WebsocketChannel> buildCardTypeInProjectChannel(
+    private static Set<WebsocketChannel> doBuildCardTypeInProjectChannel(ChannelsMemo memo,
         AbstractCardType cardType, UserDao userDao,
         CardTypeDao cardTypeDao) {
         Set<WebsocketChannel> channels = new HashSet<>();
@@ -384,7 +470,7 @@ public final class ChannelsBuilders {
 
             // then, the type must be propagated to all projects which reference it
             cardTypeDao.findDirectReferences(cardType).forEach(ref -> {
-                channels.addAll(buildCardTypeInProjectChannel(ref, userDao, cardTypeDao));
+                channels.addAll(buildCardTypeInProjectChannel(memo, ref, userDao, cardTypeDao));
             });
         } else {
             // This is a global type
@@ -393,7 +479,7 @@ public final class ChannelsBuilders {
                 channels.add(BroadcastChannel.build());
             } else {
                 // Not published type are only available to admin
-                channels.addAll(buildAdminChannels(userDao));
+                channels.addAll(buildAdminChannels(memo, userDao));
             }
         }
 
@@ -0,0 +1,107 @@
+/*
+ * The coLAB project
+ * Copyright (C) 2023 AlbaSim, MEI, HEIG-VD, HES-SO
+ *
+ * Licensed under the MIT License
+ */
+package ch.colabproject.colab.api.ws.channel.tool;
+
+import ch.colabproject.colab.api.ws.channel.model.WebsocketChannel;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Channels already computed during one message preparation.
+ * <p>
+ * Many objects touched by the same transaction are propagated through the very same channels (eg
+ * all cards of a project). Such channels are resolved once and reused. A memo shall never outlive
+ * the preparation it has been created for: team members, admins, references may change.
+ * <p>
+ * Not thread-safe.
+ *
+ * @author maxence
+ */
+public class ChannelsMemo {
+
+    /**
+     * Already computed channels
+     */
+    private final Map<Object, Set<WebsocketChannel>> channels = new HashMap<>();
+
+    /**
+     * Number of channel sets found in the memo
+     */
+    private long hits = 0;
+
+    /**
+     * Number of channel sets actually computed
+     */
+    private long misses = 0;
+
+    /**
+     * Build a memo key. Key parts must identify the inputs of the computation.
+     *
+     * @param parts parts of the key
+     *
+     * @return the key or null if one part is null, ie the computation must not be memoized
+     */
+    public static Object key(Object... parts) {
+        for (Object part : parts) {
+            if (part == null) {
+                return null;
+            }
+        }
+        return Arrays.asList(parts);
+    }
+
+    /**
+     * Get channels identified by the given key. Compute them if they are not known yet.
+     * <p>
+     * The computation may itself use the memo.
+     *
+     * @param key     key which identifies the computation inputs, null means "do not memoize"
+     * @param builder to compute the channels
+     *
+     * @return the channels. Callers shall never modify the set
+     */
+    public Set<WebsocketChannel> get(Object key, Supplier<Set<WebsocketChannel>> builder) {
+        if (key == null) {
+            // not memoizable: such computation is neither a hit nor a miss
+            return builder.get();
+        }
+
+        Set<WebsocketChannel> result = channels.get(key);
+        if (result != null) {
+            hits++;
+        } else {
+            misses++;
+            // do not use computeIfAbsent: builder may use the memo recursively
+            result = builder.get();
+            channels.put(key, result);
+        }
+        return result;
+    }
+
+    /**
+     * @return number of channel sets found in the memo
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return number of channel sets actually computed
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    @Override
+    public String toString() {
+        return "ChannelsMemo{" + "size=" + channels.size() + ", hits=" + hits
+            + ", misses=" + misses + '}';
+    }
+}
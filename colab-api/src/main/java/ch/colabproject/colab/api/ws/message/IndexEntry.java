@@ -10,6 +10,7 @@ import ch.colabproject.colab.api.model.WithWebsocketChannels;
 import ch.colabproject.colab.api.ws.channel.tool.ChannelsBuilders.ChannelsBuilder;
 import ch.colabproject.colab.generator.model.annotations.ExtractJavaDoc;
 import ch.colabproject.colab.generator.model.interfaces.WithJsonDiscriminator;
+import java.util.Objects;
 import javax.json.bind.annotation.JsonbTransient;
 import javax.validation.constraints.NotNull;
 
@@ -111,6 +112,69 @@ public class IndexEntry implements WithJsonDiscriminator {
         this.channelsBuilder = channelsBuilder;
     }
 
+    /**
+     * Index entries are equal if they refer to the same object, ie they have the same type, the same
+     * id and the same payload.
+     *
+     * @return hash code
+     */
+    @Override
+    public int hashCode() {
+        int hash = 3;
+        hash = 41 * hash + Objects.hashCode(this.type);
+        hash = 41 * hash + Objects.hashCode(this.id);
+        hash = 41 * hash + Objects.hashCode(this.payload);
+        return hash;
+    }
+
+    /**
+     * Index entries are equal if they refer to the same object, ie they have the same type, the same
+     * id and the same payload.
+     *
+     * @param obj other object
+     *
+     * @return true if both entries refer to the same object
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        final IndexEntry other = (IndexEntry) obj;
+        return Objects.equals(this.type, other.type)
+            && Objects.equals(this.id, other.id)
+            && Objects.equals(this.payload, other.payload);
+    }
+
+    @Override
+    public String toString() {
+        return "IndexEntry{" + "type=" + type + ", id=" + id + '}';
+    }
+
+    /**
+     * Create an index entry which only identifies the given object. Such an entry has no channels
+     * builder and is not meant to be sent to clients.
+     *
+     * @param object object to identify
+     *
+     * @return index entry which identifies the object
+     */
+    public static IndexEntry buildKey(WithWebsocketChannels object) {
+        IndexEntry entry = new IndexEntry();
+
+        entry.type = object.getJsonDiscriminator();
+        entry.id = object.getId();
+        entry.payload = object.getIndexEntryPayload();
+
+        return entry;
+    }
+
     /**
      * Create an new index entry based on the given wihId object
      *
@@ -7,7 +7,12 @@
 package ch.colabproject.colab.api.ws.message;
 
 import ch.colabproject.colab.api.ws.channel.model.WebsocketChannel;
+import ch.colabproject.colab.api.ws.utils.CompressionHelper;
 import ch.colabproject.colab.api.ws.utils.JsonEncoder;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.DataSerializable;
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -18,10 +23,13 @@ import javax.websocket.EncodeException;
 /**
  * List of all WsMessages that should be sent through websockets. Messages are mapped with the
  * channel they should be sent through.
+ * <p>
+ * Such messages travel between the instances of the cluster. They use Hazelcast data
+ * serialization and big messages are deflated.
  *
  * @author maxence
  */
-public class PrecomputedWsMessages implements Serializable {
+public class PrecomputedWsMessages implements Serializable, DataSerializable {
 
     private static final long serialVersionUID = 1L;
 
@@ -30,6 +38,12 @@ public class PrecomputedWsMessages implements Serializable {
      */
     private Map<WebsocketChannel, List<String>> messages;
 
+    /**
+     * Channels which only receive one update message. Such messages may be merged with subsequent
+     * ones before being sent. Only available on the instance which built the messages.
+     */
+    private transient Map<WebsocketChannel, PrecomputedWsUpdateMessage> updates;
+
     /**
      * Get messages that should be sent.
      *
@@ -48,6 +62,24 @@ public class PrecomputedWsMessages implements Serializable {
         this.messages = messages;
     }
 
+    /**
+     * Get channels which only receive one update message, and their message.
+     *
+     * @return update messages mapped by channel, may be null
+     */
+    public Map<WebsocketChannel, PrecomputedWsUpdateMessage> getUpdates() {
+        return updates;
+    }
+
+    /**
+     * Set channels which only receive one update message
+     *
+     * @param updates update messages mapped by channel
+     */
+    public void setUpdates(Map<WebsocketChannel, PrecomputedWsUpdateMessage> updates) {
+        this.updates = updates;
+    }
+
     /**
      * Pre-compute all messages to send
      *
@@ -62,6 +94,7 @@ public class PrecomputedWsMessages implements Serializable {
     ) throws EncodeException {
         PrecomputedWsMessages m = new PrecomputedWsMessages();
         m.setMessages(new HashMap<>());
+        m.setUpdates(new HashMap<>());
         Map<WebsocketChannel, List<String>> encoded = m.getMessages();
         if (messages != null) {
             // TODO: is there a way to throw exception from lambda ?
@@ -69,7 +102,14 @@ public class PrecomputedWsMessages implements Serializable {
                 var wsMessages = messageEntry.getValue();
                 var encodedMessages = new ArrayList<String>(wsMessages.size());
                 for (var wsMessage : wsMessages) {
-                    encodedMessages.add(JsonEncoder.toJson(wsMessage));
+                    if (wsMessage instanceof WsUpdateMessage && wsMessages.size() == 1) {
+                        PrecomputedWsUpdateMessage update = PrecomputedWsUpdateMessage
+                            .build((WsUpdateMessage) wsMessage);
+                        m.getUpdates().put(messageEntry.getKey(), update);
+                        encodedMessages.add(update.toJson());
+                    } else {
+                        encodedMessages.add(JsonEncoder.toJson(wsMessage));
+                    }
                 }
                 encoded.put(messageEntry.getKey(), encodedMessages);
             }
@@ -77,6 +117,42 @@ public class PrecomputedWsMessages implements Serializable {
         return m;
     }
 
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        if (messages == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(messages.size());
+            for (Map.Entry<WebsocketChannel, List<String>> entry : messages.entrySet()) {
+                out.writeObject(entry.getKey());
+                List<String> list = entry.getValue();
+                out.writeInt(list.size());
+                for (String json : list) {
+                    CompressionHelper.writeString(out, json);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        int size = in.readInt();
+        if (size < 0) {
+            messages = null;
+        } else {
+            messages = new HashMap<>(size * 4 / 3 + 1);
+            for (int i = 0; i < size; i++) {
+                WebsocketChannel channel = in.readObject();
+                int listSize = in.readInt();
+                List<String> list = new ArrayList<>(listSize);
+                for (int j = 0; j < listSize; j++) {
+                    list.add(CompressionHelper.readString(in));
+                }
+                messages.put(channel, list);
+            }
+        }
+    }
+
     @Override
     public String toString() {
         return "PrecomputedWsMessages{" + "messages=" + messages + '}';
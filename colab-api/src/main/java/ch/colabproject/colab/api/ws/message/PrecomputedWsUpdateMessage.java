@@ -0,0 +1,135 @@
+/*
+ * The coLAB project
+ * Copyright (C) 2023 AlbaSim, MEI, HEIG-VD, HES-SO
+ *
+ * Licensed under the MIT License
+ */
+package ch.colabproject.colab.api.ws.message;
+
+import ch.colabproject.colab.api.model.WithWebsocketChannels;
+import ch.colabproject.colab.api.ws.utils.JsonEncoder;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import javax.websocket.EncodeException;
+
+/**
+ * {@link WsUpdateMessage} which can be merged with subsequent ones. Each updated entity and each
+ * deleted entry is identified by its {@link IndexEntry}: latest state of an object wins.
+ * <p>
+ * The message is encoded with the shared JSON-B mapper, as any other message. The JSON is kept
+ * until the message changes.
+ *
+ * @author maxence
+ */
+public class PrecomputedWsUpdateMessage {
+
+    /**
+     * Updated objects
+     */
+    private final Map<IndexEntry, WithWebsocketChannels> updated = new LinkedHashMap<>();
+
+    /**
+     * Deleted entries
+     */
+    private final Map<IndexEntry, IndexEntry> deleted = new LinkedHashMap<>();
+
+    /**
+     * JSON-encoded message. Null if not encoded yet or if the message changed since.
+     */
+    private String json;
+
+    /**
+     * Build a mergeable message from an update message
+     *
+     * @param message the update message
+     *
+     * @return the mergeable message
+     */
+    public static PrecomputedWsUpdateMessage build(WsUpdateMessage message) {
+        PrecomputedWsUpdateMessage update = new PrecomputedWsUpdateMessage();
+        message.getDeleted().forEach(update::putDeleted);
+        message.getUpdated().forEach(update::putUpdated);
+        return update;
+    }
+
+    /**
+     * Register an updated object
+     *
+     * @param object the updated object
+     */
+    public void putUpdated(WithWebsocketChannels object) {
+        IndexEntry key = IndexEntry.buildKey(object);
+        deleted.remove(key);
+        updated.put(key, object);
+        json = null;
+    }
+
+    /**
+     * Register a deleted object
+     *
+     * @param entry entry which identifies the deleted object
+     */
+    public void putDeleted(IndexEntry entry) {
+        updated.remove(entry);
+        deleted.put(entry, entry);
+        json = null;
+    }
+
+    /**
+     * Merge the given message into this one. Objects from the given message override objects from
+     * this one.
+     *
+     * @param other most recent message
+     *
+     * @return number of objects which were already known
+     */
+    public int merge(PrecomputedWsUpdateMessage other) {
+        int before = updated.size() + deleted.size();
+        other.deleted.values().forEach(this::putDeleted);
+        other.updated.values().forEach(this::putUpdated);
+        return before + other.updated.size() + other.deleted.size()
+            - updated.size() - deleted.size();
+    }
+
+    /**
+     * Is this message empty?
+     *
+     * @return true if there is nothing to send
+     */
+    public boolean isEmpty() {
+        return updated.isEmpty() && deleted.isEmpty();
+    }
+
+    /**
+     * Build the {@link WsUpdateMessage}
+     *
+     * @return the message
+     */
+    public WsUpdateMessage toMessage() {
+        WsUpdateMessage message = new WsUpdateMessage();
+        message.setUpdated(new LinkedHashSet<>(updated.values()));
+        message.setDeleted(new LinkedHashSet<>(deleted.values()));
+        return message;
+    }
+
+    /**
+     * Get the JSON-encoded {@link WsUpdateMessage}
+     *
+     * @return JSON
+     *
+     * @throws EncodeException if something is not serializable
+     */
+    public String toJson() throws EncodeException {
+        if (json == null) {
+            json = JsonEncoder.toJson(toMessage());
+        }
+        return json;
+    }
+
+    @Override
+    public String toString() {
+        return "PrecomputedWsUpdateMessage{" + "updated=" + updated.keySet()
+            + ", deleted=" + deleted.keySet() + '}';
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * The coLAB project
+ * Copyright (C) 2023 AlbaSim, MEI, HEIG-VD, HES-SO
+ *
+ * Licensed under the MIT License
+ */
+package ch.colabproject.colab.api.ws.message;
+
+import ch.colabproject.colab.generator.model.annotations.ExtractJavaDoc;
+
+/**
+ * Answer to a {@link WsChangeMessage}. If changes have been rejected, the client shall send them
+ * again through the REST API.
+ *
+ * @author maxence
+ */
+@ExtractJavaDoc
+public class WsChangeAck extends WsMessage {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Id of the acknowledged change message
+     */
+    private String id;
+
+    /**
+     * Null if changes have been accepted, the code of the rejection reason otherwise (see
+     * HttpErrorMessage.MessageCode)
+     */
+    private String error;
+
+    /**
+     * Default constructor
+     */
+    public WsChangeAck() {
+        /* no-op */
+    }
+
+    /**
+     * Create an answer
+     *
+     * @param id    id of the change message
+     * @param error null if changes have been accepted, the reason of the rejection otherwise
+     */
+    public WsChangeAck(String id, String error) {
+        this.id = id;
+        this.error = error;
+    }
+
+    /**
+     * @return id of the acknowledged change message
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @param id id of the acknowledged change message
+     */
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    /**
+     * @return null if changes have been accepted, the reason of the rejection otherwise
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * @param error null if changes have been accepted, the reason of the rejection otherwise
+     */
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    @Override
+    public String toString() {
+        return "WsChangeAck{" + "id=" + id + ", error=" + error + '}';
+    }
+}
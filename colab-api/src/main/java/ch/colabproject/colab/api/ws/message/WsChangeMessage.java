@@ -0,0 +1,78 @@
+/*
+ * The coLAB project
+ * Copyright (C) 2023 AlbaSim, MEI, HEIG-VD, HES-SO
+ *
+ * Licensed under the MIT License
+ */
+package ch.colabproject.colab.api.ws.message;
+
+import ch.colabproject.colab.api.microchanges.model.Change;
+import ch.colabproject.colab.generator.model.annotations.ExtractJavaDoc;
+import java.util.ArrayList;
+import java.util.List;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Message sent by clients to patch blocks with micro changes. Changes are grouped by block (see
+ * {@link Change#getAtId()}).
+ * <p>
+ * The server answers each message with a {@link WsChangeAck} which holds the same id.
+ *
+ * @author maxence
+ */
+@ExtractJavaDoc
+public class WsChangeMessage extends WsMessage {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Id of the message, chosen by the client
+     */
+    private String id;
+
+    /**
+     * Changes to apply, in order
+     */
+    @NotNull
+    private List<Change> changes = new ArrayList<>();
+
+    /**
+     * Default constructor
+     */
+    public WsChangeMessage() {
+        /* no-op */
+    }
+
+    /**
+     * @return the id of the message
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @param id the id of the message
+     */
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    /**
+     * @return the changes
+     */
+    public List<Change> getChanges() {
+        return changes;
+    }
+
+    /**
+     * @param changes the changes
+     */
+    public void setChanges(List<Change> changes) {
+        this.changes = changes;
+    }
+
+    @Override
+    public String toString() {
+        return "WsChangeMessage{" + "id=" + id + ", changes=" + changes + '}';
+    }
+}
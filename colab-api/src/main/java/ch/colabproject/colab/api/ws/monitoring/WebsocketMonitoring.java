@@ -0,0 +1,417 @@
+/*
+ * The coLAB project
+ * Copyright (C) 2023 AlbaSim, MEI, HEIG-VD, HES-SO
+ *
+ * Licensed under the MIT License
+ */
+package ch.colabproject.colab.api.ws.monitoring;
+
+import ch.colabproject.colab.generator.model.annotations.ExtractJavaDoc;
+import ch.colabproject.colab.generator.model.interfaces.WithJsonDiscriminator;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Admin tool to monitor websocket deliveries
+ *
+ * @author maxence
+ */
+@ExtractJavaDoc
+public class WebsocketMonitoring implements WithJsonDiscriminator {
+
+    private static final long serialVersionUID = 1L;
+
+    /** Number of distinct frames built */
+    @NotNull
+    private Long framesEncoded = 0L;
+
+    /** Size, in bytes, of all distinct frames built */
+    @NotNull
+    private Long bytesEncoded = 0L;
+
+    /** Number of frames sent to clients */
+    @NotNull
+    private Long framesSent = 0L;
+
+    /** Size, in bytes, of all frames sent to clients */
+    @NotNull
+    private Long bytesSent = 0L;
+
+    /** Number of frames dropped because a session outbox was full */
+    @NotNull
+    private Long droppedFrames = 0L;
+
+    /** Number of frames merged with others because a session outbox was full */
+    @NotNull
+    private Long coalescedFrames = 0L;
+
+    /** Number of object updates merged with more recent ones within the coalescing window */
+    @NotNull
+    private Long coalescedUpdates = 0L;
+
+    /** Number of channel sets found in memo while preparing messages */
+    @NotNull
+    private Long channelsMemoHits = 0L;
+
+    /** Number of channel sets computed while preparing messages */
+    @NotNull
+    private Long channelsMemoMisses = 0L;
+
+    /** Number of frames sent deflated */
+    @NotNull
+    private Long compressedFrames = 0L;
+
+    /**
+     * Size of deflated frames, before compression. Compression ratio is bytesAfterCompression /
+     * bytesBeforeCompression
+     */
+    @NotNull
+    private Long bytesBeforeCompression = 0L;
+
+    /** Size of deflated frames, after compression */
+    @NotNull
+    private Long bytesAfterCompression = 0L;
+
+    /** Number of sessions closed because their outbox was full */
+    @NotNull
+    private Long disconnectedSessions = 0L;
+
+    /** Number of failed deliveries */
+    @NotNull
+    private Long failedFrames = 0L;
+
+    /** Number of frames currently waiting to be sent */
+    @NotNull
+    private Long queuedFrames = 0L;
+
+    /** Depth of the most loaded session outbox */
+    @NotNull
+    private Long maxQueueDepth = 0L;
+
+    /**
+     * Get the number of distinct frames built
+     *
+     * @return number of frames
+     */
+    public Long getFramesEncoded() {
+        return framesEncoded;
+    }
+
+    /**
+     * Set the number of distinct frames built
+     *
+     * @param framesEncoded number of frames
+     */
+    public void setFramesEncoded(Long framesEncoded) {
+        this.framesEncoded = framesEncoded;
+    }
+
+    /**
+     * Get the size of all distinct frames built
+     *
+     * @return size in bytes
+     */
+    public Long getBytesEncoded() {
+        return bytesEncoded;
+    }
+
+    /**
+     * Set the size of all distinct frames built
+     *
+     * @param bytesEncoded size in bytes
+     */
+    public void setBytesEncoded(Long bytesEncoded) {
+        this.bytesEncoded = bytesEncoded;
+    }
+
+    /**
+     * Get the number of frames sent to clients
+     *
+     * @return number of frames
+     */
+    public Long getFramesSent() {
+        return framesSent;
+    }
+
+    /**
+     * Set the number of frames sent to clients
+     *
+     * @param framesSent number of frames
+     */
+    public void setFramesSent(Long framesSent) {
+        this.framesSent = framesSent;
+    }
+
+    /**
+     * Get the size of all frames sent to clients
+     *
+     * @return size in bytes
+     */
+    public Long getBytesSent() {
+        return bytesSent;
+    }
+
+    /**
+     * Set the size of all frames sent to clients
+     *
+     * @param bytesSent size in bytes
+     */
+    public void setBytesSent(Long bytesSent) {
+        this.bytesSent = bytesSent;
+    }
+
+    /**
+     * Get the number of frames dropped because a session outbox was full
+     *
+     * @return number of frames
+     */
+    public Long getDroppedFrames() {
+        return droppedFrames;
+    }
+
+    /**
+     * Set the number of frames dropped because a session outbox was full
+     *
+     * @param droppedFrames number of frames
+     */
+    public void setDroppedFrames(Long droppedFrames) {
+        this.droppedFrames = droppedFrames;
+    }
+
+    /**
+     * Get the number of frames merged with others because a session outbox was full
+     *
+     * @return number of frames
+     */
+    public Long getCoalescedFrames() {
+        return coalescedFrames;
+    }
+
+    /**
+     * Set the number of frames merged with others because a session outbox was full
+     *
+     * @param coalescedFrames number of frames
+     */
+    public void setCoalescedFrames(Long coalescedFrames) {
+        this.coalescedFrames = coalescedFrames;
+    }
+
+    /**
+     * Get the number of object updates merged with more recent ones within the coalescing window
+     *
+     * @return number of updates
+     */
+    public Long getCoalescedUpdates() {
+        return coalescedUpdates;
+    }
+
+    /**
+     * Set the number of object updates merged with more recent ones within the coalescing window
+     *
+     * @param coalescedUpdates number of updates
+     */
+    public void setCoalescedUpdates(Long coalescedUpdates) {
+        this.coalescedUpdates = coalescedUpdates;
+    }
+
+    /**
+     * Get the number of channel sets found in memo while preparing messages
+     *
+     * @return number of hits
+     */
+    public Long getChannelsMemoHits() {
+        return channelsMemoHits;
+    }
+
+    /**
+     * Set the number of channel sets found in memo while preparing messages
+     *
+     * @param channelsMemoHits number of hits
+     */
+    public void setChannelsMemoHits(Long channelsMemoHits) {
+        this.channelsMemoHits = channelsMemoHits;
+    }
+
+    /**
+     * Get the number of channel sets computed while preparing messages
+     *
+     * @return number of misses
+     */
+    public Long getChannelsMemoMisses() {
+        return channelsMemoMisses;
+    }
+
+    /**
+     * Set the number of channel sets computed while preparing messages
+     *
+     * @param channelsMemoMisses number of misses
+     */
+    public void setChannelsMemoMisses(Long channelsMemoMisses) {
+        this.channelsMemoMisses = channelsMemoMisses;
+    }
+
+    /**
+     * Get the number of frames sent deflated
+     *
+     * @return number of frames
+     */
+    public Long getCompressedFrames() {
+        return compressedFrames;
+    }
+
+    /**
+     * Set the number of frames sent deflated
+     *
+     * @param compressedFrames number of frames
+     */
+    public void setCompressedFrames(Long compressedFrames) {
+        this.compressedFrames = compressedFrames;
+    }
+
+    /**
+     * Get the size of deflated frames, before compression
+     *
+     * @return size in bytes
+     */
+    public Long getBytesBeforeCompression() {
+        return bytesBeforeCompression;
+    }
+
+    /**
+     * Set the size of deflated frames, before compression
+     *
+     * @param bytesBeforeCompression size in bytes
+     */
+    public void setBytesBeforeCompression(Long bytesBeforeCompression) {
+        this.bytesBeforeCompression = bytesBeforeCompression;
+    }
+
+    /**
+     * Get the size of deflated frames, after compression
+     *
+     * @return size in bytes
+     */
+    public Long getBytesAfterCompression() {
+        return bytesAfterCompression;
+    }
+
+    /**
+     * Set the size of deflated frames, after compression
+     *
+     * @param bytesAfterCompression size in bytes
+     */
+    public void setBytesAfterCompression(Long bytesAfterCompression) {
+        this.bytesAfterCompression = bytesAfterCompression;
+    }
+
+    /**
+     * Get the number of sessions closed because their outbox was full
+     *
+     * @return number of sessions
+     */
+    public Long getDisconnectedSessions() {
+        return disconnectedSessions;
+    }
+
+    /**
+     * Set the number of sessions closed because their outbox was full
+     *
+     * @param disconnectedSessions number of sessions
+     */
+    public void setDisconnectedSessions(Long disconnectedSessions) {
+        this.disconnectedSessions = disconnectedSessions;
+    }
+
+    /**
+     * Get the number of failed deliveries
+     *
+     * @return number of frames
+     */
+    public Long getFailedFrames() {
+        return failedFrames;
+    }
+
+    /**
+     * Set the number of failed deliveries
+     *
+     * @param failedFrames number of frames
+     */
+    public void setFailedFrames(Long failedFrames) {
+        this.failedFrames = failedFrames;
+    }
+
+    /**
+     * Get the number of frames currently waiting to be sent
+     *
+     * @return number of frames
+     */
+    public Long getQueuedFrames() {
+        return queuedFrames;
+    }
+
+    /**
+     * Set the number of frames currently waiting to be sent
+     *
+     * @param queuedFrames number of frames
+     */
+    public void setQueuedFrames(Long queuedFrames) {
+        this.queuedFrames = queuedFrames;
+    }
+
+    /**
+     * Get the depth of the most loaded session outbox
+     *
+     * @return number of frames
+     */
+    public Long getMaxQueueDepth() {
+        return maxQueueDepth;
+    }
+
+    /**
+     * Set the depth of the most loaded session outbox
+     *
+     * @param maxQueueDepth number of frames
+     */
+    public void setMaxQueueDepth(Long maxQueueDepth) {
+        this.maxQueueDepth = maxQueueDepth;
+    }
+
+    /**
+     * Add counters of another instance to this one
+     *
+     * @param other other counters
+     */
+    public void merge(WebsocketMonitoring other) {
+        this.framesEncoded += other.getFramesEncoded();
+        this.bytesEncoded += other.getBytesEncoded();
+        this.framesSent += other.getFramesSent();
+        this.bytesSent += other.getBytesSent();
+        this.droppedFrames += other.getDroppedFrames();
+        this.coalescedFrames += other.getCoalescedFrames();
+        this.coalescedUpdates += other.getCoalescedUpdates();
+        this.channelsMemoHits += other.getChannelsMemoHits();
+        this.channelsMemoMisses += other.getChannelsMemoMisses();
+        this.compressedFrames += other.getCompressedFrames();
+        this.bytesBeforeCompression += other.getBytesBeforeCompression();
+        this.bytesAfterCompression += other.getBytesAfterCompression();
+        this.disconnectedSessions += other.getDisconnectedSessions();
+        this.failedFrames += other.getFailedFrames();
+        this.queuedFrames += other.getQueuedFrames();
+        this.maxQueueDepth = Math.max(this.maxQueueDepth, other.getMaxQueueDepth());
+    }
+
+    @Override
+    public String toString() {
+        return "WebsocketMonitoring{" + "framesEncoded=" + framesEncoded
+            + ", bytesEncoded=" + bytesEncoded + ", framesSent=" + framesSent
+            + ", bytesSent=" + bytesSent + ", droppedFrames=" + droppedFrames
+            + ", coalescedFrames=" + coalescedFrames + ", coalescedUpdates=" + coalescedUpdates
+            + ", channelsMemoHits=" + channelsMemoHits
+            + ", channelsMemoMisses=" + channelsMemoMisses
+            + ", compressedFrames=" + compressedFrames
+            + ", bytesBeforeCompression=" + bytesBeforeCompression
+            + ", bytesAfterCompression=" + bytesAfterCompression
+            + ", disconnectedSessions=" + disconnectedSessions
+            + ", failedFrames=" + failedFrames + ", queuedFrames=" + queuedFrames
+            + ", maxQueueDepth=" + maxQueueDepth + '}';
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * The coLAB project
+ * Copyright (C) 2023 AlbaSim, MEI, HEIG-VD, HES-SO
+ *
+ * Licensed under the MIT License
+ */
+package ch.colabproject.colab.api.ws.utils;
+
+import ch.colabproject.colab.api.Helper;
+import ch.colabproject.colab.api.controller.CdiBridgeSingleton;
+import ch.colabproject.colab.api.ws.monitoring.WebsocketMonitoring;
+import java.io.Serializable;
+import java.util.concurrent.Callable;
+
+/**
+ * Serializable callable to be submitted to all instances of the cluster to collect websocket
+ * delivery counters.
+ *
+ * @author maxence
+ */
+public class CallableGetWsMonitoring
+    implements
+    Serializable,
+    Callable<WebsocketMonitoring> {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public WebsocketMonitoring call() throws Exception {
+        CdiBridgeSingleton cdiBridge = Helper.lookup(CdiBridgeSingleton.class);
+        if (cdiBridge != null) {
+            return cdiBridge.getWebsocketMonitoring();
+        } else {
+            return new WebsocketMonitoring();
+        }
+    }
+
+}
@@ -0,0 +1,139 @@
+/*
+ * The coLAB project
+ * Copyright (C) 2023 AlbaSim, MEI, HEIG-VD, HES-SO
+ *
+ * Licensed under the MIT License
+ */
+package ch.colabproject.colab.api.ws.utils;
+
+import ch.colabproject.colab.api.setup.ColabConfiguration;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Deflate big strings before sending them over the wire.
+ *
+ * @author maxence
+ */
+public final class CompressionHelper {
+
+    /**
+     * Size of the working buffers
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * never-called private constructor
+     */
+    private CompressionHelper() {
+        throw new UnsupportedOperationException(
+            "This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Deflate the UTF-8 representation of the given string
+     *
+     * @param data the string to compress
+     *
+     * @return compressed bytes
+     */
+    public static byte[] deflate(String data) {
+        return deflate(data.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Deflate the given bytes
+     *
+     * @param input bytes to compress
+     *
+     * @return compressed bytes
+     */
+    public static byte[] deflate(byte[] input) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream output = new ByteArrayOutputStream(input.length / 4 + 16);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!deflater.finished()) {
+                int count = deflater.deflate(buffer);
+                output.write(buffer, 0, count);
+            }
+            return output.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Inflate bytes compressed by {@link #deflate(String)}
+     *
+     * @param input compressed bytes
+     *
+     * @return the string
+     *
+     * @throws IOException if data are corrupted
+     */
+    public static String inflate(byte[] input) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(input);
+            ByteArrayOutputStream output = new ByteArrayOutputStream(input.length * 4);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!inflater.finished()) {
+                int count = inflater.inflate(buffer);
+                if (count == 0 && !inflater.finished()
+                    && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Truncated compressed data");
+                }
+                output.write(buffer, 0, count);
+            }
+            return output.toString(StandardCharsets.UTF_8);
+        } catch (DataFormatException ex) {
+            throw new IOException("Corrupted compressed data", ex);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Write a nullable string. Strings longer than the configured threshold are deflated.
+     *
+     * @param out  the output
+     * @param data the string to write, may be null
+     *
+     * @throws IOException if writing failed
+     */
+    public static void writeString(ObjectDataOutput out, String data) throws IOException {
+        if (data != null && data.length() >= ColabConfiguration.getClusterCompressionThreshold()) {
+            out.writeBoolean(true);
+            out.writeByteArray(deflate(data));
+        } else {
+            out.writeBoolean(false);
+            out.writeString(data);
+        }
+    }
+
+    /**
+     * Read a string written by {@link #writeString(ObjectDataOutput, String)}
+     *
+     * @param in the input
+     *
+     * @return the string, may be null
+     *
+     * @throws IOException if reading failed
+     */
+    public static String readString(ObjectDataInput in) throws IOException {
+        if (in.readBoolean()) {
+            return inflate(in.readByteArray());
+        } else {
+            return in.readString();
+        }
+    }
+}
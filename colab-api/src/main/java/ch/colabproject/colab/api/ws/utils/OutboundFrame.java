@@ -0,0 +1,84 @@
+/*
+ * The coLAB project
+ * Copyright (C) 2023 AlbaSim, MEI, HEIG-VD, HES-SO
+ *
+ * Licensed under the MIT License
+ */
+package ch.colabproject.colab.api.ws.utils;
+
+/**
+ * A frame to send to websocket clients. The very same frame is usually queued in the outbox of
+ * many sessions: it is deflated at most once, when the first session which supports compression
+ * sends it.
+ *
+ * @author maxence
+ */
+public class OutboundFrame {
+
+    /**
+     * JSON-encoded message or array of messages
+     */
+    private final String text;
+
+    /**
+     * Size of the UTF-8 text, in bytes
+     */
+    private final long size;
+
+    /**
+     * Deflated UTF-8 text. Lazily computed.
+     */
+    private volatile byte[] deflated;
+
+    /**
+     * Create a frame
+     *
+     * @param text JSON-encoded message or array of messages
+     */
+    public OutboundFrame(String text) {
+        this.text = text;
+        this.size = WebsocketCounters.utf8Length(text);
+    }
+
+    /**
+     * Get the JSON
+     *
+     * @return JSON-encoded message or array of messages
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Get the size of the UTF-8 text
+     *
+     * @return size in bytes
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Get the deflated UTF-8 text
+     *
+     * @return compressed bytes
+     */
+    public byte[] getDeflated() {
+        byte[] result = deflated;
+        if (result == null) {
+            synchronized (this) {
+                result = deflated;
+                if (result == null) {
+                    result = CompressionHelper.deflate(text);
+                    deflated = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "OutboundFrame{" + "size=" + size + '}';
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * The coLAB project
+ * Copyright (C) 2023 AlbaSim, MEI, HEIG-VD, HES-SO
+ *
+ * Licensed under the MIT License
+ */
+package ch.colabproject.colab.api.ws.utils;
+
+import ch.colabproject.colab.api.model.WithWebsocketChannels;
+import ch.colabproject.colab.api.ws.message.IndexEntry;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Updated and deleted objects to propagate, indexed by type and id.
+ * <p>
+ * An object which has been deleted is never propagated as updated, whatever the registration
+ * order is. Both registrations and lookups are constant-time operations, which matters for big
+ * operations (eg project deletion or duplication) which touch thousands of objects.
+ *
+ * @author maxence
+ */
+public class PropagationIndex implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Updated objects, mapped by key
+     */
+    private final Map<IndexEntry, WithWebsocketChannels> updated = new LinkedHashMap<>();
+
+    /**
+     * Deleted objects, mapped by key
+     */
+    private final Map<IndexEntry, IndexEntry> deleted = new HashMap<>();
+
+    /**
+     * Register an updated object. Ignored if the object has already been deleted.
+     *
+     * @param object the updated object
+     */
+    public void registerUpdate(WithWebsocketChannels object) {
+        IndexEntry key = IndexEntry.buildKey(object);
+        if (!deleted.containsKey(key)) {
+            updated.put(key, object);
+        }
+    }
+
+    /**
+     * Register a deleted object. Any previous update of the object is forgotten.
+     *
+     * @param object the deleted object
+     */
+    public void registerDeletion(WithWebsocketChannels object) {
+        IndexEntry entry = IndexEntry.build(object);
+        updated.remove(entry);
+        deleted.putIfAbsent(entry, entry);
+    }
+
+    /**
+     * Get objects which have been updated but not deleted
+     *
+     * @return set of updated objects
+     */
+    public Set<WithWebsocketChannels> getUpdated() {
+        return new LinkedHashSet<>(updated.values());
+    }
+
+    /**
+     * Get index entries of deleted objects
+     *
+     * @return set of deleted entries
+     */
+    public Set<IndexEntry> getDeleted() {
+        return new LinkedHashSet<>(deleted.values());
+    }
+
+    /**
+     * Is there nothing to propagate?
+     *
+     * @return true if no object has been registered
+     */
+    public boolean isEmpty() {
+        return updated.isEmpty() && deleted.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "PropagationIndex{" + "updated=" + updated.keySet()
+            + ", deleted=" + deleted.keySet() + '}';
+    }
+}
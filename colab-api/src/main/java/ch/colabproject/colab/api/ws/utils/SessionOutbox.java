@@ -0,0 +1,371 @@
+/*
+ * The coLAB project
+ * Copyright (C) 2023 AlbaSim, MEI, HEIG-VD, HES-SO
+ *
+ * Licensed under the MIT License
+ */
+package ch.colabproject.colab.api.ws.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.stream.Collectors;
+import javax.websocket.CloseReason;
+import javax.websocket.SendResult;
+import javax.websocket.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded queue of frames to send to one websocket session.
+ * <p>
+ * Frames are sent asynchronously, one at a time, so a slow client never blocks the thread which
+ * propagates messages to all other clients. When the queue is full, the {@link BackPressurePolicy}
+ * decides what to do. Whatever the policy, the session is closed as soon as the queued frames
+ * weigh more than the size limit.
+ * <p>
+ * If the client supports it, frames bigger than the compression threshold are deflated and sent as
+ * binary frames.
+ *
+ * @author maxence
+ */
+public class SessionOutbox {
+
+    /** logger */
+    private static final Logger logger = LoggerFactory.getLogger(SessionOutbox.class);
+
+    /**
+     * What to do when the outbox is full
+     */
+    public enum BackPressurePolicy {
+        /**
+         * Drop the oldest queued frame
+         */
+        DROP_OLDEST,
+        /**
+         * Merge all queued frames in one single frame. No message is lost, as long as the size
+         * limit is not reached.
+         */
+        COALESCE,
+        /**
+         * Close the session. The client will reconnect and reload its data.
+         */
+        DISCONNECT
+    }
+
+    /**
+     * The session
+     */
+    private final Session session;
+
+    /**
+     * Max number of queued frames
+     */
+    private final int capacity;
+
+    /**
+     * Max number of queued bytes
+     */
+    private final long maxSize;
+
+    /**
+     * The policy
+     */
+    private final BackPressurePolicy policy;
+
+    /**
+     * Counters to update
+     */
+    private final WebsocketCounters counters;
+
+    /**
+     * Frames which contain at least this number of bytes are deflated. Negative if the client does
+     * not support compression.
+     */
+    private final long compressionThreshold;
+
+    /**
+     * Frames waiting to be sent
+     */
+    private final Deque<OutboundFrame> queue = new ArrayDeque<>();
+
+    /**
+     * Number of queued bytes
+     */
+    private long queuedSize = 0;
+
+    /**
+     * Is a frame being sent?
+     */
+    private boolean sending = false;
+
+    /**
+     * Has the session been closed by the outbox?
+     */
+    private boolean closed = false;
+
+    /**
+     * Create an outbox
+     *
+     * @param session              the session to send frames to
+     * @param capacity             max number of queued frames
+     * @param maxSize              max number of queued bytes. The session is closed beyond
+     * @param policy               what to do when the outbox is full
+     * @param counters             counters to update
+     * @param compressionThreshold size, in bytes, above which frames are deflated. Negative to
+     *                             never compress frames
+     */
+    public SessionOutbox(Session session, int capacity, long maxSize, BackPressurePolicy policy,
+        WebsocketCounters counters, long compressionThreshold) {
+        this.session = session;
+        this.capacity = Math.max(1, capacity);
+        this.maxSize = maxSize > 0 ? maxSize : Long.MAX_VALUE;
+        this.policy = policy;
+        this.counters = counters;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    /**
+     * Get the number of queued frames
+     *
+     * @return queue depth
+     */
+    public synchronized int getSize() {
+        return queue.size();
+    }
+
+    /**
+     * Get the number of queued bytes
+     *
+     * @return queued size
+     */
+    public synchronized long getQueuedSize() {
+        return queuedSize;
+    }
+
+    /**
+     * Is the outbox closed?
+     *
+     * @return true if the outbox has closed the session
+     */
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Add a frame at the end of the queue
+     *
+     * @param frame the frame
+     */
+    private void enqueue(OutboundFrame frame) {
+        queue.addLast(frame);
+        queuedSize += frame.getSize();
+    }
+
+    /**
+     * Take the first frame of the queue
+     *
+     * @return the frame, null if the queue is empty
+     */
+    private OutboundFrame dequeue() {
+        OutboundFrame frame = queue.pollFirst();
+        if (frame != null) {
+            queuedSize -= frame.getSize();
+        }
+        return frame;
+    }
+
+    /**
+     * Drop all queued frames
+     */
+    private void clear() {
+        counters.framesDropped(queue.size());
+        queue.clear();
+        queuedSize = 0;
+    }
+
+    /**
+     * Queue a frame and make sure it will be sent.
+     *
+     * @param frame JSON-encoded message or array of messages
+     */
+    public void offer(String frame) {
+        offer(new OutboundFrame(frame));
+    }
+
+    /**
+     * Queue a frame and make sure it will be sent.
+     *
+     * @param frame the frame
+     */
+    public void offer(OutboundFrame frame) {
+        OutboundFrame toSend = null;
+        boolean disconnect = false;
+
+        synchronized (this) {
+            if (closed) {
+                counters.framesDropped(1);
+                return;
+            }
+            if (queue.size() >= capacity) {
+                switch (policy) {
+                    case DROP_OLDEST:
+                        dequeue();
+                        counters.framesDropped(1);
+                        enqueue(frame);
+                        break;
+                    case COALESCE:
+                        counters.framesCoalesced(queue.size());
+                        queue.addLast(frame);
+                        OutboundFrame merged = new OutboundFrame(merge(queue.stream()
+                            .map(OutboundFrame::getText)
+                            .collect(Collectors.toList())));
+                        queue.clear();
+                        queuedSize = 0;
+                        enqueue(merged);
+                        break;
+                    case DISCONNECT:
+                    default:
+                        counters.framesDropped(1);
+                        disconnect = true;
+                        break;
+                }
+            } else {
+                enqueue(frame);
+            }
+
+            if (!disconnect && queuedSize > maxSize) {
+                // client does not read fast enough, whatever the policy
+                disconnect = true;
+            }
+
+            if (disconnect) {
+                clear();
+                closed = true;
+            } else if (!sending) {
+                sending = true;
+                toSend = dequeue();
+            }
+        }
+
+        if (disconnect) {
+            disconnect();
+        } else if (toSend != null) {
+            send(toSend);
+        }
+    }
+
+    /**
+     * Send a frame asynchronously.
+     *
+     * @param frame the frame to send
+     */
+    private void send(OutboundFrame frame) {
+        if (session.isOpen()) {
+            try {
+                if (compressionThreshold >= 0 && frame.getSize() >= compressionThreshold) {
+                    byte[] deflated = frame.getDeflated();
+                    session.getAsyncRemote().sendBinary(ByteBuffer.wrap(deflated),
+                        result -> onSent(frame, deflated.length, result));
+                } else {
+                    session.getAsyncRemote().sendText(frame.getText(),
+                        result -> onSent(frame, -1, result));
+                }
+            } catch (IllegalStateException | IllegalArgumentException ex) {
+                logger.error("Failed to send websocket message to {}", session.getId(), ex);
+                counters.frameFailed();
+                sendNext();
+            }
+        } else {
+            synchronized (this) {
+                counters.framesDropped(1);
+                clear();
+                sending = false;
+            }
+        }
+    }
+
+    /**
+     * Async send completion callback
+     *
+     * @param frame          the sent frame
+     * @param compressedSize size of the deflated frame, negative if the frame was not deflated
+     * @param result         the result
+     */
+    private void onSent(OutboundFrame frame, long compressedSize, SendResult result) {
+        if (result.isOK()) {
+            if (compressedSize >= 0) {
+                counters.frameCompressed(frame.getSize(), compressedSize);
+                counters.frameSent(compressedSize);
+            } else {
+                counters.frameSent(frame.getSize());
+            }
+        } else {
+            logger.error("Failed to send websocket message {} to {}",
+                frame, session.getId(), result.getException());
+            counters.frameFailed();
+        }
+        sendNext();
+    }
+
+    /**
+     * Send the next queued frame, if any
+     */
+    private void sendNext() {
+        OutboundFrame next;
+        synchronized (this) {
+            next = dequeue();
+            if (next == null) {
+                sending = false;
+            }
+        }
+        if (next != null) {
+            send(next);
+        }
+    }
+
+    /**
+     * Close the session as it can not keep up.
+     */
+    private void disconnect() {
+        logger.warn("Websocket session {} is too slow: disconnect", session.getId());
+        counters.sessionDisconnected();
+        try {
+            session.close(new CloseReason(CloseReason.CloseCodes.TRY_AGAIN_LATER,
+                "Outbound queue full"));
+        } catch (IOException ex) {
+            logger.warn("Failed to close websocket session {}", session.getId(), ex);
+        }
+    }
+
+    /**
+     * Merge several frames in one. Each frame is either a JSON-encoded message or a JSON array of
+     * messages. The result is one JSON array which contains all messages, in the same order.
+     *
+     * @param frames frames to merge
+     *
+     * @return JSON-encoded array of messages
+     */
+    static String merge(Iterable<String> frames) {
+        StringBuilder sb = new StringBuilder("[");
+        boolean first = true;
+        for (String frame : frames) {
+            String trimmed = frame.trim();
+            String content;
+            if (trimmed.startsWith("[") && trimmed.endsWith("]")) {
+                content = trimmed.substring(1, trimmed.length() - 1).trim();
+            } else {
+                content = trimmed;
+            }
+            if (!content.isEmpty()) {
+                if (!first) {
+                    sb.append(", ");
+                }
+                sb.append(content);
+                first = false;
+            }
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * The coLAB project
+ * Copyright (C) 2023 AlbaSim, MEI, HEIG-VD, HES-SO
+ *
+ * Licensed under the MIT License
+ */
+package ch.colabproject.colab.api.ws.utils;
+
+import com.hazelcast.map.EntryProcessor;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.DataSerializable;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Map;
+
+/**
+ * Register or unregister an instance as a host of subscribers of a channel. The entry is removed
+ * once no instance hosts subscribers any longer.
+ *
+ * @author maxence
+ */
+public class UpdateChannelDirectory
+    implements EntryProcessor<String, HashSet<String>, Void>, DataSerializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Uuid of the instance
+     */
+    private String memberUuid;
+
+    /**
+     * Register or unregister the instance
+     */
+    private boolean hosts;
+
+    /**
+     * Default constructor, used by deserialization
+     */
+    public UpdateChannelDirectory() {
+        /* no-op */
+    }
+
+    /**
+     * Create an entry processor
+     *
+     * @param memberUuid uuid of the instance
+     * @param hosts      true if the instance now hosts subscribers, false if it does not any longer
+     */
+    public UpdateChannelDirectory(String memberUuid, boolean hosts) {
+        this.memberUuid = memberUuid;
+        this.hosts = hosts;
+    }
+
+    @Override
+    public Void process(Map.Entry<String, HashSet<String>> entry) {
+        HashSet<String> members = entry.getValue();
+        if (hosts) {
+            if (members == null) {
+                members = new HashSet<>();
+            }
+            if (members.add(memberUuid)) {
+                entry.setValue(members);
+            }
+        } else if (members != null && members.remove(memberUuid)) {
+            entry.setValue(members.isEmpty() ? null : members);
+        }
+        return null;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeString(memberUuid);
+        out.writeBoolean(hosts);
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        memberUuid = in.readString();
+        hosts = in.readBoolean();
+    }
+
+    @Override
+    public String toString() {
+        return "UpdateChannelDirectory{" + "memberUuid=" + memberUuid + ", hosts=" + hosts + '}';
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * The coLAB project
+ * Copyright (C) 2023 AlbaSim, MEI, HEIG-VD, HES-SO
+ *
+ * Licensed under the MIT License
+ */
+package ch.colabproject.colab.api.ws.utils;
+
+import ch.colabproject.colab.api.ws.monitoring.WebsocketMonitoring;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread-safe websocket delivery counters of one instance.
+ *
+ * @author maxence
+ */
+public class WebsocketCounters {
+
+    /** Number of distinct frames built */
+    private final AtomicLong framesEncoded = new AtomicLong();
+
+    /** Size of distinct frames built */
+    private final AtomicLong bytesEncoded = new AtomicLong();
+
+    /** Number of frames sent to clients */
+    private final AtomicLong framesSent = new AtomicLong();
+
+    /** Size of frames sent to clients */
+    private final AtomicLong bytesSent = new AtomicLong();
+
+    /** Number of frames dropped because a session outbox was full */
+    private final AtomicLong droppedFrames = new AtomicLong();
+
+    /** Number of frames merged with others because a session outbox was full */
+    private final AtomicLong coalescedFrames = new AtomicLong();
+
+    /** Number of object updates merged with more recent ones within the coalescing window */
+    private final AtomicLong coalescedUpdates = new AtomicLong();
+
+    /** Number of channel sets found in memo while preparing messages */
+    private final AtomicLong channelsMemoHits = new AtomicLong();
+
+    /** Number of channel sets computed while preparing messages */
+    private final AtomicLong channelsMemoMisses = new AtomicLong();
+
+    /** Number of frames sent deflated */
+    private final AtomicLong compressedFrames = new AtomicLong();
+
+    /** Size of deflated frames, before compression */
+    private final AtomicLong bytesBeforeCompression = new AtomicLong();
+
+    /** Size of deflated frames, after compression */
+    private final AtomicLong bytesAfterCompression = new AtomicLong();
+
+    /** Number of sessions closed because their outbox was full */
+    private final AtomicLong disconnectedSessions = new AtomicLong();
+
+    /** Number of failed deliveries */
+    private final AtomicLong failedFrames = new AtomicLong();
+
+    /**
+     * Register a new distinct frame
+     *
+     * @param size size of the frame, in bytes
+     */
+    public void frameEncoded(long size) {
+        framesEncoded.incrementAndGet();
+        bytesEncoded.addAndGet(size);
+    }
+
+    /**
+     * Register a frame delivery
+     *
+     * @param size size of the frame, in bytes
+     */
+    public void frameSent(long size) {
+        framesSent.incrementAndGet();
+        bytesSent.addAndGet(size);
+    }
+
+    /**
+     * Register dropped frames
+     *
+     * @param count number of dropped frames
+     */
+    public void framesDropped(long count) {
+        droppedFrames.addAndGet(count);
+    }
+
+    /**
+     * Register coalesced frames
+     *
+     * @param count number of frames which have been merged
+     */
+    public void framesCoalesced(long count) {
+        coalescedFrames.addAndGet(count);
+    }
+
+    /**
+     * Register coalesced object updates
+     *
+     * @param count number of updates which have been overridden by more recent ones
+     */
+    public void updatesCoalesced(long count) {
+        coalescedUpdates.addAndGet(count);
+    }
+
+    /**
+     * Register channels resolutions
+     *
+     * @param hits   number of channel sets found in memo
+     * @param misses number of channel sets actually computed
+     */
+    public void channelsResolved(long hits, long misses) {
+        channelsMemoHits.addAndGet(hits);
+        channelsMemoMisses.addAndGet(misses);
+    }
+
+    /**
+     * Register a deflated frame
+     *
+     * @param size           size of the frame, before compression
+     * @param compressedSize size of the frame, after compression
+     */
+    public void frameCompressed(long size, long compressedSize) {
+        compressedFrames.incrementAndGet();
+        bytesBeforeCompression.addAndGet(size);
+        bytesAfterCompression.addAndGet(compressedSize);
+    }
+
+    /**
+     * Register a session closed because of back-pressure
+     */
+    public void sessionDisconnected() {
+        disconnectedSessions.incrementAndGet();
+    }
+
+    /**
+     * Register a failed delivery
+     */
+    public void frameFailed() {
+        failedFrames.incrementAndGet();
+    }
+
+    /**
+     * Copy counters to a monitoring data object.
+     *
+     * @return monitoring data
+     */
+    public WebsocketMonitoring toMonitoring() {
+        WebsocketMonitoring monitoring = new WebsocketMonitoring();
+        monitoring.setFramesEncoded(framesEncoded.get());
+        monitoring.setBytesEncoded(bytesEncoded.get());
+        monitoring.setFramesSent(framesSent.get());
+        monitoring.setBytesSent(bytesSent.get());
+        monitoring.setDroppedFrames(droppedFrames.get());
+        monitoring.setCoalescedFrames(coalescedFrames.get());
+        monitoring.setCoalescedUpdates(coalescedUpdates.get());
+        monitoring.setChannelsMemoHits(channelsMemoHits.get());
+        monitoring.setChannelsMemoMisses(channelsMemoMisses.get());
+        monitoring.setCompressedFrames(compressedFrames.get());
+        monitoring.setBytesBeforeCompression(bytesBeforeCompression.get());
+        monitoring.setBytesAfterCompression(bytesAfterCompression.get());
+        monitoring.setDisconnectedSessions(disconnectedSessions.get());
+        monitoring.setFailedFrames(failedFrames.get());
+        return monitoring;
+    }
+
+    /**
+     * Compute the size of the UTF-8 representation of the given string without encoding it.
+     *
+     * @param s the string
+     *
+     * @return number of bytes
+     */
+    public static long utf8Length(String s) {
+        long count = 0;
+        int length = s.length();
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                count++;
+            } else if (c < 0x800) {
+                count += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                count += 4;
+                i++;
+            } else {
+                count += 3;
+            }
+        }
+        return count;
+    }
+}
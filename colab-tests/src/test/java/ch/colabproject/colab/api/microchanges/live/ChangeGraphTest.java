@@ -0,0 +1,159 @@
+/*
+ * The coLAB project
+ * Copyright (C) 2023 AlbaSim, MEI, HEIG-VD, HES-SO
+ *
+ * Licensed under the MIT License
+ */
+package ch.colabproject.colab.api.microchanges.live;
+
+import ch.colabproject.colab.api.microchanges.model.Change;
+import ch.colabproject.colab.tests.ChangeBuilder;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test the {@link ChangeGraph} index. Lives in the same package as the graph is package-private.
+ *
+ * @author maxence
+ */
+public class ChangeGraphTest {
+
+    /**
+     * Diamond: ch is based on A and B, B is based on A and A is based on the revision
+     *
+     * @param parentsOfCh parents of ch, in the order they are walked through
+     *
+     * @return [A, B, ch]
+     */
+    private List<Change> buildDiamond(String... parentsOfCh) {
+        List<Change> changes = new ArrayList<>();
+        changes.add(ChangeBuilder.create("s", "A", "0").ins(0, "a").build());
+        changes.add(ChangeBuilder.create("s", "B", "s::A").ins(1, "b").build());
+        Change ch = ChangeBuilder.create("s", "ch").ins(2, "c").build();
+        ch.setBasedOn(new LinkedHashSet<>(List.of(parentsOfCh)));
+        changes.add(ch);
+        return changes;
+    }
+
+    private List<Change> buildDiamond() {
+        return buildDiamond("s::A", "s::B");
+    }
+
+    @Test
+    public void testDiamondFromTheBottom() {
+        for (List<Change> changes : List.of(buildDiamond("s::A", "s::B"),
+            buildDiamond("s::B", "s::A"))) {
+            ChangeGraph graph = new ChangeGraph(changes);
+
+            // resolving ch first must not cache a wrong answer about B
+            Assertions.assertTrue(graph.dependsOn(changes.get(2), "0"));
+            Assertions.assertTrue(graph.dependsOn(changes.get(1), "0"));
+            Assertions.assertTrue(graph.dependsOn(changes.get(0), "0"));
+        }
+    }
+
+    @Test
+    public void testDiamondFromTheTop() {
+        for (List<Change> changes : List.of(buildDiamond("s::A", "s::B"),
+            buildDiamond("s::B", "s::A"))) {
+            ChangeGraph graph = new ChangeGraph(changes);
+
+            Assertions.assertTrue(graph.dependsOn(changes.get(0), "0"));
+            Assertions.assertTrue(graph.dependsOn(changes.get(1), "0"));
+            Assertions.assertTrue(graph.dependsOn(changes.get(2), "0"));
+        }
+    }
+
+    @Test
+    public void testDiamondOtherRevisions() {
+        List<Change> changes = buildDiamond();
+        ChangeGraph graph = new ChangeGraph(changes);
+
+        Assertions.assertTrue(graph.dependsOn(changes.get(2), "s::A"));
+        Assertions.assertTrue(graph.dependsOn(changes.get(1), "s::A"));
+        Assertions.assertFalse(graph.dependsOn(changes.get(0), "s::A"));
+
+        Assertions.assertTrue(graph.dependsOn(changes.get(2), "s::B"));
+        Assertions.assertFalse(graph.dependsOn(changes.get(1), "s::B"));
+
+        Assertions.assertFalse(graph.dependsOn(changes.get(2), "unknown"));
+        Assertions.assertFalse(graph.dependsOn(changes.get(1), "unknown"));
+    }
+
+    @Test
+    public void testSetBasedOnInvalidatesAnswers() {
+        List<Change> changes = buildDiamond();
+        ChangeGraph graph = new ChangeGraph(changes);
+
+        Assertions.assertFalse(graph.dependsOn(changes.get(2), "1"));
+        Assertions.assertEquals(Set.of("0", "s::A", "s::B"),
+            graph.getAllDependencies(changes.get(2)));
+
+        graph.setBasedOn(changes.get(0), Set.of("1"));
+
+        Assertions.assertTrue(graph.dependsOn(changes.get(2), "1"));
+        Assertions.assertFalse(graph.dependsOn(changes.get(2), "0"));
+        Assertions.assertEquals(Set.of("1", "s::A", "s::B"),
+            graph.getAllDependencies(changes.get(2)));
+        Assertions.assertEquals(List.of(changes.get(0)), graph.getChildren("1"));
+        Assertions.assertTrue(graph.getChildren("0").isEmpty());
+    }
+
+    @Test
+    public void testLongBranch() {
+        // long edit sessions must not overflow the stack
+        int nbChanges = 20_000;
+        List<Change> changes = new ArrayList<>();
+        String tip = "0";
+        for (int i = 0; i < nbChanges; i++) {
+            changes.add(ChangeBuilder.create("s", "" + i, tip).ins(i, "x").build());
+            tip = "s::" + i;
+        }
+        ChangeGraph graph = new ChangeGraph(changes);
+
+        Assertions.assertTrue(graph.dependsOn(changes.get(nbChanges - 1), "0"));
+        Assertions.assertTrue(graph.dependsOn(changes.get(nbChanges / 2), "0"));
+        Assertions.assertFalse(graph.dependsOn(changes.get(nbChanges / 2), "s::" + nbChanges));
+        Assertions.assertEquals(nbChanges, graph.getAllDependencies(changes.get(nbChanges - 1))
+            .size());
+    }
+
+    @Test
+    public void testDependsOnMatchesAllDependencies() {
+        Random random = new Random(1);
+        int nbChanges = 300;
+        List<String> revisions = new ArrayList<>();
+        revisions.add("0");
+        List<Change> changes = new ArrayList<>();
+        for (int i = 0; i < nbChanges; i++) {
+            // each change is based on one to three random older revisions
+            int nbParents = 1 + random.nextInt(3);
+            Set<String> parents = new HashSet<>();
+            for (int j = 0; j < nbParents; j++) {
+                parents.add(revisions.get(random.nextInt(revisions.size())));
+            }
+            Change change = ChangeBuilder.create("s", "" + i, parents.toArray(new String[0]))
+                .build();
+            changes.add(change);
+            revisions.add(change.getRevision());
+        }
+
+        // walk changes from the last to the first, so the graph is walked from the bottom
+        ChangeGraph graph = new ChangeGraph(changes);
+        for (String revision : List.of("0", "s::3", "s::42", "s::150")) {
+            for (int i = nbChanges - 1; i >= 0; i--) {
+                Change change = changes.get(i);
+                Assertions.assertEquals(
+                    graph.getAllDependencies(change).contains(revision),
+                    graph.dependsOn(change, revision),
+                    change.getRevision() + " depends on " + revision);
+            }
+        }
+    }
+}
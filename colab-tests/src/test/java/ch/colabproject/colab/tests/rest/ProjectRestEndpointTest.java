@@ -19,12 +19,14 @@ import ch.colabproject.colab.api.model.token.InvitationToken;
 import ch.colabproject.colab.api.model.token.Token;
 import ch.colabproject.colab.api.model.user.User;
 import ch.colabproject.colab.api.rest.project.bean.ProjectCreationData;
+import ch.colabproject.colab.api.rest.project.bean.ProjectStructure;
 import ch.colabproject.colab.api.ws.message.WsUpdateMessage;
 import ch.colabproject.colab.client.ColabClient;
 import ch.colabproject.colab.generator.model.exceptions.HttpErrorMessage;
 import ch.colabproject.colab.tests.mailhog.model.Message;
 import ch.colabproject.colab.tests.tests.AbstractArquillianTest;
 import ch.colabproject.colab.tests.tests.ColabFactory;
+import ch.colabproject.colab.tests.tests.TestFacade;
 import ch.colabproject.colab.tests.tests.TestHelper;
 import ch.colabproject.colab.tests.tests.TestUser;
 import ch.colabproject.colab.tests.ws.WebsocketClient;
@@ -32,8 +34,17 @@ import java.io.IOException;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceUnit;
+import javax.transaction.TransactionSynchronizationRegistry;
 import javax.websocket.DeploymentException;
+import org.eclipse.persistence.sessions.SessionEvent;
+import org.eclipse.persistence.sessions.SessionEventAdapter;
+import org.eclipse.persistence.sessions.server.Server;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -43,6 +54,43 @@ import org.junit.jupiter.api.Test;
  */
 public class ProjectRestEndpointTest extends AbstractArquillianTest {
 
+    @PersistenceUnit(unitName = "COLAB_PU")
+    private EntityManagerFactory emf;
+
+    @Resource(lookup = "java:comp/TransactionSynchronizationRegistry")
+    private TransactionSynchronizationRegistry jtaSyncRegistry;
+
+    @Inject
+    private TestFacade testFacade;
+
+    /**
+     * Collect the keys of all transactions in which a persistence context is opened
+     */
+    private static class TransactionCounter extends SessionEventAdapter {
+
+        private final TransactionSynchronizationRegistry registry;
+
+        private final Set<Object> transactions = ConcurrentHashMap.newKeySet();
+
+        TransactionCounter(TransactionSynchronizationRegistry registry) {
+            this.registry = registry;
+        }
+
+        @Override
+        public void postAcquireClientSession(SessionEvent event) {
+            Object key = registry.getTransactionKey();
+            if (key != null) {
+                transactions.add(key);
+            }
+        }
+
+        int getAndReset() {
+            int count = transactions.size();
+            transactions.clear();
+            return count;
+        }
+    }
+
     @Test
     public void testCreateDeleteProject() {
         ProjectType type = ProjectType.PROJECT;
@@ -369,6 +417,76 @@ public class ProjectRestEndpointTest extends AbstractArquillianTest {
         TestHelper.assertEquals(Set.of(hitchhicker.getId()), me.getRoleIds());
     }
 
+    @Test
+    public void testGetStructureTransactions() {
+        TestUser owner = this.signup("goulashsensei", "goulash@test.local", "SoSecure");
+        TestUser mate = this.signup("borschsensei", "borsch@test.local", "SoSoSoSecure");
+        this.signIn(owner);
+
+        ColabClient mateClient = this.createRestClient();
+        this.signIn(mateClient, mate);
+
+        Project project = ColabFactory.createProject(client, "The structure");
+        Long rootContentId = ColabFactory.getRootContent(client, project).getId();
+        for (int i = 0; i < 3; i++) {
+            ColabFactory.createNewCard(client, rootContentId);
+        }
+
+        // the structure is read by a simple member: read permission of each entity is checked
+        ColabFactory.inviteAndJoin(client, project, mate.getEmail(), mateClient, mailClient);
+
+        TransactionCounter counter = new TransactionCounter(jtaSyncRegistry);
+        Server server = emf.unwrap(Server.class);
+        server.getEventManager().addListener(counter);
+        try {
+            counter.getAndReset();
+            ProjectStructure structure = mateClient.projectRestEndpoint
+                .getStructureOfProject(project.getId());
+            int nbTransactions = counter.getAndReset();
+            // root card and three cards
+            Assertions.assertEquals(4, structure.getCards().size());
+
+            // more cards, some of them nested
+            for (int i = 0; i < 10; i++) {
+                Card card = ColabFactory.createNewCard(client, rootContentId);
+                Long contentId = ColabFactory.getCardContent(client, card.getId()).getId();
+                ColabFactory.createNewCard(client, contentId);
+            }
+
+            counter.getAndReset();
+            structure = mateClient.projectRestEndpoint.getStructureOfProject(project.getId());
+            Assertions.assertEquals(24, structure.getCards().size());
+
+            // read conditions are evaluated once per request, not once per entity
+            Assertions.assertEquals(nbTransactions, counter.getAndReset());
+        } finally {
+            server.getEventManager().removeListener(counter);
+        }
+    }
+
+    @Test
+    public void testReadProjectLoadedByACondition() {
+        TestUser owner = this.signup("goulashsensei", "goulash@test.local", "SoSecure");
+        TestUser stranger = this.signup("borschsensei", "borsch@test.local", "SoSoSoSecure");
+        this.signIn(owner);
+
+        ColabClient strangerClient = this.createRestClient();
+        this.signIn(strangerClient, stranger);
+        Long strangerId = strangerClient.userRestEndpoint.getCurrentUser().getId();
+
+        Project project = ColabFactory.createProject(client, "Not yours");
+
+        // the project a condition has loaded is checked like any other
+        Throwable thrown = Assertions.assertThrows(Throwable.class,
+            () -> testFacade.findProjectLoadedByACondition(strangerId, project.getId()));
+        while (thrown != null && !(thrown instanceof HttpErrorMessage)) {
+            thrown = thrown.getCause();
+        }
+        Assertions.assertNotNull(thrown, "Expect HttpErrorMessage");
+        Assertions.assertEquals(HttpErrorMessage.MessageCode.ACCESS_DENIED,
+            ((HttpErrorMessage) thrown).getMessageCode());
+    }
+
 //    @Test TODO rewrite or remove
 //    public void testFileWorkspace() {
 //        Project projectOne = ColabFactory.createProject(client, "Project One");
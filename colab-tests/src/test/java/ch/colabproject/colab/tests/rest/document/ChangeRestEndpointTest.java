@@ -0,0 +1,139 @@
+/*
+ * The coLAB project
+ * Copyright (C) 2023 AlbaSim, MEI, HEIG-VD, HES-SO
+ *
+ * Licensed under the MIT License
+ */
+package ch.colabproject.colab.tests.rest.document;
+
+import ch.colabproject.colab.api.microchanges.live.LiveManager;
+import ch.colabproject.colab.api.microchanges.model.Change;
+import ch.colabproject.colab.api.model.card.Card;
+import ch.colabproject.colab.api.model.document.Document;
+import ch.colabproject.colab.api.model.document.Resource;
+import ch.colabproject.colab.api.model.document.TextDataBlock;
+import ch.colabproject.colab.api.model.project.Project;
+import ch.colabproject.colab.api.setup.ColabConfiguration;
+import ch.colabproject.colab.client.ColabClient;
+import ch.colabproject.colab.generator.model.exceptions.HttpErrorMessage;
+import ch.colabproject.colab.tests.ChangeBuilder;
+import ch.colabproject.colab.tests.tests.AbstractArquillianTest;
+import ch.colabproject.colab.tests.tests.ColabFactory;
+import ch.colabproject.colab.tests.tests.TestHelper;
+import ch.colabproject.colab.tests.tests.TestUser;
+import java.util.List;
+import javax.inject.Inject;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Testing of the change rest end point from a client point of view
+ *
+ * @author maxence
+ */
+public class ChangeRestEndpointTest extends AbstractArquillianTest {
+
+    /**
+     * To process pending changes without waiting for the cron
+     */
+    @Inject
+    private LiveManager liveManager;
+
+    /**
+     * Create a card with a text data block
+     */
+    private TextDataBlock createBlock(ColabClient colabClient, String projectName) {
+        Project project = ColabFactory.createProject(colabClient, projectName);
+        Card card = ColabFactory.createNewCard(colabClient, project);
+        Resource resource = ColabFactory.createTextDataBlockCardResource(colabClient,
+            card.getId(), projectName);
+        Document doc = ColabFactory.getOneDocumentOfResource(colabClient, resource);
+        Assertions.assertTrue(doc instanceof TextDataBlock);
+        return (TextDataBlock) doc;
+    }
+
+    private static Change buildChange(TextDataBlock block, ChangeBuilder builder) {
+        Change change = builder.build();
+        change.setAtClass(block.getJsonDiscriminator());
+        change.setAtId(block.getId());
+        return change;
+    }
+
+    /**
+     * Process pending changes, as if the quiet period was over
+     */
+    private void process(Long... blockIds) throws InterruptedException {
+        String quietPeriod = System.getProperty(ColabConfiguration.MICROCHANGES_QUIET_PERIOD);
+        System.setProperty(ColabConfiguration.MICROCHANGES_QUIET_PERIOD, "1");
+        try {
+            Thread.sleep(10);
+            for (Long id : blockIds) {
+                liveManager.process(id);
+            }
+        } finally {
+            if (quietPeriod != null) {
+                System.setProperty(ColabConfiguration.MICROCHANGES_QUIET_PERIOD, quietPeriod);
+            } else {
+                System.clearProperty(ColabConfiguration.MICROCHANGES_QUIET_PERIOD);
+            }
+        }
+    }
+
+    private String getText(Long blockId) {
+        Document doc = client.documentRestEndpoint.getDocument(blockId);
+        Assertions.assertTrue(doc instanceof TextDataBlock);
+        return ((TextDataBlock) doc).getTextData();
+    }
+
+    @Test
+    public void testPatchBlocks() throws InterruptedException {
+        TextDataBlock blockA = createBlock(client, "Block A");
+        TextDataBlock blockB = createBlock(client, "Block B");
+
+        Change a1 = buildChange(blockA,
+            ChangeBuilder.create("s1", "1", blockA.getRevision()).ins(0, "Hello"));
+        Change b1 = buildChange(blockB,
+            ChangeBuilder.create("s1", "2", blockB.getRevision()).ins(0, "Bonjour"));
+        Change a2 = buildChange(blockA,
+            ChangeBuilder.create("s1", "3", "s1::1").ins(5, " world"));
+
+        client.changeRestEndpoint.patchBlocks(List.of(a1, b1, a2));
+
+        Assertions.assertEquals(2, client.changeRestEndpoint.getChanges(blockA.getId()).size());
+        Assertions.assertEquals(1, client.changeRestEndpoint.getChanges(blockB.getId()).size());
+
+        process(blockA.getId(), blockB.getId());
+
+        Assertions.assertEquals("Hello world", getText(blockA.getId()));
+        Assertions.assertEquals("Bonjour", getText(blockB.getId()));
+        Assertions.assertTrue(client.changeRestEndpoint.getChanges(blockA.getId()).isEmpty());
+        Assertions.assertTrue(client.changeRestEndpoint.getChanges(blockB.getId()).isEmpty());
+    }
+
+    @Test
+    public void testPatchUnauthorizedBlock() {
+        TestUser user = this.signup("blockpatcher", "blockpatcher@test.local", "SoSecure");
+        ColabClient userClient = this.createRestClient();
+        this.signIn(userClient, user);
+        TextDataBlock userBlock = createBlock(userClient, "User project");
+
+        // block the user is not allowed to read
+        this.signIn(admin);
+        TextDataBlock adminBlock = createBlock(client, "Admin project");
+
+        Change own = buildChange(userBlock,
+            ChangeBuilder.create("s1", "1", userBlock.getRevision()).ins(0, "mine"));
+        Change other = buildChange(adminBlock,
+            ChangeBuilder.create("s1", "2", adminBlock.getRevision()).ins(0, "yours"));
+
+        TestHelper.assertThrows(HttpErrorMessage.MessageCode.ACCESS_DENIED, () -> {
+            userClient.changeRestEndpoint.patchBlocks(List.of(own, other));
+        });
+
+        // the whole batch is rejected
+        Assertions.assertTrue(userClient.changeRestEndpoint.getChanges(userBlock.getId())
+            .isEmpty());
+        Assertions.assertTrue(client.changeRestEndpoint.getChanges(adminBlock.getId())
+            .isEmpty());
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * The coLAB project
+ * Copyright (C) 2023 AlbaSim, MEI, HEIG-VD, HES-SO
+ *
+ * Licensed under the MIT License
+ */
+package ch.colabproject.colab.tests.tests;
+
+import ch.colabproject.colab.api.persistence.jpa.user.AdminIds;
+import ch.colabproject.colab.api.setup.ColabConfiguration;
+import ch.colabproject.colab.api.ws.channel.model.BlockChannel;
+import ch.colabproject.colab.api.ws.channel.model.BroadcastChannel;
+import ch.colabproject.colab.api.ws.channel.model.ProjectContentChannel;
+import ch.colabproject.colab.api.ws.channel.model.UserChannel;
+import ch.colabproject.colab.api.ws.channel.model.WebsocketChannel;
+import ch.colabproject.colab.api.ws.message.PrecomputedWsMessages;
+import ch.colabproject.colab.api.ws.utils.CompressionHelper;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Make sure objects which travel between the instances of the cluster survive the trip, whether
+ * they are deflated or not.
+ *
+ * @author maxence
+ */
+public class ClusterSerializationTest {
+
+    private static InternalSerializationService ss;
+
+    @BeforeAll
+    public static void init() {
+        ss = new DefaultSerializationServiceBuilder().build();
+    }
+
+    private static String buildJson(int nbObjects) {
+        StringBuilder sb = new StringBuilder("{\"@class\":\"WsUpdateMessage\",\"deleted\":[],"
+            + "\"updated\":[");
+        for (int i = 0; i < nbObjects; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"@class\":\"Card\",\"id\":").append(i)
+                .append(",\"title\":\"Carte n°").append(i).append(" – ✓\"}");
+        }
+        return sb.append("]}").toString();
+    }
+
+    private static <T> T roundTrip(T object) {
+        Data data = ss.toData(object);
+        return ss.toObject(data);
+    }
+
+    @Test
+    public void testDeflate() throws IOException {
+        Random random = new Random(42);
+        for (int length : new int[]{0, 1, 100, 10_000, 100_000}) {
+            char[] chars = new char[length];
+            for (int i = 0; i < length; i++) {
+                // mix of ASCII and multi-byte characters
+                chars[i] = random.nextBoolean() ? (char) ('a' + random.nextInt(26))
+                    : (char) (0x00e0 + random.nextInt(0x0100));
+            }
+            String data = new String(chars);
+            byte[] deflated = CompressionHelper.deflate(data);
+            Assertions.assertEquals(data, CompressionHelper.inflate(deflated));
+        }
+    }
+
+    @Test
+    public void testCorruptedData() {
+        byte[] deflated = CompressionHelper.deflate(buildJson(100));
+
+        Assertions.assertThrows(IOException.class,
+            () -> CompressionHelper.inflate(Arrays.copyOf(deflated, deflated.length / 2)));
+        Assertions.assertThrows(IOException.class,
+            () -> CompressionHelper.inflate(new byte[]{1, 2, 3, 4}));
+    }
+
+    @Test
+    public void testChannels() {
+        List<WebsocketChannel> channels = List.of(
+            BroadcastChannel.build(),
+            UserChannel.build(1L),
+            ProjectContentChannel.build(2L),
+            BlockChannel.build(3L));
+
+        for (WebsocketChannel channel : channels) {
+            WebsocketChannel copy = roundTrip(channel);
+            Assertions.assertEquals(channel, copy);
+            Assertions.assertEquals(channel.getUrn(), copy.getUrn());
+        }
+    }
+
+    @Test
+    public void testPrecomputedMessages() {
+        String small = buildJson(2);
+        String big = buildJson(2_000);
+        Assertions.assertTrue(big.length() >= ColabConfiguration.getClusterCompressionThreshold());
+
+        Map<WebsocketChannel, List<String>> messages = new HashMap<>();
+        messages.put(UserChannel.build(1L), List.of(small));
+        messages.put(ProjectContentChannel.build(1L), List.of(small, big));
+        messages.put(BlockChannel.build(1L), List.of(big));
+        messages.put(BroadcastChannel.build(), List.of());
+
+        PrecomputedWsMessages message = new PrecomputedWsMessages();
+        message.setMessages(messages);
+
+        Data data = ss.toData(message);
+        PrecomputedWsMessages copy = ss.toObject(data);
+        Assertions.assertEquals(messages, copy.getMessages());
+
+        // big messages are deflated
+        Assertions.assertTrue(data.totalSize() < big.length());
+    }
+
+    @Test
+    public void testNullMessages() {
+        PrecomputedWsMessages copy = roundTrip(new PrecomputedWsMessages());
+        Assertions.assertNull(copy.getMessages());
+    }
+
+    @Test
+    public void testAdminIds() {
+        AdminIds notLoaded = roundTrip(new AdminIds(3L, null));
+        Assertions.assertEquals(3L, notLoaded.getVersion());
+        Assertions.assertNull(notLoaded.getIds());
+
+        AdminIds loaded = roundTrip(new AdminIds(4L, Set.of(1L, 2L)));
+        Assertions.assertEquals(4L, loaded.getVersion());
+        Assertions.assertEquals(Set.of(1L, 2L), loaded.getIds());
+
+        AdminIds empty = roundTrip(new AdminIds(5L, Set.of()));
+        Assertions.assertEquals(Set.of(), empty.getIds());
+    }
+}
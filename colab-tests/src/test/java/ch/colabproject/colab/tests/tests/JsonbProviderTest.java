@@ -0,0 +1,121 @@
+/*
+ * The coLAB project
+ * Copyright (C) 2023 AlbaSim, MEI, HEIG-VD, HES-SO
+ *
+ * Licensed under the MIT License
+ */
+package ch.colabproject.colab.tests.tests;
+
+import ch.colabproject.colab.api.ws.message.IndexEntry;
+import ch.colabproject.colab.api.ws.message.WsMessage;
+import ch.colabproject.colab.api.ws.message.WsUpdateMessage;
+import ch.colabproject.colab.generator.model.tools.JsonbProvider;
+import ch.colabproject.colab.generator.model.tools.PolymorphicDeserializer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.json.bind.Jsonb;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Make sure everyone shares the same Jsonb instance and the shared instance behaves like a brand
+ * new one.
+ *
+ * @author maxence
+ */
+public class JsonbProviderTest {
+
+    @BeforeAll
+    public static void init() {
+        PolymorphicDeserializer.includePackage("ch.colabproject.colab.api");
+    }
+
+    private WsUpdateMessage buildMessage() {
+        WsUpdateMessage message = new WsUpdateMessage();
+        for (long i = 0; i < 10; i++) {
+            IndexEntry entry = new IndexEntry();
+            entry.setType("Card");
+            entry.setId(i);
+            message.getDeleted().add(entry);
+        }
+        return message;
+    }
+
+    @Test
+    public void testSharedInstance() {
+        Jsonb jsonb = JsonbProvider.getJsonb();
+        Assertions.assertSame(jsonb, JsonbProvider.getJsonb());
+        Assertions.assertSame(jsonb, new JsonbProvider().getContext(WsMessage.class));
+        Assertions.assertSame(jsonb, new JsonbProvider().getContext(IndexEntry.class));
+    }
+
+    @Test
+    public void testConcurrentInit() throws Exception {
+        JsonbProvider.release();
+
+        int nbThreads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+        try {
+            List<Callable<Jsonb>> tasks = new ArrayList<>();
+            for (int i = 0; i < nbThreads; i++) {
+                tasks.add(JsonbProvider::getJsonb);
+            }
+            Jsonb expected = null;
+            for (Future<Jsonb> future : executor.invokeAll(tasks)) {
+                Jsonb jsonb = future.get();
+                Assertions.assertNotNull(jsonb);
+                if (expected == null) {
+                    expected = jsonb;
+                }
+                Assertions.assertSame(expected, jsonb);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testRelease() {
+        Jsonb first = JsonbProvider.getJsonb();
+        JsonbProvider.release();
+        Jsonb second = JsonbProvider.getJsonb();
+
+        Assertions.assertNotSame(first, second);
+        Assertions.assertSame(second, JsonbProvider.getJsonb());
+
+        // the new instance is fully functional
+        String json = second.toJson(buildMessage());
+        WsMessage message = second.fromJson(json, WsMessage.class);
+        Assertions.assertTrue(message instanceof WsUpdateMessage);
+    }
+
+    @Test
+    public void testSameOutputAsNewInstance() throws Exception {
+        WsUpdateMessage message = buildMessage();
+
+        String shared = JsonbProvider.getJsonb().toJson(message);
+        String fresh;
+        try (Jsonb jsonb = JsonbProvider.createJsonb()) {
+            fresh = jsonb.toJson(message);
+        }
+        Assertions.assertEquals(fresh, shared);
+
+        WsMessage parsed = JsonbProvider.getJsonb().fromJson(shared, WsMessage.class);
+        Assertions.assertTrue(parsed instanceof WsUpdateMessage);
+        Assertions.assertEquals(message.getDeleted(), ((WsUpdateMessage) parsed).getDeleted());
+    }
+
+    @Test
+    public void testWarmUp() {
+        int count = JsonbProvider.warmUp(
+            Set.of(WsUpdateMessage.class, WsMessage.class, IndexEntry.class));
+        // abstract WsMessage is skipped
+        Assertions.assertEquals(2, count);
+    }
+}
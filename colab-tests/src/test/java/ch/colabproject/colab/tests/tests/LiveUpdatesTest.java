@@ -639,4 +639,171 @@ public class LiveUpdatesTest {
 
         Assertions.assertEquals("apple banana", result.getContent());
     }
+
+    @Test
+    public void testStablePrefixConcurrentBranches() {
+        String session1 = "s1";
+        String session2 = "s2";
+
+        LiveUpdates lu = new LiveUpdates();
+
+        lu.setContent("Hello");
+        lu.setRevision("0");
+        lu.setTargetClass("@test");
+        lu.setTargetId(0l);
+
+        lu.setPendingChanges(new ArrayList<>());
+        List<Change> chs = lu.getPendingChanges();
+
+        chs.add(ChangeBuilder.create(session1, "1", "0")
+            .ins(5, " world").build());
+
+        chs.add(ChangeBuilder.create(session2, "1", "0")
+            .ins(0, ">").build());
+
+        // both branches are still open: nothing can be checkpointed
+        Assertions.assertTrue(lu.getStablePrefix().getPendingChanges().isEmpty());
+    }
+
+    @Test
+    public void testStablePrefixCheckpoint() {
+        String session1 = "s1";
+        String session2 = "s2";
+
+        LiveUpdates lu = new LiveUpdates();
+
+        lu.setContent("Hello");
+        lu.setRevision("0");
+        lu.setTargetClass("@test");
+        lu.setTargetId(0l);
+
+        lu.setPendingChanges(new ArrayList<>());
+        List<Change> chs = lu.getPendingChanges();
+
+        // "Hello" -> "Hello world"
+        chs.add(ChangeBuilder.create(session1, "1", "0")
+            .ins(5, " world").build());
+
+        // "Hello world" -> ">Hello world"
+        chs.add(ChangeBuilder.create(session2, "1", session1 + "::1")
+            .ins(0, ">").build());
+
+        // "Hello world" -> "Hello world!"
+        chs.add(ChangeBuilder.create(session1, "2", session1 + "::1")
+            .ins(11, "!").build());
+
+        LiveUpdates prefix = lu.getStablePrefix();
+        Assertions.assertEquals(1, prefix.getPendingChanges().size());
+
+        LiveResult checkpoint = prefix.process(false);
+        Assertions.assertEquals("Hello world", checkpoint.getContent());
+        Assertions.assertEquals(session1 + "::1", checkpoint.getRevision());
+
+        // remaining changes are processed on top of the checkpoint
+        LiveUpdates remaining = new LiveUpdates();
+        remaining.setContent(checkpoint.getContent());
+        remaining.setRevision(checkpoint.getRevision());
+        remaining.setTargetClass("@test");
+        remaining.setTargetId(0l);
+        remaining.setPendingChanges(new ArrayList<>(chs));
+        remaining.getPendingChanges().removeAll(prefix.getPendingChanges());
+
+        Assertions.assertEquals(lu.process(false).getContent(),
+            remaining.process(false).getContent());
+        Assertions.assertEquals(">Hello world!", remaining.process(false).getContent());
+    }
+
+    @Test
+    public void testStablePrefixAfterMerge() {
+        String session1 = "s1";
+        String session2 = "s2";
+
+        LiveUpdates lu = new LiveUpdates();
+
+        lu.setContent("ab");
+        lu.setRevision("0");
+        lu.setTargetClass("@test");
+        lu.setTargetId(0l);
+
+        lu.setPendingChanges(new ArrayList<>());
+        List<Change> chs = lu.getPendingChanges();
+
+        chs.add(ChangeBuilder.create(session1, "1", "0")
+            .ins(0, "1").build());
+
+        chs.add(ChangeBuilder.create(session2, "1", "0")
+            .ins(2, "2").build());
+
+        // session1 merges both branches: "1ab2"
+        chs.add(ChangeBuilder.create(session1, "2", session1 + "::1", session2 + "::1")
+            .ins(4, "3").build());
+
+        chs.add(ChangeBuilder.create(session1, "3", session1 + "::2")
+            .ins(0, "4").build());
+
+        chs.add(ChangeBuilder.create(session2, "2", session1 + "::2")
+            .ins(1, "5").build());
+
+        // both branches are based on the merge
+        LiveUpdates prefix = lu.getStablePrefix();
+        Assertions.assertEquals(3, prefix.getPendingChanges().size());
+        Assertions.assertEquals(session1 + "::2", prefix.process(false).getRevision());
+    }
+
+    @Test
+    public void testStablePrefixLateChange() {
+        String session1 = "s1";
+        String session2 = "s2";
+
+        LiveUpdates lu = new LiveUpdates();
+
+        lu.setContent("Hello");
+        lu.setRevision("0");
+        lu.setTargetClass("@test");
+        lu.setTargetId(0l);
+
+        lu.setPendingChanges(new ArrayList<>());
+        List<Change> chs = lu.getPendingChanges();
+
+        // "Hello" -> ">Hello"
+        chs.add(ChangeBuilder.create(session2, "1", "0")
+            .ins(0, ">").build());
+
+        // ">Hello" -> ">Hello world"
+        chs.add(ChangeBuilder.create(session1, "1", session2 + "::1")
+            .ins(6, " world").build());
+
+        // ">Hello world" -> ">Hello world!"
+        chs.add(ChangeBuilder.create(session1, "2", session1 + "::1")
+            .ins(12, "!").build());
+
+        // session2 has not acknowledged session1 changes yet: only its own change is folded
+        LiveUpdates prefix = lu.getStablePrefix();
+        Assertions.assertEquals(1, prefix.getPendingChanges().size());
+
+        LiveResult checkpoint = prefix.process(false);
+        Assertions.assertEquals(">Hello", checkpoint.getContent());
+        Assertions.assertEquals(session2 + "::1", checkpoint.getRevision());
+
+        LiveUpdates remaining = new LiveUpdates();
+        remaining.setContent(checkpoint.getContent());
+        remaining.setRevision(checkpoint.getRevision());
+        remaining.setTargetClass("@test");
+        remaining.setTargetId(0l);
+        remaining.setPendingChanges(new ArrayList<>(chs));
+        remaining.getPendingChanges().removeAll(prefix.getPendingChanges());
+
+        // session2 goes on editing its own version after the checkpoint: ">Oh Hello"
+        Change late = ChangeBuilder.create(session2, "2", session2 + "::1")
+            .ins(1, "Oh ").build();
+        chs.add(late);
+        remaining.getPendingChanges().add(late);
+
+        // the late change is still based on a known revision
+        Assertions.assertTrue(late.getBasedOn().contains(remaining.getRevision()));
+
+        Assertions.assertEquals(lu.process(false).getContent(),
+            remaining.process(false).getContent());
+        Assertions.assertEquals(">Oh Hello world!", remaining.process(false).getContent());
+    }
 }
@@ -0,0 +1,170 @@
+/*
+ * The coLAB project
+ * Copyright (C) 2023 AlbaSim, MEI, HEIG-VD, HES-SO
+ *
+ * Licensed under the MIT License
+ */
+package ch.colabproject.colab.tests.tests;
+
+import ch.colabproject.colab.api.model.WithWebsocketChannels;
+import ch.colabproject.colab.api.model.card.Card;
+import ch.colabproject.colab.api.ws.message.IndexEntry;
+import ch.colabproject.colab.api.ws.message.WsMessage;
+import ch.colabproject.colab.api.ws.message.WsUpdateMessage;
+import ch.colabproject.colab.generator.model.interfaces.WithJsonDiscriminator;
+import ch.colabproject.colab.generator.model.tools.JsonbProvider;
+import ch.colabproject.colab.generator.model.tools.PolymorphicDeserializer;
+import java.io.StringReader;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonReader;
+import javax.json.bind.Jsonb;
+import javax.json.bind.JsonbException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Make sure polymorphic payloads are deserialized the same way, whatever the position of the
+ * <code>@class</code> discriminator.
+ *
+ * @author maxence
+ */
+public class PolymorphicDeserializerTest {
+
+    @BeforeAll
+    public static void init() {
+        PolymorphicDeserializer.includePackage("ch.colabproject.colab.api");
+    }
+
+    /**
+     * Move the discriminator at the end of the object, to force the slow path
+     */
+    private static String moveDiscriminatorLast(String json) {
+        try (JsonReader reader = Json.createReader(new StringReader(json))) {
+            JsonObject object = reader.readObject();
+            JsonObjectBuilder builder = Json.createObjectBuilder();
+            object.forEach((key, value) -> {
+                if (!"@class".equals(key)) {
+                    builder.add(key, value);
+                }
+            });
+            builder.add("@class", object.get("@class"));
+            return builder.build().toString();
+        }
+    }
+
+    /**
+     * Create an empty instance of the class, if it has a public default constructor
+     */
+    private static WithJsonDiscriminator newInstance(
+        Class<? extends WithJsonDiscriminator> klass) {
+        try {
+            Constructor<? extends WithJsonDiscriminator> constructor = klass.getConstructor();
+            return constructor.newInstance();
+        } catch (ReflectiveOperationException ex) {
+            return null;
+        }
+    }
+
+    @Test
+    public void testRoundTripAllKnownTypes() {
+        Jsonb jsonb = JsonbProvider.getJsonb();
+        int count = 0;
+
+        for (Class<? extends WithJsonDiscriminator> klass : PolymorphicDeserializer
+            .getKnownTypes()) {
+            if (klass.isInterface() || Modifier.isAbstract(klass.getModifiers())) {
+                continue;
+            }
+            WithJsonDiscriminator object = newInstance(klass);
+            if (object == null) {
+                continue;
+            }
+            String json;
+            try {
+                json = jsonb.toJson(object);
+            } catch (RuntimeException ex) {
+                // empty instance can not be serialized: nothing to deserialize
+                continue;
+            }
+
+            // reference: direct deserialization of the concrete class
+            String expected = jsonb.toJson(jsonb.fromJson(json, klass));
+
+            WithJsonDiscriminator fast = jsonb.fromJson(json, WithJsonDiscriminator.class);
+            Assertions.assertEquals(klass, fast.getClass(), json);
+            Assertions.assertEquals(expected, jsonb.toJson(fast), json);
+
+            WithJsonDiscriminator slow = jsonb.fromJson(moveDiscriminatorLast(json),
+                WithJsonDiscriminator.class);
+            Assertions.assertEquals(klass, slow.getClass(), json);
+            Assertions.assertEquals(expected, jsonb.toJson(slow), json);
+
+            count++;
+        }
+
+        Assertions.assertTrue(count > 0);
+    }
+
+    @Test
+    public void testNested() {
+        Jsonb jsonb = JsonbProvider.getJsonb();
+
+        WsUpdateMessage message = new WsUpdateMessage();
+        Card card = new Card();
+        card.setId(42L);
+        message.getUpdated().add(card);
+        IndexEntry entry = new IndexEntry();
+        entry.setType("CardContent");
+        entry.setId(7L);
+        message.getDeleted().add(entry);
+
+        String json = jsonb.toJson(message);
+        String array = "[" + json + ", " + moveDiscriminatorLast(json) + "]";
+        Type listType = new ArrayList<WsMessage>() {
+            private static final long serialVersionUID = 1L;
+        }.getClass().getGenericSuperclass();
+
+        List<WsMessage> messages = jsonb.fromJson(array, listType);
+
+        Assertions.assertEquals(2, messages.size());
+        for (WsMessage m : messages) {
+            Assertions.assertTrue(m instanceof WsUpdateMessage);
+            WsUpdateMessage update = (WsUpdateMessage) m;
+            Assertions.assertEquals(1, update.getUpdated().size());
+            WithWebsocketChannels updated = update.getUpdated().iterator().next();
+            Assertions.assertTrue(updated instanceof Card);
+            Assertions.assertEquals(card.getId(), ((Card) updated).getId());
+            Assertions.assertEquals(message.getDeleted(), update.getDeleted());
+        }
+    }
+
+    @Test
+    public void testNullDiscriminator() {
+        Jsonb jsonb = JsonbProvider.getJsonb();
+
+        Assertions.assertThrows(JsonbException.class,
+            () -> jsonb.fromJson("{\"@class\": null, \"deleted\": []}", WsMessage.class));
+        Assertions.assertThrows(JsonbException.class,
+            () -> jsonb.fromJson("{\"deleted\": [], \"@class\": null}", WsMessage.class));
+        Assertions.assertThrows(JsonbException.class,
+            () -> jsonb.fromJson("{\"deleted\": []}", WsMessage.class));
+    }
+
+    @Test
+    public void testUnknownDiscriminator() {
+        Jsonb jsonb = JsonbProvider.getJsonb();
+
+        Assertions.assertThrows(JsonbException.class,
+            () -> jsonb.fromJson("{\"@class\": \"NoSuchClass\"}", WsMessage.class));
+        Assertions.assertThrows(JsonbException.class,
+            () -> jsonb.fromJson("{\"@class\": 12}", WsMessage.class));
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * The coLAB project
+ * Copyright (C) 2023 AlbaSim, MEI, HEIG-VD, HES-SO
+ *
+ * Licensed under the MIT License
+ */
+package ch.colabproject.colab.tests.tests;
+
+import ch.colabproject.colab.api.model.WithWebsocketChannels;
+import ch.colabproject.colab.api.model.user.User;
+import ch.colabproject.colab.api.ws.message.IndexEntry;
+import ch.colabproject.colab.api.ws.utils.PropagationIndex;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Make sure the propagation index filters deleted objects out of updated ones, the same way the
+ * former linear scan did.
+ *
+ * @author maxence
+ */
+public class PropagationIndexTest {
+
+    private static User buildUser(long id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+
+    @Test
+    public void testDeletionWins() {
+        User user = buildUser(1L);
+
+        PropagationIndex updateFirst = new PropagationIndex();
+        updateFirst.registerUpdate(user);
+        updateFirst.registerDeletion(user);
+        Assertions.assertTrue(updateFirst.getUpdated().isEmpty());
+        Assertions.assertEquals(Set.of(IndexEntry.build(user)), updateFirst.getDeleted());
+
+        PropagationIndex deleteFirst = new PropagationIndex();
+        deleteFirst.registerDeletion(user);
+        deleteFirst.registerUpdate(user);
+        Assertions.assertTrue(deleteFirst.getUpdated().isEmpty());
+        Assertions.assertEquals(Set.of(IndexEntry.build(user)), deleteFirst.getDeleted());
+    }
+
+    @Test
+    public void testLatestUpdateWins() {
+        User first = buildUser(1L);
+        User second = buildUser(1L);
+        second.setFirstname("second");
+
+        PropagationIndex index = new PropagationIndex();
+        index.registerUpdate(first);
+        index.registerUpdate(buildUser(2L));
+        index.registerUpdate(second);
+
+        Assertions.assertEquals(2, index.getUpdated().size());
+        Assertions.assertTrue(index.getUpdated().stream().anyMatch(u -> u == second));
+        Assertions.assertFalse(index.getUpdated().stream().anyMatch(u -> u == first));
+        Assertions.assertFalse(index.isEmpty());
+        Assertions.assertTrue(new PropagationIndex().isEmpty());
+    }
+
+    @Test
+    public void testSameResultAsScan() {
+        Random random = new Random(42);
+        List<User> users = random.longs(5_000, 0, 1_000).boxed()
+            .map(PropagationIndexTest::buildUser)
+            .collect(Collectors.toList());
+
+        PropagationIndex index = new PropagationIndex();
+        Set<WithWebsocketChannels> updated = new HashSet<>();
+        Set<IndexEntry> deleted = new HashSet<>();
+        for (User user : users) {
+            if (random.nextInt(3) == 0) {
+                index.registerDeletion(user);
+                deleted.add(IndexEntry.build(user));
+            } else {
+                index.registerUpdate(user);
+                updated.add(user);
+            }
+        }
+
+        Set<String> expected = updated.stream()
+            .filter(u -> !deleted.stream()
+                .anyMatch(d -> d.getType().equals(u.getJsonDiscriminator())
+                    && d.getId().equals(u.getId()))
+            ).map(u -> u.getJsonDiscriminator() + "#" + u.getId())
+            .collect(Collectors.toSet());
+        Set<String> actual = index.getUpdated().stream()
+            .map(u -> u.getJsonDiscriminator() + "#" + u.getId())
+            .collect(Collectors.toSet());
+
+        Assertions.assertEquals(expected, actual);
+        Assertions.assertEquals(deleted, index.getDeleted());
+    }
+}
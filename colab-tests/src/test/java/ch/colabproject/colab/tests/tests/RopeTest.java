@@ -0,0 +1,127 @@
+/*
+ * The coLAB project
+ * Copyright (C) 2023 AlbaSim, MEI, HEIG-VD, HES-SO
+ *
+ * Licensed under the MIT License
+ */
+package ch.colabproject.colab.tests.tests;
+
+import ch.colabproject.colab.api.microchanges.live.Rope;
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * A rope must behave exactly like a StringBuilder
+ *
+ * @author maxence
+ */
+public class RopeTest {
+
+    private static String randomText(Random random, int maxLength) {
+        int length = random.nextInt(maxLength + 1);
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append((char) ('a' + random.nextInt(26)));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Apply the same random edits to a rope and to a StringBuilder
+     *
+     * @param seed        random seed
+     * @param initialText initial text
+     * @param nbEdits     number of edits
+     * @param maxLength   max length of inserted/deleted texts
+     */
+    private void assertSameEdits(long seed, String initialText, int nbEdits, int maxLength) {
+        Random random = new Random(seed);
+        StringBuilder expected = new StringBuilder(initialText);
+        Rope rope = new Rope(initialText);
+
+        for (int i = 0; i < nbEdits; i++) {
+            int offset = random.nextInt(expected.length() + 1);
+            switch (random.nextInt(3)) {
+                case 0:
+                    String text = randomText(random, maxLength);
+                    expected.insert(offset, text);
+                    rope.insert(offset, text);
+                    break;
+                case 1:
+                    // may go beyond the end of the text
+                    int end = offset + random.nextInt(maxLength + 1);
+                    expected.delete(offset, end);
+                    rope.delete(offset, end);
+                    break;
+                default:
+                    String appended = randomText(random, maxLength);
+                    expected.append(appended);
+                    rope.append(appended);
+                    break;
+            }
+            Assertions.assertEquals(expected.length(), rope.length(), "length after edit " + i);
+        }
+        Assertions.assertEquals(expected.toString(), rope.toString());
+    }
+
+    @Test
+    public void testSmallEditsOnBigText() {
+        String text = "Lorem ipsum dolor sit amet. ".repeat(2000);
+        assertSameEdits(1, text, 5000, 4);
+    }
+
+    @Test
+    public void testBigEditsOnSmallText() {
+        // inserted texts are longer than chunks
+        assertSameEdits(2, "Salut", 500, 2000);
+    }
+
+    @Test
+    public void testEditsFromEmptyText() {
+        assertSameEdits(3, "", 2000, 16);
+        Assertions.assertEquals("", new Rope().toString());
+        Assertions.assertEquals("", new Rope(null).toString());
+    }
+
+    @Test
+    public void testIntermediateStates() {
+        Random random = new Random(4);
+        StringBuilder expected = new StringBuilder("0123456789".repeat(100));
+        Rope rope = new Rope(expected.toString());
+
+        for (int i = 0; i < 500; i++) {
+            int offset = random.nextInt(expected.length() + 1);
+            if (random.nextBoolean()) {
+                expected.insert(offset, i);
+                rope.insert(offset, "" + i);
+            } else {
+                expected.delete(offset, offset + 3);
+                rope.delete(offset, offset + 3);
+            }
+            Assertions.assertEquals(expected.toString(), rope.toString(), "after edit " + i);
+        }
+    }
+
+    @Test
+    public void testInvalidOffsets() {
+        Rope rope = new Rope("Salut");
+
+        Assertions.assertThrows(StringIndexOutOfBoundsException.class,
+            () -> rope.insert(-1, "x"));
+        Assertions.assertThrows(StringIndexOutOfBoundsException.class,
+            () -> rope.insert(6, "x"));
+        Assertions.assertThrows(StringIndexOutOfBoundsException.class,
+            () -> rope.delete(-1, 2));
+        Assertions.assertThrows(StringIndexOutOfBoundsException.class,
+            () -> rope.delete(3, 2));
+        Assertions.assertThrows(StringIndexOutOfBoundsException.class,
+            () -> rope.delete(6, 8));
+
+        // like StringBuilder, null is inserted as "null" and deleting empty ranges is fine
+        rope.insert(5, null);
+        rope.delete(2, 2);
+        rope.delete(9, 9);
+        Assertions.assertEquals("Salutnull", rope.toString());
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * The coLAB project
+ * Copyright (C) 2023 AlbaSim, MEI, HEIG-VD, HES-SO
+ *
+ * Licensed under the MIT License
+ */
+package ch.colabproject.colab.tests.tests;
+
+import ch.colabproject.colab.api.ws.utils.SessionOutbox;
+import ch.colabproject.colab.api.ws.utils.SessionOutbox.BackPressurePolicy;
+import ch.colabproject.colab.api.ws.utils.WebsocketCounters;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import javax.websocket.RemoteEndpoint;
+import javax.websocket.SendHandler;
+import javax.websocket.SendResult;
+import javax.websocket.Session;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test outbox back-pressure policies against a client which does not read its frames.
+ *
+ * @author maxence
+ */
+public class SessionOutboxTest {
+
+    /**
+     * Fake websocket session. Frames are recorded but sends complete only on demand.
+     */
+    private static class StalledClient {
+
+        private final List<String> sent = new ArrayList<>();
+
+        private final LinkedList<SendHandler> pending = new LinkedList<>();
+
+        private boolean open = true;
+
+        private final Session session;
+
+        StalledClient() {
+            RemoteEndpoint.Async async = (RemoteEndpoint.Async) Proxy.newProxyInstance(
+                getClass().getClassLoader(),
+                new Class<?>[]{RemoteEndpoint.Async.class},
+                (proxy, method, args) -> {
+                    if ("sendText".equals(method.getName())) {
+                        sent.add((String) args[0]);
+                        pending.add((SendHandler) args[1]);
+                    }
+                    return null;
+                });
+
+            session = (Session) Proxy.newProxyInstance(
+                getClass().getClassLoader(),
+                new Class<?>[]{Session.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "isOpen":
+                            return open;
+                        case "getId":
+                            return "stalled";
+                        case "getAsyncRemote":
+                            return async;
+                        case "close":
+                            open = false;
+                            return null;
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        default:
+                            return null;
+                    }
+                });
+        }
+
+        /**
+         * Acknowledge the oldest pending send
+         */
+        void ack() {
+            pending.removeFirst().onResult(new SendResult());
+        }
+
+        /**
+         * Acknowledge all sends, including the ones triggered by acknowledgements
+         */
+        void ackAll() {
+            while (!pending.isEmpty()) {
+                ack();
+            }
+        }
+    }
+
+    private static SessionOutbox createOutbox(StalledClient client, int capacity, long maxSize,
+        BackPressurePolicy policy) {
+        return new SessionOutbox(client.session, capacity, maxSize, policy,
+            new WebsocketCounters(), -1);
+    }
+
+    @Test
+    public void testFifo() {
+        StalledClient client = new StalledClient();
+        SessionOutbox outbox = createOutbox(client, 10, 1 << 20, BackPressurePolicy.DISCONNECT);
+
+        outbox.offer("{\"m\":0}");
+        outbox.offer("{\"m\":1}");
+        outbox.offer("{\"m\":2}");
+
+        // only one frame in flight
+        Assertions.assertEquals(List.of("{\"m\":0}"), client.sent);
+        Assertions.assertEquals(2, outbox.getSize());
+
+        client.ackAll();
+        Assertions.assertEquals(List.of("{\"m\":0}", "{\"m\":1}", "{\"m\":2}"), client.sent);
+        Assertions.assertEquals(0, outbox.getSize());
+        Assertions.assertEquals(0, outbox.getQueuedSize());
+    }
+
+    @Test
+    public void testDropOldest() {
+        StalledClient client = new StalledClient();
+        SessionOutbox outbox = createOutbox(client, 2, 1 << 20, BackPressurePolicy.DROP_OLDEST);
+
+        for (int i = 0; i < 5; i++) {
+            outbox.offer("{\"m\":" + i + "}");
+        }
+        // m0 in flight, m1 and m2 dropped
+        Assertions.assertEquals(2, outbox.getSize());
+
+        client.ackAll();
+        Assertions.assertEquals(List.of("{\"m\":0}", "{\"m\":3}", "{\"m\":4}"), client.sent);
+        Assertions.assertTrue(client.open);
+    }
+
+    @Test
+    public void testCoalesce() {
+        StalledClient client = new StalledClient();
+        SessionOutbox outbox = createOutbox(client, 2, 1 << 20, BackPressurePolicy.COALESCE);
+
+        outbox.offer("{\"m\":0}");
+        outbox.offer("{\"m\":1}");
+        outbox.offer("[{\"m\":2}, {\"m\":3}]");
+        outbox.offer("[]");
+        outbox.offer("{\"m\":4}");
+        Assertions.assertEquals(2, outbox.getSize());
+
+        client.ackAll();
+        Assertions.assertEquals(List.of(
+            "{\"m\":0}",
+            "[{\"m\":1}, {\"m\":2}, {\"m\":3}]",
+            "{\"m\":4}"), client.sent);
+        Assertions.assertTrue(client.open);
+    }
+
+    @Test
+    public void testDisconnect() {
+        StalledClient client = new StalledClient();
+        SessionOutbox outbox = createOutbox(client, 2, 1 << 20, BackPressurePolicy.DISCONNECT);
+
+        for (int i = 0; i < 4; i++) {
+            outbox.offer("{\"m\":" + i + "}");
+        }
+
+        Assertions.assertFalse(client.open);
+        Assertions.assertTrue(outbox.isClosed());
+        Assertions.assertEquals(0, outbox.getSize());
+        Assertions.assertEquals(0, outbox.getQueuedSize());
+
+        // later frames are dropped
+        outbox.offer("{\"m\":4}");
+        Assertions.assertEquals(List.of("{\"m\":0}"), client.sent);
+    }
+
+    @Test
+    public void testCoalesceIsBounded() {
+        StalledClient client = new StalledClient();
+        String frame = "{\"data\":\"" + "x".repeat(90) + "\"}";
+        // ten frames at most
+        SessionOutbox outbox = createOutbox(client, 2, frame.length() * 10,
+            BackPressurePolicy.COALESCE);
+
+        for (int i = 0; i < 100 && client.open; i++) {
+            outbox.offer(frame);
+            Assertions.assertTrue(outbox.getQueuedSize() <= frame.length() * 10L
+                || outbox.isClosed());
+        }
+
+        Assertions.assertFalse(client.open);
+        Assertions.assertTrue(outbox.isClosed());
+        Assertions.assertEquals(0, outbox.getQueuedSize());
+    }
+
+    @Test
+    public void testMaxSizeAppliesToAllPolicies() {
+        for (BackPressurePolicy policy : BackPressurePolicy.values()) {
+            StalledClient client = new StalledClient();
+            SessionOutbox outbox = createOutbox(client, 100, 50, policy);
+
+            outbox.offer("{\"m\":0}");
+            // m0 is in flight: 42 bytes queued, below the limit
+            outbox.offer("{\"data\":\"" + "x".repeat(30) + "\"}");
+            Assertions.assertTrue(client.open, policy.toString());
+            outbox.offer("{\"data\":\"" + "x".repeat(30) + "\"}");
+
+            Assertions.assertFalse(client.open, policy.toString());
+            Assertions.assertTrue(outbox.isClosed(), policy.toString());
+        }
+    }
+}
@@ -7,7 +7,13 @@
 package ch.colabproject.colab.tests.tests;
 
 import ch.colabproject.colab.api.controller.RequestManager;
+import ch.colabproject.colab.api.controller.security.SecurityManager;
 import ch.colabproject.colab.api.controller.user.UserManager;
+import ch.colabproject.colab.api.model.WithPermission;
+import ch.colabproject.colab.api.model.project.Project;
+import ch.colabproject.colab.api.persistence.jpa.project.ProjectDao;
+import ch.colabproject.colab.api.persistence.jpa.user.UserDao;
+import ch.colabproject.colab.api.security.permissions.Conditions;
 import javax.ejb.LocalBean;
 import javax.ejb.Stateless;
 import javax.inject.Inject;
@@ -31,6 +37,15 @@ public class TestFacade {
     @Inject
     private RequestManager requestManager;
 
+    @Inject
+    private SecurityManager securityManager;
+
+    @Inject
+    private UserDao userDao;
+
+    @Inject
+    private ProjectDao projectDao;
+
     /**
      * Hack to give admin right to anybody without required rights. This hash is only available
      * within the test scope
@@ -40,4 +55,41 @@ public class TestFacade {
     public void grantAdminRight(Long id) {
         requestManager.sudo(() -> userManager.grantAdminRight(id));
     }
+
+    /**
+     * As the given user, evaluate a read condition which loads the given project, then read the
+     * project within the same transaction.
+     *
+     * @param userId    id of the user
+     * @param projectId id of the project
+     *
+     * @return the project, if the user is allowed to read it
+     */
+    public Project findProjectLoadedByACondition(Long userId, Long projectId) {
+        requestManager.sudo(
+            () -> requestManager.login(userDao.findUser(userId).getAccounts().get(0)));
+        try {
+            securityManager.assertReadPermissionTx(new WithPermission() {
+                @Override
+                public Conditions.Condition getReadCondition() {
+                    return new Conditions.Condition() {
+                        @Override
+                        protected boolean internalEval(RequestManager requestManager,
+                            SecurityManager securityManager) {
+                            return projectDao.findProject(projectId) != null;
+                        }
+                    };
+                }
+
+                @Override
+                public Conditions.Condition getUpdateCondition() {
+                    return Conditions.alwaysFalse;
+                }
+            });
+
+            return projectDao.findProject(projectId);
+        } finally {
+            requestManager.logout();
+        }
+    }
 }
@@ -1736,6 +1736,10 @@ export const patchBlock = createAsyncThunk(
   },
 );
 
+export const patchBlocks = createAsyncThunk('block/patchMany', async (changes: Change[]) => {
+  return await restClient.ChangeRestEndpoint.patchBlocks(changes);
+});
+
 export const deletePendingChanges = createAsyncThunk('block/deleteChanges', async (id: number) => {
   return await restClient.ChangeRestEndpoint.deletePendingChanges(id);
 });
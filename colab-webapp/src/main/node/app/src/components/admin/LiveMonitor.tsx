@@ -17,7 +17,7 @@ import IconButton from '../common/element/IconButton';
 
 const grid = css({
   display: 'grid',
-  gridTemplateColumns: 'repeat(4, max-content)',
+  gridTemplateColumns: 'repeat(7, max-content)',
   gridGap: '10px',
 });
 
@@ -30,6 +30,20 @@ const header = css({
   fontWeight: 'bolder',
 });
 
+function formatSize(size: number | null | undefined): string {
+  if (size == null) {
+    return '-';
+  }
+  return size < 1024 ? `${size} B` : `${(size / 1024).toFixed(1)} kB`;
+}
+
+function formatAge(age: number | null | undefined): string {
+  if (age == null) {
+    return '-';
+  }
+  return `${Math.round(age / 1000)} s`;
+}
+
 function Grid({ data, sync }: { data: BlockMonitoring[]; sync: () => void }): JSX.Element {
   const dispatch = useAppDispatch();
 
@@ -39,6 +53,9 @@ function Grid({ data, sync }: { data: BlockMonitoring[]; sync: () => void }): JS
         <div>BlockId</div>
         <div>Path</div>
         <div>Status</div>
+        <div>Changes</div>
+        <div>Size</div>
+        <div>Age</div>
         <div>Action</div>
       </div>
       {data.map((entry, i) => (
@@ -46,28 +63,33 @@ function Grid({ data, sync }: { data: BlockMonitoring[]; sync: () => void }): JS
           <div>{entry.blockId}</div>
           <div>{entry.title}</div>
           <div>{entry.status}</div>
-          {(entry.status === 'UNHEALTHY' || entry.status === 'DATA_ERROR') && (
-            <Button
-              title="Restore previous version"
-              icon={'history'}
-              onClick={() => {
-                dispatch(API.deletePendingChanges(entry.blockId)).then(() => {
-                  sync();
-                });
-              }}
-            />
-          )}
-          {entry.status === 'DELETED' && (
-            <Button
-              title="Clean"
-              icon={putInBinDefaultIcon}
-              onClick={() => {
-                dispatch(API.deletePendingChanges(entry.blockId)).then(() => {
-                  sync();
-                });
-              }}
-            />
-          )}
+          <div>{entry.nbChanges ?? '-'}</div>
+          <div>{formatSize(entry.size)}</div>
+          <div>{formatAge(entry.age)}</div>
+          <div>
+            {(entry.status === 'UNHEALTHY' || entry.status === 'DATA_ERROR') && (
+              <Button
+                title="Restore previous version"
+                icon={'history'}
+                onClick={() => {
+                  dispatch(API.deletePendingChanges(entry.blockId)).then(() => {
+                    sync();
+                  });
+                }}
+              />
+            )}
+            {entry.status === 'DELETED' && (
+              <Button
+                title="Clean"
+                icon={putInBinDefaultIcon}
+                onClick={() => {
+                  dispatch(API.deletePendingChanges(entry.blockId)).then(() => {
+                    sync();
+                  });
+                }}
+              />
+            )}
+          </div>
         </div>
       ))}
     </div>
@@ -14,6 +14,7 @@ import { getLogger } from '../../logger';
 import { useAppDispatch, useAppSelector } from '../../store/hooks';
 import { useChanges } from '../../store/selectors/changeSelector';
 import { useSessionId } from '../../store/selectors/websocketSelector';
+import { markSessionLinked, sendChanges } from '../../ws/websocket';
 
 //import {ToastClsMarkdownEditor} from '../blocks/markdown/ToastClsMarkdownEditor';
 
@@ -76,7 +77,12 @@ export function useBlock(blockId: number | null | undefined): TextDataBlock | nu
       if (!count) {
         // subscribe
         currentChannels[channelId] = 1;
-        dispatch(API.subscribeToBlockChannel(blockId));
+        dispatch(API.subscribeToBlockChannel(blockId)).then(action => {
+          if (API.subscribeToBlockChannel.fulfilled.match(action)) {
+            // from now on, changes can be sent through the websocket
+            markSessionLinked(webSocketId);
+          }
+        });
       } else {
         currentChannels[channelId] = count + 1;
       }
@@ -208,7 +214,9 @@ export function useLiveBlock({ atClass, atId, value, revision }: Props): LiveBlo
 
           logger.trace('Send change', change);
           //onChange(change);
-          dispatch(API.patchBlock({ id: atId, change: change }));
+          if (!sendChanges([change])) {
+            dispatch(API.patchBlock({ id: atId, change: change }));
+          }
         }
       },
       1000,
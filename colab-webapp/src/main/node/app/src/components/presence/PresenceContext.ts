@@ -35,6 +35,12 @@ export const PresenceContext = React.createContext<PresenceContext>(defaultConte
 
 const logger = getLogger('presence');
 
+/**
+ * Presence expires on the server if it is not touched. Touch it periodically, even if nothing
+ * changed. Shall be shorter than colab.presence.ttl.s
+ */
+const HEARTBEAT_PERIOD = 60000;
+
 export function usePresenceContext(): PresenceContext {
   const dispatch = useAppDispatch();
 
@@ -61,6 +67,15 @@ export function usePresenceContext(): PresenceContext {
     }
   }, [dispatch, currentProjectId, wsSessionId]);
 
+  React.useEffect(() => {
+    const timer = setInterval(() => {
+      touch(presenceRef.current);
+    }, HEARTBEAT_PERIOD);
+    return () => {
+      clearInterval(timer);
+    };
+  }, [touch]);
+
   const touchCb = React.useCallback(
     (presence: TouchFnParam) => {
       if (typeof presence === 'function') {
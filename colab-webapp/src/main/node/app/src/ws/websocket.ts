@@ -6,7 +6,10 @@
  */
 
 import {
+  Change,
   entityIs,
+  WsChangeAck,
+  WsChangeMessage,
   WsChannelUpdate,
   WsPing,
   WsPong,
@@ -49,6 +52,99 @@ const pong: WsPong = {
 
 const pongJson = JSON.stringify(pong);
 
+/**
+ * DecompressionStream is not known by our lib.dom yet
+ */
+type DecompressionStreamCtor = new (format: 'deflate') => TransformStream<Uint8Array, Uint8Array>;
+
+const DecompressionStreamImpl = (
+  window as unknown as { DecompressionStream?: DecompressionStreamCtor }
+).DecompressionStream;
+
+/**
+ * Server sends big frames deflated (zlib) as binary frames to clients which are able to inflate them
+ */
+const compressionSupported = DecompressionStreamImpl != null;
+
+function inflate(data: ArrayBuffer): Promise<string> {
+  const stream = new Blob([data]).stream().pipeThrough(new DecompressionStreamImpl!('deflate'));
+  return new Response(stream).text();
+}
+
+/**
+ * Current connection, if open
+ */
+let currentConnection: WebSocket | null = null;
+
+/**
+ * Websocket session id of the current connection, once received
+ */
+let currentSessionId: string | null = null;
+
+/**
+ * The server processes changes on behalf of the http session the websocket session is linked to.
+ * Such a link is made when the websocket session subscribes to a channel.
+ */
+let currentSessionLinked = false;
+
+/**
+ * Changes sent through the websocket which have not been acknowledged yet, mapped by message id
+ */
+const unacknowledgedChanges: Record<string, Change[]> = {};
+
+let changeMessageCounter = 0;
+
+/**
+ * To be called once the given websocket session has subscribed to a channel
+ */
+export function markSessionLinked(sessionId: string): void {
+  if (sessionId === currentSessionId) {
+    currentSessionLinked = true;
+  }
+}
+
+/**
+ * Send micro changes through the websocket. If the server rejects them, they are sent again
+ * through the REST API.
+ *
+ * @returns false if the websocket is not open or not linked to the http session yet; changes shall
+ * then be sent through the REST API
+ */
+export function sendChanges(changes: Change[]): boolean {
+  if (
+    currentConnection != null &&
+    currentConnection.readyState === WebSocket.OPEN &&
+    currentSessionLinked
+  ) {
+    changeMessageCounter++;
+    const id = `${changeMessageCounter}`;
+    const message: WsChangeMessage = {
+      '@class': 'WsChangeMessage',
+      id: id,
+      changes: changes,
+    };
+    unacknowledgedChanges[id] = changes;
+    currentConnection.send(JSON.stringify(message));
+    return true;
+  }
+  return false;
+}
+
+function processChangeAck(ack: WsChangeAck) {
+  const changes = ack.id != null ? unacknowledgedChanges[ack.id] : undefined;
+  if (ack.id != null) {
+    delete unacknowledgedChanges[ack.id];
+  }
+  if (ack.error != null) {
+    logger.warn('Changes rejected by websocket: ', ack.error);
+    // the session may be unlinked: use REST until the next subscription
+    currentSessionLinked = false;
+    if (changes != null && changes.length > 0) {
+      storeDispatch(API.patchBlocks(changes));
+    }
+  }
+}
+
 interface MappedMessages {
   WsChannelUpdate: WsChannelUpdate[];
   WsSessionIdentifier: WsSessionIdentifier[];
@@ -60,7 +156,14 @@ function createConnection(onCloseCb: () => void) {
   logger.info('Init Websocket Connection');
   const protocol = window.location.protocol.startsWith('https') ? 'wss' : 'ws';
   const wsPath = `${path}/ws`;
-  const connection = new WebSocket(`${protocol}:///${window.location.host}${wsPath}`);
+  const query = compressionSupported ? '?compression=deflate' : '';
+  const connection = new WebSocket(`${protocol}:///${window.location.host}${wsPath}${query}`);
+  if (compressionSupported) {
+    connection.binaryType = 'arraybuffer';
+  }
+  currentConnection = connection;
+  currentSessionId = null;
+  currentSessionLinked = false;
   logger.info('Init Ws Done');
 
   if (monkeyWebsocket) {
@@ -86,11 +189,26 @@ function createConnection(onCloseCb: () => void) {
     // reset by peer => reconnect please
     logger.warn('WS Close ', event);
     clearPing();
+    if (currentConnection === connection) {
+      currentConnection = null;
+      currentSessionId = null;
+      currentSessionLinked = false;
+      const lost = Object.keys(unacknowledgedChanges);
+      if (lost.length > 0) {
+        // outcome is unknown: send changes again through REST, the server ignores duplicates
+        logger.warn('WS closed before changes were acknowledged: ', lost);
+        const changes = lost.flatMap(id => unacknowledgedChanges[id] || []);
+        lost.forEach(id => delete unacknowledgedChanges[id]);
+        if (changes.length > 0) {
+          storeDispatch(API.patchBlocks(changes));
+        }
+      }
+    }
     onCloseCb();
   };
 
-  connection.onmessage = messageEvent => {
-    const parsed = JSON.parse(messageEvent.data);
+  const processFrame = (json: string) => {
+    const parsed = JSON.parse(json);
 
     const messages = Array.isArray(parsed) ? parsed : [parsed];
 
@@ -110,6 +228,11 @@ function createConnection(onCloseCb: () => void) {
             logger.trace('Receive Pong');
           } else if (entityIs(message, 'WsSignOutMessage')) {
             acc.WsSignOutMessage.push(message);
+          } else if (entityIs(message, 'WsChangeMessage')) {
+            // changes are only sent from clients to the server
+            logger.warn('Unexpected WsChangeMessage');
+          } else if (entityIs(message, 'WsChangeAck')) {
+            processChangeAck(message);
           } else {
             //If next line is erroneous, it means a type of WsMessage is not handled
             assertUnreachable(message);
@@ -145,6 +268,9 @@ function createConnection(onCloseCb: () => void) {
     if (sorted.WsSessionIdentifier.length > 0) {
       logger.info('WS session identifier message');
       if (sorted.WsSessionIdentifier.length === 1) {
+        if (currentConnection === connection) {
+          currentSessionId = sorted.WsSessionIdentifier[0]!.sessionId;
+        }
         storeDispatch(API.initSocketId(sorted.WsSessionIdentifier[0]!));
       } else {
         storeDispatch(
@@ -162,6 +288,17 @@ function createConnection(onCloseCb: () => void) {
       storeDispatch(API.processClosedHttpSessions(sorted.WsSignOutMessage));
     }
   };
+
+  // inflating is asynchronous: chain frames to process them in order
+  let frameQueue: Promise<void> = Promise.resolve();
+
+  connection.onmessage = messageEvent => {
+    const data: string | ArrayBuffer = messageEvent.data;
+    frameQueue = frameQueue
+      .then(() => (typeof data === 'string' ? data : inflate(data)))
+      .then(processFrame)
+      .catch(error => logger.error('Fail to process websocket frame', error));
+  };
 }
 
 /**